@@ -0,0 +1,35 @@
+package com.GDG.worktree.team2.gardening_diary.config;
+
+import com.GDG.worktree.team2.gardening_diary.service.EmotionApiGuard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 감정 분석 API 서킷 브레이커 상태 (actuator health의 emotionApi 항목)
+ *
+ * <p>감정 분석이 멈춰도 다이어리 작성은 계속되므로 서킷이 열려 있어도 UP으로 보고하고, 상태는 세부 항목으로만 알린다.
+ */
+@Component
+public class EmotionApiHealthIndicator implements HealthIndicator {
+
+    private final EmotionApiGuard guard;
+
+    @Autowired
+    public EmotionApiHealthIndicator(EmotionApiGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("circuit", guard.getState().name())
+                .withDetail("failureRate", guard.getFailureRate())
+                .withDetail("bulkheadAvailable", guard.getAvailablePermits())
+                .withDetail("bulkheadMax", guard.getMaxConcurrent())
+                .withDetail("rejectedByCircuit", guard.getRejectedByBreaker())
+                .withDetail("rejectedByBulkhead", guard.getRejectedByBulkhead())
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.GDG.worktree.team2.gardening_diary.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * 외부 HTTP 호출 설정
+ *
+ * <p>감정 분석 API 호출은 Apache HttpClient 연결 풀(outboundRestTemplate)을 쓴다. 연결을 keep-alive로 재사용해
+ * 호출마다 TCP/TLS 연결을 새로 맺지 않는다. 풀 사용량은 httpcomponents.httpclient.pool.* 메트릭(pool=outbound)으로 노출한다.
+ *
+ * <p>Firebase 인증 REST 호출(identitytoolkit)은 HTTP/2를 쓰는 JDK HttpClient(authRestTemplate)로 보낸다. 클라이언트 하나를
+ * 공유하므로 동시에 들어온 로그인 요청이 한 연결에서 다중화되고 TLS 연결을 다시 맺지 않는다. 서버가 HTTP/2를 지원하지
+ * 않으면 HTTP/1.1로 내려간다. 연결·응답 제한 시간은 http.client.* 값을 함께 쓴다.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    @Value("${http.client.max-total:50}")
+    private int maxTotal;
+
+    @Value("${http.client.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${http.client.max-per-host:}")
+    private String maxPerHost;
+
+    @Value("${http.client.connect-timeout-ms:5000}")
+    private long connectTimeoutMillis;
+
+    @Value("${http.client.response-timeout-ms:10000}")
+    private long responseTimeoutMillis;
+
+    @Value("${http.client.pool-timeout-ms:1000}")
+    private long poolTimeoutMillis;
+
+    @Value("${http.client.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${http.client.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Bean
+    public PoolingHttpClientConnectionManager outboundConnectionManager(ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        // 오래 쉬던 연결은 다시 쓰기 전에 끊겼는지 확인
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+        applyPerHostLimits(manager);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(manager, "outbound").bindTo(registry);
+        }
+        return manager;
+    }
+
+    @Bean
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        // 서버가 Keep-Alive 헤더를 보내지 않으면 이 시간 동안 연결을 유지
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate outboundRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                             CloseableHttpClient outboundHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(outboundHttpClient))
+                .build();
+    }
+
+    /**
+     * Firebase 인증 호출용 HTTP/2 클라이언트. 연결은 클라이언트 안에서 재사용된다.
+     */
+    @Bean
+    public HttpClient authHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate authRestTemplate(RestTemplateBuilder restTemplateBuilder, HttpClient authHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> {
+                    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(authHttpClient);
+                    requestFactory.setReadTimeout(Duration.ofMillis(responseTimeoutMillis));
+                    return requestFactory;
+                })
+                .build();
+    }
+
+    /**
+     * "https://host=10,http://host:8080=20" 형식의 호스트별 최대 연결 수 적용
+     */
+    private void applyPerHostLimits(PoolingHttpClientConnectionManager manager) {
+        if (maxPerHost == null || maxPerHost.isBlank()) {
+            return;
+        }
+        for (String entry : maxPerHost.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                logger.warn("http.client.max-per-host 항목 형식이 잘못되었습니다: {}", entry);
+                continue;
+            }
+            try {
+                HttpHost host = HttpHost.create(entry.substring(0, separator).trim());
+                boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+                int port = host.getPort() > 0 ? host.getPort() : (secure ? 443 : 80);
+                HttpRoute route = new HttpRoute(new HttpHost(host.getSchemeName(), host.getHostName(), port), null, secure);
+                manager.setMaxPerRoute(route, Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (URISyntaxException | NumberFormatException e) {
+                logger.warn("http.client.max-per-host 항목 형식이 잘못되었습니다: {}", entry);
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.GDG.worktree.team2.gardening_diary.config;
 
 import java.util.Arrays;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -43,11 +45,14 @@ public class SecurityConfig {
             
             // 인증 요구 설정
             .authorizeHttpRequests(auth -> auth
+                // 비동기 응답(CompletableFuture) 재디스패치는 최초 요청에서 이미 인가됨
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // 공개 엔드포인트
                 .requestMatchers("/api/auth/register", "/api/auth/login", "api/auth/google").permitAll()
                 
                 // 인증이 필요한 엔드포인트
-                .requestMatchers("/api/auth/**", "/api/diaries/**").authenticated()
+                .requestMatchers("/api/auth/**", "/api/diaries/**", "/actuator/metrics/**").authenticated()
                 
                 // 기타 모든 요청은 허용 (개발용)
                 .anyRequest().permitAll()
@@ -71,7 +76,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         
         // 허용할 HTTP 메서드 설정
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         
         // 허용할 헤더 설정
         configuration.setAllowedHeaders(Arrays.asList("*"));
@@ -80,7 +85,7 @@ public class SecurityConfig {
         configuration.setAllowCredentials(true);
         
         // 응답 헤더 노출 설정
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Next-Cursor"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
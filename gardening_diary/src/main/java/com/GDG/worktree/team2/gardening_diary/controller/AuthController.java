@@ -9,10 +9,10 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -183,14 +183,14 @@ public class AuthController {
      */
     @Operation(
         summary = "사용자 정보 수정",
-        description = "현재 인증된 사용자의 표시 이름과 프로필 이미지를 수정합니다."
+        description = "현재 인증된 사용자의 표시 이름과 프로필 이미지를 수정합니다. 보낸 값만 변경됩니다 (PATCH도 지원)."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "사용자 정보 수정 성공"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "사용자 정보 수정 실패"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
     })
-    @PutMapping("/user")
+    @RequestMapping(value = "/user", method = {RequestMethod.PUT, RequestMethod.PATCH})
     public ResponseEntity<ApiResponse<User>> updateUser(
             @AuthenticationPrincipal String uid,
             @Parameter(description = "표시 이름", example = "홍길동")
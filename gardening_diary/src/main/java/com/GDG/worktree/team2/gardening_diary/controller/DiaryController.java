@@ -1,17 +1,42 @@
 package com.GDG.worktree.team2.gardening_diary.controller;
 
 import com.GDG.worktree.team2.gardening_diary.dto.ApiResponse;
+import com.GDG.worktree.team2.gardening_diary.dto.BatchGetRequest;
+import com.GDG.worktree.team2.gardening_diary.dto.BatchGetResult;
 import com.GDG.worktree.team2.gardening_diary.dto.DiaryRequest;
+import com.GDG.worktree.team2.gardening_diary.dto.DiarySummary;
+import com.GDG.worktree.team2.gardening_diary.dto.ImportResult;
 import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.GDG.worktree.team2.gardening_diary.service.DiaryAutosaveBuffer;
+import com.GDG.worktree.team2.gardening_diary.service.DiaryExportService;
+import com.GDG.worktree.team2.gardening_diary.service.DiaryImportService;
 import com.GDG.worktree.team2.gardening_diary.service.DiaryService;
+import com.GDG.worktree.team2.gardening_diary.util.EmitterOutputStream;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -31,12 +56,38 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/diaries")
 @CrossOrigin(origins = "*")
 public class DiaryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiaryController.class);
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /** 내보내기 응답을 한 번에 보내는 최대 바이트 수 */
+    private static final int EXPORT_CHUNK_SIZE = 8192;
+
+    /** 기간 조회 한 페이지 최대 개수 */
+    private static final int MAX_RANGE_PAGE_SIZE = 500;
     
     private final DiaryService diaryService;
+    private final DiaryExportService diaryExportService;
+    private final DiaryImportService diaryImportService;
+    private final DiaryAutosaveBuffer diaryAutosaveBuffer;
+    private final AsyncTaskExecutor taskExecutor;
+    private final long exportTimeoutMillis;
 
     @Autowired
-    public DiaryController(DiaryService diaryService) {
+    public DiaryController(DiaryService diaryService,
+                           DiaryExportService diaryExportService,
+                           DiaryImportService diaryImportService,
+                           DiaryAutosaveBuffer diaryAutosaveBuffer,
+                           @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                           @Value("${diary.export.timeout-ms:600000}") long exportTimeoutMillis) {
         this.diaryService = diaryService;
+        this.diaryExportService = diaryExportService;
+        this.diaryImportService = diaryImportService;
+        this.diaryAutosaveBuffer = diaryAutosaveBuffer;
+        this.taskExecutor = taskExecutor;
+        this.exportTimeoutMillis = exportTimeoutMillis;
     }
     
     /**
@@ -44,7 +95,7 @@ public class DiaryController {
      */
     @Operation(
         summary = "다이어리 생성",
-        description = "새로운 다이어리를 생성합니다."
+        description = "새로운 다이어리를 생성합니다. Idempotency-Key 헤더를 보내면 같은 키의 재시도는 새로 만들지 않고 처음 생성한 다이어리를 반환합니다."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 생성 성공"),
@@ -59,14 +110,16 @@ public class DiaryController {
                 required = true,
                 content = @Content(schema = @Schema(implementation = DiaryRequest.class))
             )
-            @Valid @org.springframework.web.bind.annotation.RequestBody DiaryRequest request) {
+            @Valid @org.springframework.web.bind.annotation.RequestBody DiaryRequest request,
+            @Parameter(description = "재시도 시 같은 값을 보내면 처음 생성한 다이어리를 그대로 반환", example = "3f2b8c1e-7a4d-4e59-9b1a-2d6c0e8f5a17")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         
         try {
             if (userId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
             }
             
-            Diary diary = diaryService.createDiary(userId, request);
+            Diary diary = diaryService.createDiary(userId, request, idempotencyKey);
             return ResponseEntity.ok(new ApiResponse<>(diary, "다이어리가 생성되었습니다"));
             
         } catch (Exception e) {
@@ -74,6 +127,47 @@ public class DiaryController {
         }
     }
     
+    /**
+     * 다이어리 일괄 가져오기
+     */
+    @Operation(
+        summary = "다이어리 일괄 가져오기",
+        description = "JSON 배열, NDJSON 또는 CSV(헤더: treeId,content,writtenDate)로 다이어리를 한 번에 등록합니다. " +
+                "행별 실패 사유를 함께 반환하며, 감정 분석은 저장 후 순차적으로 처리됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "가져오기 완료 (행별 실패 포함)"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "가져오기 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson", "text/csv"})
+    public ResponseEntity<ApiResponse<ImportResult>> importDiaries(
+            @AuthenticationPrincipal String userId,
+            @Parameter(hidden = true)
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "가져올 다이어리 파일 (JSON 배열, NDJSON, CSV)",
+                required = true
+            )
+            InputStream body) {
+
+        try {
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
+            }
+
+            ImportResult result = diaryImportService.importDiaries(
+                    userId, body, DiaryImportService.Format.fromContentType(contentType));
+            String message = result.getAbortedReason() == null
+                    ? "다이어리 가져오기 완료"
+                    : "다이어리 가져오기 중단: " + result.getAbortedReason();
+            return ResponseEntity.ok(new ApiResponse<>(result, message));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 가져오기 실패: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 다이어리 조회 (ID로)
      */
@@ -88,16 +182,19 @@ public class DiaryController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "조회 권한 없음")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Diary>> getDiary(
+    public CompletableFuture<ResponseEntity<ApiResponse<Diary>>> getDiary(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "다이어리 ID", required = true, example = "diary123")
             @PathVariable String id) {
-        try {
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
-            }
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
 
-            Diary diary = diaryService.getDiaryById(id);
+        return diaryService.getDiaryByIdAsync(id, userId).handle((diary, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+            }
             if (diary == null) {
                 return ResponseEntity.status(404).body(new ApiResponse<>("다이어리를 찾을 수 없습니다"));
             }
@@ -108,10 +205,39 @@ public class DiaryController {
             }
 
             return ResponseEntity.ok(new ApiResponse<>(diary, "다이어리 조회 성공"));
-
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 조회 실패: " + e.getMessage()));
+        });
+    }
+    
+    /**
+     * 여러 다이어리 일괄 조회
+     */
+    @Operation(
+        summary = "여러 다이어리 일괄 조회",
+        description = "ID 목록(최대 " + BatchGetRequest.MAX_IDS + "개)의 다이어리를 한 번에 조회합니다. "
+                + "결과는 요청한 ID 순서를 따르며, 없거나 본인 소유가 아닌 다이어리는 found=false로 표시됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 일괄 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 요청 또는 조회 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @PostMapping("/batch-get")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<BatchGetResult<Diary>>>>> batchGetDiaries(
+            @AuthenticationPrincipal String userId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "조회할 다이어리 ID 목록",
+                required = true,
+                content = @Content(schema = @Schema(implementation = BatchGetRequest.class))
+            )
+            @Valid @org.springframework.web.bind.annotation.RequestBody BatchGetRequest request) {
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
         }
+
+        return diaryService.getDiariesByIdsAsync(request.getIds(), userId).handle((results, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(results, "다이어리 일괄 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 일괄 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
     }
     
     /**
@@ -119,7 +245,8 @@ public class DiaryController {
      */
     @Operation(
         summary = "사용자의 다이어리 목록 조회",
-        description = "현재 인증된 사용자의 모든 다이어리를 조회합니다. 페이징 지원 (limit > 0일 경우)."
+        description = "현재 인증된 사용자의 모든 다이어리를 조회합니다. 페이징 지원 (limit > 0일 경우). "
+                + "다음 페이지 커서는 " + NEXT_CURSOR_HEADER + " 응답 헤더로 전달되며, 다음 요청의 cursor 파라미터로 그대로 넘기면 됩니다."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 목록 조회 성공"),
@@ -127,30 +254,175 @@ public class DiaryController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Diary>>> getUserDiaries(
+    public CompletableFuture<ResponseEntity<ApiResponse<List<Diary>>>> getUserDiaries(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "조회할 개수 (0이면 전체 조회)", example = "10")
             @RequestParam(defaultValue = "0") int limit,
-            @Parameter(description = "페이징용 마지막 문서 ID", example = "lastDocId123")
+            @Parameter(description = "이전 응답의 " + NEXT_CURSOR_HEADER + " 헤더 값", example = "MTcwNDA2NzIwMDowOmRpYXJ5MTIz")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이징용 마지막 문서 ID (deprecated: cursor 사용 권장)", example = "lastDocId123")
             @RequestParam(required = false) String lastDocId) {
         
-        try {
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        if (limit > 0 && (cursor != null || lastDocId == null || lastDocId.isEmpty())) {
+            return diaryService.getUserDiaryPageAsync(userId, limit, cursor).handle((page, ex) -> {
+                if (ex != null) {
+                    return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+                }
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                if (page.getNextCursor() != null) {
+                    builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                return builder.body(new ApiResponse<>(page.getItems(), "다이어리 목록 조회 성공"));
+            });
+        }
+
+        CompletableFuture<List<Diary>> diaries = limit > 0
+                ? diaryService.getUserDiariesWithPagingAsync(userId, limit, lastDocId)
+                : diaryService.getUserDiariesAsync(userId);
+
+        return diaries.handle((result, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(result, "다이어리 목록 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
+    }
+    
+    /**
+     * 사용자의 다이어리 요약 목록 조회 (view=summary)
+     */
+    @Operation(
+        summary = "사용자의 다이어리 요약 목록 조회",
+        description = "view=summary일 때 본문 없이 ID, 나무 ID, 미리보기, 날짜만 조회합니다. limit/cursor 페이징은 전체 목록 조회와 동일합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 요약 목록 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "다이어리 요약 목록 조회 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @GetMapping(params = "view=summary")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<DiarySummary>>>> getUserDiarySummaries(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "조회할 개수 (0이면 전체 조회)", example = "10")
+            @RequestParam(defaultValue = "0") int limit,
+            @Parameter(description = "이전 응답의 " + NEXT_CURSOR_HEADER + " 헤더 값", example = "MTcwNDA2NzIwMDowOmRpYXJ5MTIz")
+            @RequestParam(required = false) String cursor) {
+
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        if (limit > 0) {
+            return diaryService.getUserDiarySummaryPageAsync(userId, limit, cursor).handle((page, ex) -> {
+                if (ex != null) {
+                    return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+                }
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                if (page.getNextCursor() != null) {
+                    builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                return builder.body(new ApiResponse<>(page.getItems(), "다이어리 목록 조회 성공"));
+            });
+        }
+
+        return diaryService.getUserDiarySummariesAsync(userId).handle((summaries, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(summaries, "다이어리 목록 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
+    }
+
+    /**
+     * 작성 날짜 범위로 다이어리 조회
+     */
+    @Operation(
+        summary = "작성 날짜 범위로 다이어리 조회",
+        description = "from~to(yyyy-MM-dd, 둘 다 포함, 각각 생략 가능) 사이에 작성된 다이어리를 작성 날짜 최신순으로 조회합니다. "
+                + "다음 페이지 커서는 " + NEXT_CURSOR_HEADER + " 응답 헤더로 전달됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 기간 또는 조회 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @GetMapping("/range")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<Diary>>>> getDiariesByWrittenDate(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "시작 날짜 (포함)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "종료 날짜 (포함)", example = "2024-01-07")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "조회할 개수 (최대 " + MAX_RANGE_PAGE_SIZE + ")", example = "31")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "이전 응답의 " + NEXT_CURSOR_HEADER + " 헤더 값", example = "MTcwNDA2NzIwMDowOmRpYXJ5MTIz")
+            @RequestParam(required = false) String cursor) {
+
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
+        if (limit <= 0 || limit > MAX_RANGE_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("limit은 1 이상 " + MAX_RANGE_PAGE_SIZE + " 이하여야 합니다")));
+        }
+
+        return diaryService.getDiaryPageByWrittenDateAsync(userId, from, to, limit, cursor).handle((page, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
             }
-            
-            List<Diary> diaries;
-            if (limit > 0) {
-                diaries = diaryService.getUserDiariesWithPaging(userId, limit, lastDocId);
-            } else {
-                diaries = diaryService.getUserDiaries(userId);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
             }
-            
-            return ResponseEntity.ok(new ApiResponse<>(diaries, "다이어리 목록 조회 성공"));
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + e.getMessage()));
+            return builder.body(new ApiResponse<>(page.getItems(), "다이어리 목록 조회 성공"));
+        });
+    }
+    
+    /**
+     * 작성 날짜 범위로 다이어리 조회 (view=summary)
+     */
+    @Operation(
+        summary = "작성 날짜 범위로 다이어리 요약 조회",
+        description = "view=summary일 때 본문 없이 from~to(yyyy-MM-dd, 둘 다 포함, 각각 생략 가능) 사이에 작성된 다이어리를 작성 날짜 최신순으로 조회합니다. "
+                + "다음 페이지 커서는 " + NEXT_CURSOR_HEADER + " 응답 헤더로 전달됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 요약 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 기간 또는 조회 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @GetMapping(value = "/range", params = "view=summary")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<DiarySummary>>>> getDiarySummariesByWrittenDate(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "시작 날짜 (포함)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "종료 날짜 (포함)", example = "2024-01-07")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "조회할 개수 (최대 " + MAX_RANGE_PAGE_SIZE + ")", example = "31")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "이전 응답의 " + NEXT_CURSOR_HEADER + " 헤더 값", example = "MTcwNDA2NzIwMDowOmRpYXJ5MTIz")
+            @RequestParam(required = false) String cursor) {
+
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
+        if (limit <= 0 || limit > MAX_RANGE_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("limit은 1 이상 " + MAX_RANGE_PAGE_SIZE + " 이하여야 합니다")));
         }
+
+        return diaryService.getDiarySummaryPageByWrittenDateAsync(userId, from, to, limit, cursor).handle((page, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return builder.body(new ApiResponse<>(page.getItems(), "다이어리 목록 조회 성공"));
+        });
     }
     
     /**
@@ -158,7 +430,8 @@ public class DiaryController {
      */
     @Operation(
         summary = "다이어리 수정",
-        description = "다이어리 정보를 수정합니다. 본인의 다이어리만 수정 가능합니다."
+        description = "다이어리 정보를 요청 내용으로 교체합니다. 본인의 다이어리만 수정 가능합니다. " +
+                "writtenDate를 생략하면 생성 시각으로 돌아갑니다. 일부 필드만 바꾸려면 PATCH를 사용하세요."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 수정 성공"),
@@ -183,6 +456,8 @@ public class DiaryController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
             }
             
+            // 대기 중인 자동 저장이 나중에 이 수정을 덮어쓰지 않도록 먼저 반영
+            diaryAutosaveBuffer.flushNow(id);
             Diary diary = diaryService.updateDiary(id, userId, request);
             return ResponseEntity.ok(new ApiResponse<>(diary, "다이어리가 수정되었습니다"));
             
@@ -198,45 +473,141 @@ public class DiaryController {
     }
     
     /**
-     * 다이어리 삭제
+     * 다이어리 부분 수정
      */
     @Operation(
-        summary = "다이어리 삭제",
-        description = "다이어리를 삭제합니다. 본인의 다이어리만 삭제 가능합니다."
+        summary = "다이어리 부분 수정",
+        description = "보낸 필드만 수정합니다. 생략한 필드는 그대로 유지되며, 변경된 필드만 저장소에 기록됩니다."
     )
     @ApiResponses(value = {
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 삭제 성공"),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "다이어리 삭제 실패"),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요"),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "삭제 권한 없음")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 수정 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "다이어리 수정 실패")
     })
-    @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<String>> deleteDiary(
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<Diary>> patchDiary(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "다이어리 ID", required = true, example = "diary123")
-            @PathVariable String id) {
+            @PathVariable String id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "수정할 필드",
+                required = true,
+                content = @Content(schema = @Schema(implementation = DiaryRequest.class))
+            )
+            @org.springframework.web.bind.annotation.RequestBody DiaryRequest request) {
         
         try {
             if (userId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
             }
             
-            boolean success = diaryService.deleteDiary(id, userId);
+            // 대기 중인 자동 저장이 나중에 이 수정을 덮어쓰지 않도록 먼저 반영
+            diaryAutosaveBuffer.flushNow(id);
+            Diary diary = diaryService.patchDiary(id, userId, request);
+            return ResponseEntity.ok(new ApiResponse<>(diary, "다이어리가 수정되었습니다"));
             
-            if (success) {
-                return ResponseEntity.ok(new ApiResponse<>("다이어리가 삭제되었습니다", "다이어리 삭제 성공"));
-            } else {
-                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 삭제 실패"));
+        } catch (IllegalArgumentException e) {
+            // 소유권 관련 예외는 403, 그 외는 400
+            if (e.getMessage() != null && e.getMessage().contains("권한")) {
+                return ResponseEntity.status(403).body(new ApiResponse<>(e.getMessage()));
+            }
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 수정 실패: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 다이어리 자동 저장
+     */
+    @Operation(
+        summary = "다이어리 자동 저장",
+        description = "편집 중 주기적으로 보내는 자동 저장입니다. 보낸 필드를 서버에 모아 두었다가 " +
+                "편집이 잠시 멈추면 최종 상태만 한 번 저장하고 감정 분석을 요청합니다. " +
+                "응답 시점에는 아직 저장되지 않았을 수 있습니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "자동 저장 대기"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "자동 저장 완료 (버퍼가 가득 차 바로 저장)"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "자동 저장 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "수정 권한 없음")
+    })
+    @PostMapping("/{id}/autosave")
+    public ResponseEntity<ApiResponse<String>> autosaveDiary(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "다이어리 ID", required = true, example = "diary123")
+            @PathVariable String id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "편집 중인 필드",
+                required = true,
+                content = @Content(schema = @Schema(implementation = DiaryRequest.class))
+            )
+            @org.springframework.web.bind.annotation.RequestBody DiaryRequest request) {
+        
+        try {
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
             }
             
+            if (diaryAutosaveBuffer.submit(id, userId, request)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse<>(id, "자동 저장 대기 중"));
+            }
+            return ResponseEntity.ok(new ApiResponse<>(id, "자동 저장되었습니다"));
+            
         } catch (IllegalArgumentException e) {
+            // 소유권 관련 예외는 403, 그 외는 400
             if (e.getMessage() != null && e.getMessage().contains("권한")) {
                 return ResponseEntity.status(403).body(new ApiResponse<>(e.getMessage()));
             }
             return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 삭제 실패: " + e.getMessage()));
+            return ResponseEntity.badRequest().body(new ApiResponse<>("자동 저장 실패: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 다이어리 삭제
+     */
+    @Operation(
+        summary = "다이어리 삭제",
+        description = "다이어리를 삭제합니다. 본인의 다이어리만 삭제 가능합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "다이어리 삭제 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "다이어리 삭제 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "삭제 권한 없음")
+    })
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> deleteDiary(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "다이어리 ID", required = true, example = "diary123")
+            @PathVariable String id) {
+        
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
         }
+
+        diaryAutosaveBuffer.discard(id, userId);
+        return diaryService.deleteDiaryAsync(id, userId).handle((success, ex) -> {
+            if (ex != null) {
+                Throwable cause = FirestoreFutures.unwrap(ex);
+                if (cause instanceof IllegalArgumentException) {
+                    if (cause.getMessage() != null && cause.getMessage().contains("권한")) {
+                        return ResponseEntity.status(403).body(new ApiResponse<>(cause.getMessage()));
+                    }
+                    return ResponseEntity.badRequest().body(new ApiResponse<>(cause.getMessage()));
+                }
+                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 삭제 실패: " + cause.getMessage()));
+            }
+
+            if (success) {
+                return ResponseEntity.ok(new ApiResponse<>("다이어리가 삭제되었습니다", "다이어리 삭제 성공"));
+            } else {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 삭제 실패"));
+            }
+        });
     }
     
     /**
@@ -252,20 +623,70 @@ public class DiaryController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
     })
     @GetMapping("/count")
-    public ResponseEntity<ApiResponse<Long>> getDiaryCount(@AuthenticationPrincipal String userId) {
-        try {
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
-            }
-            
-            long count = diaryService.getDiaryCount(userId);
-            return ResponseEntity.ok(new ApiResponse<>(count, "다이어리 개수 조회 성공"));
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 개수 조회 실패: " + e.getMessage()));
+    public CompletableFuture<ResponseEntity<ApiResponse<Long>>> getDiaryCount(@AuthenticationPrincipal String userId) {
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
         }
+
+        return diaryService.getDiaryCountAsync(userId).handle((count, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(count, "다이어리 개수 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 개수 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
     }
     
+    /**
+     * 다이어리 전체 내보내기 (NDJSON 스트리밍)
+     *
+     * <p>이력이 길면 전역 비동기 제한 시간(spring.mvc.async.request-timeout)보다 오래 걸리므로
+     * 이 응답만 diary.export.timeout-ms를 따로 적용한다.
+     */
+    @Operation(
+        summary = "다이어리 전체 내보내기",
+        description = "현재 인증된 사용자의 모든 다이어리를 NDJSON(한 줄에 JSON 하나)으로 스트리밍합니다. " +
+                "include에 emotions를 주면 감정 분석을, trees를 주면 나무 정보를 함께 내보냅니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "내보내기 시작"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<ResponseBodyEmitter> exportDiaries(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "함께 내보낼 데이터 (emotions, trees)", example = "emotions,trees")
+            @RequestParam(required = false) Set<String> include) {
+
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        boolean includeEmotions = include != null && include.contains(DiaryExportService.INCLUDE_EMOTIONS);
+        boolean includeTrees = include != null && include.contains(DiaryExportService.INCLUDE_TREES);
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMillis);
+        taskExecutor.execute(() -> {
+            try (OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter, NDJSON), EXPORT_CHUNK_SIZE)) {
+                diaryExportService.export(userId, includeEmotions, includeTrees, out);
+                out.flush();
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.completeWithError(e);
+            } catch (ExecutionException e) {
+                logger.warn("다이어리 내보내기 실패. userId={}: {}", userId, FirestoreFutures.unwrap(e).getMessage());
+                emitter.completeWithError(FirestoreFutures.unwrap(e));
+            } catch (Exception e) {
+                // 제한 시간 초과나 클라이언트 연결 끊김
+                logger.warn("다이어리 내보내기 중단. userId={}: {}", userId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"diaries.ndjson\"")
+                .body(emitter);
+    }
+
     /**
      * 나무별 다이어리 조회 엔드포인트
      */
@@ -279,19 +700,43 @@ public class DiaryController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
     })
     @GetMapping("/tree/{treeId}")
-    public ResponseEntity<ApiResponse<List<Diary>>> getDiariesByTreeId(
+    public CompletableFuture<ResponseEntity<ApiResponse<List<Diary>>>> getDiariesByTreeId(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "나무 ID", required = true, example = "tree123")
             @PathVariable String treeId) {
-        try {
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다"));
-            }
-            List<Diary> diaries = diaryService.getDiariesByTreeId(treeId, userId);
-            return ResponseEntity.ok(new ApiResponse<>(diaries, "나무별 다이어리 조회 성공"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 조회 실패: " + e.getMessage()));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
+        }
+        return diaryService.getDiariesByTreeIdAsync(treeId, userId).handle((diaries, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(diaries, "나무별 다이어리 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
+    }
+
+    /**
+     * 나무별 다이어리 요약 조회 (view=summary)
+     */
+    @Operation(
+        summary = "나무별 다이어리 요약 조회",
+        description = "view=summary일 때 특정 나무에 속한 다이어리를 본문 없이 요약으로 조회합니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "나무별 다이어리 요약 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "다이어리 조회 실패"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요")
+    })
+    @GetMapping(value = "/tree/{treeId}", params = "view=summary")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<DiarySummary>>>> getDiarySummariesByTreeId(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "나무 ID", required = true, example = "tree123")
+            @PathVariable String treeId) {
+        if (userId == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("인증이 필요합니다")));
         }
+        return diaryService.getDiarySummariesByTreeIdAsync(treeId, userId).handle((summaries, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(summaries, "나무별 다이어리 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("다이어리 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
     }
 }
 
@@ -63,7 +63,7 @@ public class EmotionAnalysisController {
         }
 
         try {
-            Diary diary = diaryService.getDiaryById(diaryId);
+            Diary diary = diaryService.getDiaryById(diaryId, userId);
             if (diary == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>("다이어리를 찾을 수 없습니다"));
@@ -116,7 +116,7 @@ public class EmotionAnalysisController {
         }
 
         try {
-            Diary diary = diaryService.getDiaryById(diaryId);
+            Diary diary = diaryService.getDiaryById(diaryId, userId);
             if (diary == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>("다이어리를 찾을 수 없습니다"));
@@ -127,7 +127,7 @@ public class EmotionAnalysisController {
             }
 
             EmotionAnalysis analysis = emotionAnalysisService
-                    .analyzeAndSave(diary.getId(), diary.getContent());
+                    .analyzeAndSave(diary.getId(), diary.getUserId(), diary.getContent());
 
             return ResponseEntity.ok(new ApiResponse<>(analysis, "감정 분석이 갱신되었습니다"));
 
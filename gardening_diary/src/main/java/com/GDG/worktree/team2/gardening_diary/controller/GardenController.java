@@ -4,6 +4,7 @@ import com.GDG.worktree.team2.gardening_diary.dto.ApiResponse;
 import com.GDG.worktree.team2.gardening_diary.dto.GardenRequest;
 import com.GDG.worktree.team2.gardening_diary.entity.Garden;
 import com.GDG.worktree.team2.gardening_diary.service.GardenService;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 정원 컨트롤러
  */
@@ -77,21 +80,20 @@ public class GardenController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "정원을 찾을 수 없거나 조회 실패")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Garden>> getGarden(
+    public CompletableFuture<ResponseEntity<ApiResponse<Garden>>> getGarden(
             @Parameter(description = "정원 ID", required = true, example = "garden123")
             @PathVariable String id) {
-        try {
-            Garden garden = gardenService.getGardenById(id);
-            
+        return gardenService.getGardenByIdAsync(id, userId).handle((garden, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("정원 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+            }
+
             if (garden != null) {
                 return ResponseEntity.ok(new ApiResponse<>(garden, "정원 조회 성공"));
             } else {
                 return ResponseEntity.badRequest().body(new ApiResponse<>("정원을 찾을 수 없습니다"));
             }
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("정원 조회 실패: " + e.getMessage()));
-        }
+        });
     }
     
     /**
@@ -106,25 +108,24 @@ public class GardenController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "인증 실패 또는 조회 실패")
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<Garden>> getUserGarden(
+    public CompletableFuture<ResponseEntity<ApiResponse<Garden>>> getUserGarden(
             @AuthenticationPrincipal String userId) {
         
-        try {
-            if (userId == null) {
-                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        return gardenService.getUserGardenAsync(userId).handle((garden, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("정원 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
             }
-            
-            Garden garden = gardenService.getUserGarden(userId);
-            
+
             if (garden != null) {
                 return ResponseEntity.ok(new ApiResponse<>(garden, "정원 조회 성공"));
             } else {
                 return ResponseEntity.ok(new ApiResponse<>(null, "정원이 없습니다"));
             }
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("정원 조회 실패: " + e.getMessage()));
-        }
+        });
     }
     
     /**
@@ -132,7 +133,7 @@ public class GardenController {
      */
     @Operation(
         summary = "정원 수정",
-        description = "기존 정원의 정보를 수정합니다."
+        description = "기존 정원의 정보를 요청 내용으로 교체합니다(나무 수를 생략하면 0). 일부 필드만 바꾸려면 PATCH를 사용하세요."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "정원 수정 성공"),
@@ -165,6 +166,44 @@ public class GardenController {
         }
     }
     
+    /**
+     * 정원 부분 수정
+     */
+    @Operation(
+        summary = "정원 부분 수정",
+        description = "보낸 필드만 수정합니다. 생략한 필드는 그대로 유지되며, 변경된 필드만 저장소에 기록됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "정원 수정 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "정원 수정 실패")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<Garden>> patchGarden(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "정원 ID", required = true, example = "garden123")
+            @PathVariable String id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "수정할 필드",
+                required = true,
+                content = @Content(schema = @Schema(implementation = GardenRequest.class))
+            )
+            @Valid @org.springframework.web.bind.annotation.RequestBody GardenRequest request) {
+        
+        try {
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
+            }
+            
+            Garden garden = gardenService.patchGarden(id, userId, request);
+            return ResponseEntity.ok(new ApiResponse<>(garden, "정원이 수정되었습니다"));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("정원 수정 실패: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 정원 삭제
      */
@@ -177,29 +216,30 @@ public class GardenController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "인증 실패, 권한 없음 또는 삭제 실패")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<String>> deleteGarden(
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> deleteGarden(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "정원 ID", required = true, example = "garden123")
             @PathVariable String id) {
         
-        try {
-            if (userId == null) {
-                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        return gardenService.deleteGardenAsync(id, userId).handle((success, ex) -> {
+            if (ex != null) {
+                Throwable cause = FirestoreFutures.unwrap(ex);
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().body(new ApiResponse<>(cause.getMessage()));
+                }
+                return ResponseEntity.badRequest().body(new ApiResponse<>("정원 삭제 실패: " + cause.getMessage()));
             }
-            
-            boolean success = gardenService.deleteGarden(id, userId);
-            
+
             if (success) {
                 return ResponseEntity.ok(new ApiResponse<>("정원이 삭제되었습니다", "정원 삭제 성공"));
             } else {
                 return ResponseEntity.badRequest().body(new ApiResponse<>("정원 삭제 실패"));
             }
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("정원 삭제 실패: " + e.getMessage()));
-        }
+        });
     }
 }
 
@@ -2,14 +2,24 @@ package com.GDG.worktree.team2.gardening_diary.controller;
 
 import com.GDG.worktree.team2.gardening_diary.dto.ApiResponse;
 import com.GDG.worktree.team2.gardening_diary.dto.TreeRequest;
+import com.GDG.worktree.team2.gardening_diary.dto.TreeSummary;
 import com.GDG.worktree.team2.gardening_diary.entity.Tree;
+import com.GDG.worktree.team2.gardening_diary.repository.BlobStore;
 import com.GDG.worktree.team2.gardening_diary.service.TreeService;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.channels.Channels;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -80,21 +90,76 @@ public class TreeController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "나무를 찾을 수 없거나 조회 실패")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Tree>> getTree(
+    public CompletableFuture<ResponseEntity<ApiResponse<Tree>>> getTree(
             @Parameter(description = "나무 ID", required = true, example = "tree123")
             @PathVariable String id) {
-        try {
-            Tree tree = treeService.getTreeById(id);
-            
+        return treeService.getTreeByIdAsync(id, userId).handle((tree, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("나무 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage()));
+            }
+
             if (tree != null) {
                 return ResponseEntity.ok(new ApiResponse<>(tree, "나무 조회 성공"));
             } else {
                 return ResponseEntity.badRequest().body(new ApiResponse<>("나무를 찾을 수 없습니다"));
             }
-            
+        });
+    }
+    
+    /**
+     * 나무 스냅샷 이미지 조회
+     */
+    @Operation(
+        summary = "나무 스냅샷 이미지 조회",
+        description = "나무 스냅샷 이미지를 바이너리로 내려받습니다. 내용이 바뀌지 않으면 ETag가 같으므로 If-None-Match로 캐시할 수 있습니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "스냅샷 이미지"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "변경 없음"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "인증 필요"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "나무 또는 스냅샷 없음")
+    })
+    @GetMapping("/{id}/snapshot")
+    public ResponseEntity<StreamingResponseBody> getTreeSnapshot(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "나무 ID", required = true, example = "tree123")
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        BlobStore.Blob snapshot;
+        try {
+            snapshot = treeService.getSnapshot(id, userId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("나무 조회 실패: " + e.getMessage()));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // 키가 내용 해시이므로 그대로 ETag로 쓴다
+        String etag = "\"" + snapshot.key() + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
         }
+
+        StreamingResponseBody body = out -> treeService.transferSnapshot(snapshot, Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(snapshot.contentType()))
+                .contentLength(snapshot.size())
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(body);
     }
     
     /**
@@ -109,28 +174,48 @@ public class TreeController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "나무 목록 조회 실패 또는 인증 실패")
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Tree>>> getUserTrees(
+    public CompletableFuture<ResponseEntity<ApiResponse<List<Tree>>>> getUserTrees(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "나무 상태 필터 (선택사항: active, inactive, completed)", example = "active")
             @RequestParam(required = false) String status) {
         
-        try {
-            if (userId == null) {
-                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
-            }
-            
-            List<Tree> trees;
-            if (status != null && !status.isEmpty()) {
-                trees = treeService.getUserTreesByStatus(userId, status);
-            } else {
-                trees = treeService.getUserTrees(userId);
-            }
-            
-            return ResponseEntity.ok(new ApiResponse<>(trees, "나무 목록 조회 성공"));
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("나무 목록 조회 실패: " + e.getMessage()));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다")));
         }
+
+        CompletableFuture<List<Tree>> trees = status != null && !status.isEmpty()
+                ? treeService.getUserTreesByStatusAsync(userId, status)
+                : treeService.getUserTreesAsync(userId);
+
+        return trees.handle((result, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(result, "나무 목록 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("나무 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
+    }
+    
+    /**
+     * 사용자의 나무 요약 목록 조회 (view=summary)
+     */
+    @Operation(
+        summary = "사용자의 나무 요약 목록 조회",
+        description = "view=summary일 때 스냅샷 이미지 없이 나무 목록을 조회합니다. 상태별 필터링 지원."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "나무 요약 목록 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "나무 목록 조회 실패 또는 인증 실패")
+    })
+    @GetMapping(params = "view=summary")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<TreeSummary>>>> getUserTreeSummaries(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "나무 상태 필터 (선택사항: active, inactive, completed)", example = "active")
+            @RequestParam(required = false) String status) {
+
+        if (userId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        return treeService.getUserTreeSummariesAsync(userId, status).handle((summaries, ex) -> ex == null
+                ? ResponseEntity.ok(new ApiResponse<>(summaries, "나무 목록 조회 성공"))
+                : ResponseEntity.badRequest().body(new ApiResponse<>("나무 목록 조회 실패: " + FirestoreFutures.unwrap(ex).getMessage())));
     }
     
     /**
@@ -138,7 +223,8 @@ public class TreeController {
      */
     @Operation(
         summary = "나무 수정",
-        description = "나무 정보를 수정합니다. 나무 소유자만 수정 가능합니다."
+        description = "나무 정보를 요청 내용으로 교체합니다(생략한 필드는 비워짐). 나무 소유자만 수정 가능합니다. " +
+                "일부 필드만 바꾸려면 PATCH를 사용하세요."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "나무 수정 성공"),
@@ -171,6 +257,44 @@ public class TreeController {
         }
     }
     
+    /**
+     * 나무 부분 수정
+     */
+    @Operation(
+        summary = "나무 부분 수정",
+        description = "보낸 필드만 수정합니다. 생략한 필드는 그대로 유지되며, 변경된 필드만 저장소에 기록됩니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "나무 수정 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "나무 수정 실패")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<Tree>> patchTree(
+            @AuthenticationPrincipal String userId,
+            @Parameter(description = "나무 ID", required = true, example = "tree123")
+            @PathVariable String id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "수정할 필드",
+                required = true,
+                content = @Content(schema = @Schema(implementation = TreeRequest.class))
+            )
+            @org.springframework.web.bind.annotation.RequestBody TreeRequest request) {
+        
+        try {
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
+            }
+            
+            Tree tree = treeService.patchTree(id, userId, request);
+            return ResponseEntity.ok(new ApiResponse<>(tree, "나무가 수정되었습니다"));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("나무 수정 실패: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 나무 삭제
      */
@@ -183,29 +307,30 @@ public class TreeController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "나무 삭제 실패, 권한 없음 또는 인증 실패")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<String>> deleteTree(
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> deleteTree(
             @AuthenticationPrincipal String userId,
             @Parameter(description = "나무 ID", required = true, example = "tree123")
             @PathVariable String id) {
         
-        try {
-            if (userId == null) {
-                return ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다"));
+        if (userId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ApiResponse<>("인증이 필요합니다")));
+        }
+
+        return treeService.deleteTreeAsync(id, userId).handle((success, ex) -> {
+            if (ex != null) {
+                Throwable cause = FirestoreFutures.unwrap(ex);
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().body(new ApiResponse<>(cause.getMessage()));
+                }
+                return ResponseEntity.badRequest().body(new ApiResponse<>("나무 삭제 실패: " + cause.getMessage()));
             }
-            
-            boolean success = treeService.deleteTree(id, userId);
-            
+
             if (success) {
                 return ResponseEntity.ok(new ApiResponse<>("나무가 삭제되었습니다", "나무 삭제 성공"));
             } else {
                 return ResponseEntity.badRequest().body(new ApiResponse<>("나무 삭제 실패"));
             }
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("나무 삭제 실패: " + e.getMessage()));
-        }
+        });
     }
 }
 
@@ -2,6 +2,8 @@ package com.GDG.worktree.team2.gardening_diary.controller;
 
 import com.GDG.worktree.team2.gardening_diary.entity.User;
 import com.GDG.worktree.team2.gardening_diary.service.UserService;
+import com.GDG.worktree.team2.gardening_diary.util.EmitterOutputStream;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,20 +11,46 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.List;
 
 @Tag(name = "03. 사용자 관리", description = "사용자 CRUD API")
 @RestController
 @RequestMapping("/api/users")
-@RequiredArgsConstructor
 public class UserController {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+
+    /** 한 페이지 최대 사용자 수 */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** 스트리밍 응답을 한 번에 보내는 최대 바이트 수 */
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
     private final UserService userservice;
+    private final AsyncTaskExecutor taskExecutor;
+    private final long streamTimeoutMillis;
+
+    public UserController(UserService userservice,
+                          @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                          @Value("${user.stream.timeout-ms:600000}") long streamTimeoutMillis) {
+        this.userservice = userservice;
+        this.taskExecutor = taskExecutor;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+    }
     
     @Operation(
         summary = "사용자 생성",
@@ -61,16 +89,72 @@ public class UserController {
     }
 
     @Operation(
-        summary = "전체 사용자 조회",
-        description = "모든 사용자 목록을 조회합니다."
+        summary = "사용자 목록 조회",
+        description = "사용자 목록을 ID 순으로 limit개씩 조회합니다 (비밀번호 제외). "
+                + "다음 페이지 커서는 " + DiaryController.NEXT_CURSOR_HEADER + " 응답 헤더로 전달되며, 다음 요청의 cursor 파라미터로 그대로 넘기면 됩니다."
     )
     @ApiResponses(value = {
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "사용자 목록 조회 성공")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "사용자 목록 조회 성공"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "잘못된 페이징 요청")
     })
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() throws ExecutionException, InterruptedException {
-        List<User> users = userservice.getAllUsers();
-        return ResponseEntity.ok(users);
+    public CompletableFuture<ResponseEntity<List<User>>> getUsers(
+            @Parameter(description = "조회할 개수 (최대 " + MAX_PAGE_SIZE + ")", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "이전 응답의 " + DiaryController.NEXT_CURSOR_HEADER + " 헤더 값", example = "dXNlcjEyMw")
+            @RequestParam(required = false) String cursor) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return userservice.getUserPageAsync(limit, cursor).handle((page, ex) -> {
+            if (ex != null) {
+                Throwable cause = FirestoreFutures.unwrap(ex);
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().<List<User>>build();
+                }
+                throw new CompletionException(cause);
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                builder.header(DiaryController.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return builder.body(page.getItems());
+        });
+    }
+
+    /**
+     * 전체 사용자 스트리밍 조회 (NDJSON)
+     *
+     * <p>사용자가 많으면 전역 비동기 제한 시간(spring.mvc.async.request-timeout)보다 오래 걸리므로
+     * 이 응답만 user.stream.timeout-ms를 따로 적용한다.
+     */
+    @Operation(
+        summary = "전체 사용자 스트리밍 조회",
+        description = "모든 사용자를 NDJSON(한 줄에 JSON 하나)으로 스트리밍합니다 (비밀번호 제외). "
+                + "전체 목록을 메모리에 올리지 않으므로 사용자 수와 관계없이 사용할 수 있습니다."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "스트리밍 시작")
+    })
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<ResponseBodyEmitter> streamUsers() {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMillis);
+        taskExecutor.execute(() -> {
+            try (OutputStream out = new BufferedOutputStream(
+                    new EmitterOutputStream(emitter, DiaryController.NDJSON), STREAM_CHUNK_SIZE)) {
+                userservice.streamUsers(out);
+                out.flush();
+                emitter.complete();
+            } catch (Exception e) {
+                // 제한 시간 초과나 클라이언트 연결 끊김
+                logger.warn("사용자 스트리밍 중단: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(DiaryController.NDJSON)
+                .body(emitter);
     }
 
     @Operation(
@@ -0,0 +1,45 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * ID 목록 일괄 조회 요청 DTO
+ */
+@Schema(description = "ID 목록 일괄 조회 요청")
+public class BatchGetRequest {
+    /** 한 번에 조회할 수 있는 최대 ID 수 */
+    public static final int MAX_IDS = 300;
+
+    @Schema(description = "조회할 ID 목록 (최대 " + MAX_IDS + "개, 응답은 이 순서를 따름)", example = "[\"diary123\", \"diary456\"]")
+    @NotEmpty(message = "ID 목록은 필수입니다")
+    @Size(max = MAX_IDS, message = "ID는 한 번에 " + MAX_IDS + "개까지 조회할 수 있습니다")
+    private List<String> ids;
+
+    // 기본 생성자
+    public BatchGetRequest() {}
+
+    // 생성자
+    public BatchGetRequest(List<String> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchGetRequest{" +
+                "ids=" + ids +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * ID 목록 일괄 조회 결과 항목 DTO
+ */
+@Schema(description = "일괄 조회 결과 항목")
+public class BatchGetResult<T> {
+    @Schema(description = "요청한 ID", example = "diary123")
+    private String id;
+
+    @Schema(description = "조회 성공 여부 (없거나 권한이 없으면 false)", example = "true")
+    private boolean found;
+
+    @Schema(description = "조회된 항목 (found가 false면 null)")
+    private T item;
+
+    // 기본 생성자
+    public BatchGetResult() {}
+
+    // 생성자
+    public BatchGetResult(String id, T item) {
+        this.id = id;
+        this.found = item != null;
+        this.item = item;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public void setItem(T item) {
+        this.item = item;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchGetResult{" +
+                "id='" + id + '\'' +
+                ", found=" + found +
+                ", item=" + item +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * 커서 기반 페이지 DTO
+ */
+@Schema(description = "커서 기반 페이지")
+public class CursorPage<T> {
+    @Schema(description = "페이지 항목")
+    private List<T> items;
+
+    @Schema(description = "다음 페이지 커서 (마지막 페이지면 null)", example = "MTcwNDA2NzIwMDowOmRpYXJ5MTIz")
+    private String nextCursor;
+
+    // 기본 생성자
+    public CursorPage() {}
+
+    // 생성자
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -3,6 +3,8 @@ package com.GDG.worktree.team2.gardening_diary.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.Date;
+
 /**
  * 다이어리 요청 DTO
  */
@@ -15,6 +17,9 @@ public class DiaryRequest {
     @Schema(description = "다이어리 내용", example = "오늘은 정원에 물을 주었습니다.", required = true)
     @NotBlank(message = "내용은 필수입니다")
     private String content;
+
+    @Schema(description = "작성 날짜 (생략 시 저장 시각)", example = "2024-01-01 21:30:00")
+    private Date writtenDate;
     
     // 기본 생성자
     public DiaryRequest() {}
@@ -41,12 +46,21 @@ public class DiaryRequest {
     public void setContent(String content) {
         this.content = content;
     }
+
+    public Date getWrittenDate() {
+        return writtenDate;
+    }
+
+    public void setWrittenDate(Date writtenDate) {
+        this.writtenDate = writtenDate;
+    }
     
     @Override
     public String toString() {
         return "DiaryRequest{" +
                 "treeId='" + treeId + '\'' +
                 ", content='" + content + '\'' +
+                ", writtenDate=" + writtenDate +
                 '}';
     }
 }
@@ -0,0 +1,90 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Date;
+
+/**
+ * 다이어리 목록용 요약 DTO (본문 제외)
+ */
+@Schema(description = "다이어리 요약 정보")
+public class DiarySummary {
+    @Schema(description = "다이어리 ID", example = "diary123")
+    private String id;
+
+    @Schema(description = "나무 ID", example = "tree123")
+    private String treeId;
+
+    @Schema(description = "본문 미리보기", example = "오늘은 정원에 물을 주었습니다.")
+    private String preview;
+
+    @Schema(description = "작성 날짜", example = "2024-01-01T00:00:00")
+    private Date writtenDate;
+
+    @Schema(description = "생성 일시", example = "2024-01-01T00:00:00")
+    private Date createdAt;
+
+    // 기본 생성자
+    public DiarySummary() {}
+
+    // 생성자
+    public DiarySummary(String id, String treeId, String preview, Date writtenDate, Date createdAt) {
+        this.id = id;
+        this.treeId = treeId;
+        this.preview = preview;
+        this.writtenDate = writtenDate;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTreeId() {
+        return treeId;
+    }
+
+    public void setTreeId(String treeId) {
+        this.treeId = treeId;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+
+    public Date getWrittenDate() {
+        return writtenDate;
+    }
+
+    public void setWrittenDate(Date writtenDate) {
+        this.writtenDate = writtenDate;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DiarySummary{" +
+                "id='" + id + '\'' +
+                ", treeId='" + treeId + '\'' +
+                ", preview='" + preview + '\'' +
+                ", writtenDate=" + writtenDate +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
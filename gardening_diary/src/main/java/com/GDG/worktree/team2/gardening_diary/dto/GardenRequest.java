@@ -2,15 +2,13 @@ package com.GDG.worktree.team2.gardening_diary.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotNull;
 
 /**
  * 정원 요청 DTO
  */
 @Schema(description = "정원 생성/수정 요청")
 public class GardenRequest {
-    @Schema(description = "나무의 개수", example = "5", minimum = "0", required = true)
-    @NotNull(message = "나무 수는 필수입니다")
+    @Schema(description = "나무의 개수 (서버가 나무 수를 관리하면 무시됨)", example = "5", minimum = "0")
     @Min(value = 0, message = "나무 수는 0 이상이어야 합니다")
     private Integer treeCount;
     
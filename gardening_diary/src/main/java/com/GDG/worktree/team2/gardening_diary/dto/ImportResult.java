@@ -0,0 +1,130 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 다이어리 일괄 가져오기 결과 DTO
+ */
+@Schema(description = "다이어리 일괄 가져오기 결과")
+public class ImportResult {
+    /** 응답에 담는 실패 행 최대 개수 */
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    @Schema(description = "읽은 행 수", example = "1200")
+    private long total;
+
+    @Schema(description = "저장 성공 행 수", example = "1198")
+    private long succeeded;
+
+    @Schema(description = "실패 행 수", example = "2")
+    private long failed;
+
+    @Schema(description = "실패한 행 목록 (최대 1000건)")
+    private List<RowFailure> failures = new ArrayList<>();
+
+    @Schema(description = "파일을 끝까지 읽지 못한 경우 그 사유", example = "3번째 행의 JSON 형식이 올바르지 않습니다")
+    private String abortedReason;
+
+    // 기본 생성자
+    public ImportResult() {}
+
+    public synchronized void addSuccess() {
+        succeeded++;
+    }
+
+    public synchronized void addFailure(long row, String message) {
+        failed++;
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(new RowFailure(row, message));
+        }
+    }
+
+    // Getters and Setters
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized void setTotal(long total) {
+        this.total = total;
+    }
+
+    public synchronized long getSucceeded() {
+        return succeeded;
+    }
+
+    public synchronized void setSucceeded(long succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public synchronized long getFailed() {
+        return failed;
+    }
+
+    public synchronized void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public synchronized List<RowFailure> getFailures() {
+        return failures;
+    }
+
+    public synchronized void setFailures(List<RowFailure> failures) {
+        this.failures = failures;
+    }
+
+    public String getAbortedReason() {
+        return abortedReason;
+    }
+
+    public void setAbortedReason(String abortedReason) {
+        this.abortedReason = abortedReason;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "total=" + total +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                ", abortedReason='" + abortedReason + '\'' +
+                '}';
+    }
+
+    /**
+     * 실패한 행 정보
+     */
+    @Schema(description = "가져오기 실패 행")
+    public static class RowFailure {
+        @Schema(description = "행 번호 (1부터, CSV 헤더 제외)", example = "42")
+        private long row;
+
+        @Schema(description = "실패 사유", example = "내용은 필수입니다")
+        private String message;
+
+        public RowFailure() {}
+
+        public RowFailure(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.GDG.worktree.team2.gardening_diary.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Date;
+
+/**
+ * 나무 목록용 요약 DTO (스냅샷 이미지 제외)
+ */
+@Schema(description = "나무 요약 정보")
+public class TreeSummary {
+    @Schema(description = "나무 ID", example = "tree123")
+    private String id;
+
+    @Schema(description = "주 시작 날짜", example = "2024-01-01T00:00:00")
+    private Date weekShortDate;
+
+    @Schema(description = "주 종료 날짜", example = "2024-01-07T23:59:59")
+    private Date weekEndDate;
+
+    @Schema(description = "다이어리 잎 색상들", example = "green,yellow,red")
+    private String diaryLeafColors;
+
+    @Schema(description = "나무 상태", example = "active", allowableValues = {"active", "inactive", "completed"})
+    private String status;
+
+    @Schema(description = "생성 일시", example = "2024-01-01T00:00:00")
+    private Date createdAt;
+
+    // 기본 생성자
+    public TreeSummary() {}
+
+    // 생성자
+    public TreeSummary(String id, Date weekShortDate, Date weekEndDate, String diaryLeafColors,
+                       String status, Date createdAt) {
+        this.id = id;
+        this.weekShortDate = weekShortDate;
+        this.weekEndDate = weekEndDate;
+        this.diaryLeafColors = diaryLeafColors;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Date getWeekShortDate() {
+        return weekShortDate;
+    }
+
+    public void setWeekShortDate(Date weekShortDate) {
+        this.weekShortDate = weekShortDate;
+    }
+
+    public Date getWeekEndDate() {
+        return weekEndDate;
+    }
+
+    public void setWeekEndDate(Date weekEndDate) {
+        this.weekEndDate = weekEndDate;
+    }
+
+    public String getDiaryLeafColors() {
+        return diaryLeafColors;
+    }
+
+    public void setDiaryLeafColors(String diaryLeafColors) {
+        this.diaryLeafColors = diaryLeafColors;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TreeSummary{" +
+                "id='" + id + '\'' +
+                ", weekShortDate=" + weekShortDate +
+                ", weekEndDate=" + weekEndDate +
+                ", diaryLeafColors='" + diaryLeafColors + '\'' +
+                ", status='" + status + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -9,7 +9,10 @@ import java.util.Date;
  * 다이어리 엔티티
  */
 @Schema(description = "다이어리 정보")
-public class Diary {
+public class Diary extends TrackedEntity {
+    /** 목록 요약 조회(select)용 미리보기 최대 길이 */
+    public static final int PREVIEW_LENGTH = 100;
+
     @Schema(description = "다이어리 ID", example = "diary123")
     @DocumentId
     private String id;
@@ -22,6 +25,9 @@ public class Diary {
     
     @Schema(description = "다이어리 내용", example = "오늘은 정원에 물을 주었습니다.")
     private String content; // 내용
+
+    @Schema(description = "본문 미리보기 (목록 요약 조회용)", example = "오늘은 정원에 물을 주었습니다.")
+    private String preview; // content 앞부분 (content 변경 시 함께 갱신)
     
     @Schema(description = "작성 날짜", example = "2024-01-01T00:00:00")
     private Date writtenDate; // 작성 날짜 (Firestore 호환 Date 타입)
@@ -42,6 +48,7 @@ public class Diary {
         this.userId = userId;
         this.treeId = treeId;
         this.content = content;
+        this.preview = toPreview(content);
         this.writtenDate = new Date();
     }
     
@@ -60,6 +67,7 @@ public class Diary {
     
     public void setUserId(String userId) {
         this.userId = userId;
+        markChanged("userId", userId);
     }
     
     public String getTreeId() {
@@ -68,6 +76,7 @@ public class Diary {
     
     public void setTreeId(String treeId) {
         this.treeId = treeId;
+        markChanged("treeId", treeId);
     }
     
     public String getContent() {
@@ -76,6 +85,18 @@ public class Diary {
     
     public void setContent(String content) {
         this.content = content;
+        this.preview = toPreview(content);
+        markChanged("content", content);
+        markChanged("preview", preview);
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+        markChanged("preview", preview);
     }
     
     public Date getWrittenDate() {
@@ -84,6 +105,7 @@ public class Diary {
 
     public void setWrittenDate(Date writtenDate) {
         this.writtenDate = writtenDate;
+        markChanged("writtenDate", writtenDate);
     }
     
     public Date getCreatedAt() {
@@ -102,6 +124,20 @@ public class Diary {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * 본문 앞부분 미리보기. 이모지 같은 보조 문자가 잘리지 않도록 코드 포인트 단위로 자른다.
+     */
+    public static String toPreview(String content) {
+        if (content == null) {
+            return null;
+        }
+        String normalized = content.strip();
+        if (normalized.codePointCount(0, normalized.length()) <= PREVIEW_LENGTH) {
+            return normalized;
+        }
+        return normalized.substring(0, normalized.offsetByCodePoints(0, PREVIEW_LENGTH)) + "...";
+    }
+    
     @Override
     public String toString() {
         return "Diary{" +
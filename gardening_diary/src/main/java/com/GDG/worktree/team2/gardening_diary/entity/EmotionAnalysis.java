@@ -12,6 +12,13 @@ import java.util.Map;
  */
 @Schema(description = "감정 분석 결과")
 public class EmotionAnalysis {
+    /** 분석 대기 중 (이전 결과가 있으면 그대로 남아 있다) */
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    /** API를 호출하지 못해 기본 감정으로 저장됨 (나중에 다시 분석) */
+    public static final String STATUS_DEFERRED = "DEFERRED";
+
     @Schema(description = "감정 분석 ID", example = "emotion123")
     @DocumentId
     private String id;
@@ -27,6 +34,9 @@ public class EmotionAnalysis {
 
     @Schema(description = "감정 분석 결과 (감정명: 점수)", example = "{\"happy\": 0.8, \"sad\": 0.2}")
     private Map<String, Double> result; // 감정별 점수 맵
+
+    @Schema(description = "분석 상태 (PENDING, COMPLETED, FAILED, DEFERRED. 없으면 완료된 예전 분석)", example = "COMPLETED")
+    private String status;
     
     @Schema(description = "생성 일시", example = "2024-01-01T00:00:00")
     @ServerTimestamp
@@ -85,6 +95,14 @@ public class EmotionAnalysis {
     public void setDominantEmotion(String dominantEmotion) {
         this.dominantEmotion = dominantEmotion;
     }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
     
     public Date getCreatedAt() {
         return createdAt;
@@ -110,6 +128,7 @@ public class EmotionAnalysis {
             ", comment='" + comment + '\'' +
             ", dominantEmotion='" + dominantEmotion + '\'' +
                 ", result=" + result +
+                ", status='" + status + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
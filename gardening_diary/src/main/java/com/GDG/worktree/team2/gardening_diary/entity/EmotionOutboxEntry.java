@@ -0,0 +1,106 @@
+package com.GDG.worktree.team2.gardening_diary.entity;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.cloud.firestore.annotation.ServerTimestamp;
+
+import java.util.Date;
+
+/**
+ * 다시 분석할 감정 분석 작업 (emotion_outbox/{diaryId})
+ */
+public class EmotionOutboxEntry {
+
+    @DocumentId
+    private String id;
+
+    private String diaryId;
+
+    private String userId; // 다이어리 조회용 (하위 컬렉션 구조에서 필요)
+
+    private int attempts; // 지금까지 다시 시도한 횟수
+
+    private Date nextAttemptAt; // 이 시각 이후에 다시 시도
+
+    private String lastError;
+
+    @ServerTimestamp
+    private Date createdAt;
+
+    // 기본 생성자
+    public EmotionOutboxEntry() {}
+
+    public EmotionOutboxEntry(String diaryId, String userId, String lastError, Date nextAttemptAt) {
+        this.id = diaryId;
+        this.diaryId = diaryId;
+        this.userId = userId;
+        this.lastError = lastError;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDiaryId() {
+        return diaryId;
+    }
+
+    public void setDiaryId(String diaryId) {
+        this.diaryId = diaryId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "EmotionOutboxEntry{" +
+                "diaryId='" + diaryId + '\'' +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                ", lastError='" + lastError + '\'' +
+                '}';
+    }
+}
@@ -19,7 +19,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
  * </ul>
  */
 @Schema(description = "정원 정보")
-public class Garden {
+public class Garden extends TrackedEntity {
 
     @Schema(description = "정원 ID", example = "garden123")
     @DocumentId
@@ -66,6 +66,7 @@ public class Garden {
     @PropertyName("user_id")
     public void setUserId(String userId) {
         this.userId = userId;
+        markChanged("user_id", userId);
     }
 
     @PropertyName("tree_count")
@@ -76,6 +77,7 @@ public class Garden {
     @PropertyName("tree_count")
     public void setTreeCount(int treeCount) {
         this.treeCount = treeCount;
+        markChanged("tree_count", treeCount);
     }
 
     @PropertyName("created_at")
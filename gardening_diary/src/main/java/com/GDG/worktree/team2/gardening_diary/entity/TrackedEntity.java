@@ -0,0 +1,37 @@
+package com.GDG.worktree.team2.gardening_diary.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.cloud.firestore.annotation.Exclude;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 변경된 필드를 기록하는 엔티티
+ *
+ * <p>setter가 Firestore 필드명과 새 값을 기록해 두면, 저장소는 문서 전체를 set()하지 않고
+ * 기록된 필드만 update()한다. Firestore 역직렬화도 setter를 거치므로 저장소는 문서를 읽은 직후
+ * {@link #clearChanges()}로 기록을 비운다.
+ */
+public abstract class TrackedEntity {
+
+    private final transient Map<String, Object> changes = new LinkedHashMap<>();
+
+    protected void markChanged(String field, Object value) {
+        changes.put(field, value);
+    }
+
+    /**
+     * 마지막으로 읽거나 저장한 뒤 변경된 필드 (Firestore 필드명 → 값)
+     */
+    @Exclude
+    @JsonIgnore
+    public Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    public void clearChanges() {
+        changes.clear();
+    }
+}
@@ -16,13 +16,14 @@ import java.util.Date;
  *   <li>weekShortDate: 주 시작 날짜</li>
  *   <li>weekEndDate: 주 종료 날짜</li>
  *   <li>diaryLeafColors: 일기 잎 색상들</li>
- *   <li>treeSnapshot: 나무 스냅샷</li>
+ *   <li>treeSnapshot: 나무 스냅샷 (예전 문서의 base64 이미지, 새 문서는 비어 있음)</li>
+ *   <li>snapshotRef: 바이너리 저장소의 나무 스냅샷 키</li>
  *   <li>status: 상태</li>
  *   <li>createdAt / updatedAt: Firestore 서버 타임스탬프</li>
  * </ul>
  */
 @Schema(description = "나무 정보")
-public class Tree {
+public class Tree extends TrackedEntity {
 
     @Schema(description = "나무 ID", example = "tree123")
     @DocumentId
@@ -44,10 +45,14 @@ public class Tree {
     @PropertyName("diary_leaf_colors")
     private String diaryLeafColors;
 
-    @Schema(description = "나무 스냅샷", example = "base64_encoded_image")
+    @Schema(description = "나무 스냅샷 (예전 데이터만 해당, 이미지는 GET /api/trees/{id}/snapshot으로 조회)", example = "base64_encoded_image")
     @PropertyName("tree_snapshot")
     private String treeSnapshot;
 
+    @Schema(description = "나무 스냅샷 키 (내용 해시)", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    @PropertyName("tree_snapshot_ref")
+    private String snapshotRef;
+
     @Schema(description = "나무 상태", example = "active", allowableValues = {"active", "inactive", "completed"})
     @PropertyName("status")
     private String status;
@@ -89,6 +94,7 @@ public class Tree {
     @PropertyName("user_id")
     public void setUserId(String userId) {
         this.userId = userId;
+        markChanged("user_id", userId);
     }
 
     @PropertyName("week_short_date")
@@ -99,6 +105,7 @@ public class Tree {
     @PropertyName("week_short_date")
     public void setWeekShortDate(Date weekShortDate) {
         this.weekShortDate = weekShortDate;
+        markChanged("week_short_date", weekShortDate);
     }
 
     @PropertyName("week_end_date")
@@ -109,6 +116,7 @@ public class Tree {
     @PropertyName("week_end_date")
     public void setWeekEndDate(Date weekEndDate) {
         this.weekEndDate = weekEndDate;
+        markChanged("week_end_date", weekEndDate);
     }
 
     @PropertyName("diary_leaf_colors")
@@ -119,6 +127,7 @@ public class Tree {
     @PropertyName("diary_leaf_colors")
     public void setDiaryLeafColors(String diaryLeafColors) {
         this.diaryLeafColors = diaryLeafColors;
+        markChanged("diary_leaf_colors", diaryLeafColors);
     }
 
     @PropertyName("tree_snapshot")
@@ -129,6 +138,18 @@ public class Tree {
     @PropertyName("tree_snapshot")
     public void setTreeSnapshot(String treeSnapshot) {
         this.treeSnapshot = treeSnapshot;
+        markChanged("tree_snapshot", treeSnapshot);
+    }
+
+    @PropertyName("tree_snapshot_ref")
+    public String getSnapshotRef() {
+        return snapshotRef;
+    }
+
+    @PropertyName("tree_snapshot_ref")
+    public void setSnapshotRef(String snapshotRef) {
+        this.snapshotRef = snapshotRef;
+        markChanged("tree_snapshot_ref", snapshotRef);
     }
 
     @PropertyName("status")
@@ -139,6 +160,7 @@ public class Tree {
     @PropertyName("status")
     public void setStatus(String status) {
         this.status = status;
+        markChanged("status", status);
     }
 
     @PropertyName("created_at")
@@ -170,6 +192,7 @@ public class Tree {
                 ", weekEndDate=" + weekEndDate +
                 ", diaryLeafColors='" + diaryLeafColors + '\'' +
                 ", treeSnapshot='" + treeSnapshot + '\'' +
+                ", snapshotRef='" + snapshotRef + '\'' +
                 ", status='" + status + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
@@ -9,7 +9,7 @@ import java.util.Date;
  * 사용자 엔티티
  */
 @Schema(description = "사용자 정보")
-public class User {
+public class User extends TrackedEntity {
     @Schema(description = "사용자 ID", example = "user123")
     @DocumentId
     private String id;
@@ -70,6 +70,7 @@ public class User {
     
     public void setUid(String uid) {
         this.uid = uid;
+        markChanged("uid", uid);
     }
     
     public String getUsername() {
@@ -78,6 +79,7 @@ public class User {
     
     public void setUsername(String username) {
         this.username = username;
+        markChanged("username", username);
     }
     
     public String getPassword() {
@@ -86,6 +88,7 @@ public class User {
     
     public void setPassword(String password) {
         this.password = password;
+        markChanged("password", password);
     }
     
     public String getEmail() {
@@ -94,6 +97,7 @@ public class User {
     
     public void setEmail(String email) {
         this.email = email;
+        markChanged("email", email);
     }
     
     public String getNickname() {
@@ -102,6 +106,7 @@ public class User {
     
     public void setNickname(String nickname) {
         this.nickname = nickname;
+        markChanged("nickname", nickname);
     }
     
     public String getDisplayName() {
@@ -110,6 +115,7 @@ public class User {
     
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
+        markChanged("displayName", displayName);
     }
     
     public String getProfileImageUrl() {
@@ -118,6 +124,7 @@ public class User {
     
     public void setProfileImageUrl(String profileImageUrl) {
         this.profileImageUrl = profileImageUrl;
+        markChanged("profileImageUrl", profileImageUrl);
     }
     
     public String getAuthProvider() {
@@ -126,6 +133,7 @@ public class User {
     
     public void setAuthProvider(String authProvider) {
         this.authProvider = authProvider;
+        markChanged("authProvider", authProvider);
     }
     
     public Date getCreatedAt() {
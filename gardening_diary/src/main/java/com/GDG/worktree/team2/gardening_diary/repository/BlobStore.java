@@ -0,0 +1,37 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 바이너리 저장소
+ *
+ * <p>내용의 SHA-256 해시를 키로 저장하므로 같은 내용은 한 번만 저장된다.
+ * Firestore 문서에는 키만 남기고 실제 바이트는 이 저장소에서 읽는다.
+ */
+public interface BlobStore {
+
+    /**
+     * 저장된 바이너리 정보
+     */
+    record Blob(String key, long size, String contentType) {}
+
+    /**
+     * 바이너리 저장. 같은 내용이 이미 있으면 다시 쓰지 않는다.
+     *
+     * @return 내용 해시 키
+     */
+    String put(byte[] data) throws IOException;
+
+    /**
+     * 바이너리 정보 조회. 없으면 null
+     */
+    Blob stat(String key) throws IOException;
+
+    /**
+     * 바이너리를 대상 채널로 전송
+     *
+     * @return 전송한 바이트 수
+     */
+    long transferTo(String key, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,58 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 메모리 캐시에 담는 문서
+ *
+ * <p>Firestore에서 읽은 스냅샷이나 디스크 캐시에서 복원한 값을 담아 두고, {@link #toEntity()}를
+ * 부를 때마다 새 엔티티를 만든다. 호출부가 엔티티를 고쳐도 캐시된 값은 바뀌지 않는다.
+ */
+public final class CachedDocument<T> {
+
+    private final String id;
+    private final Supplier<T> factory;
+
+    private CachedDocument(String id, Supplier<T> factory) {
+        this.id = id;
+        this.factory = factory;
+    }
+
+    /**
+     * 읽어 온 문서. document가 null이거나 존재하지 않으면 빈 문서.
+     */
+    static <T> CachedDocument<T> of(DocumentSnapshot document, Function<DocumentSnapshot, T> mapper) {
+        if (document == null) {
+            return new CachedDocument<>(null, null);
+        }
+        if (!document.exists()) {
+            return new CachedDocument<>(document.getId(), null);
+        }
+        return new CachedDocument<>(document.getId(), () -> mapper.apply(document));
+    }
+
+    /**
+     * 디스크 캐시에서 복원한 문서
+     */
+    static <T> CachedDocument<T> restored(String id, Supplier<T> factory) {
+        return new CachedDocument<>(id, factory);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean exists() {
+        return factory != null;
+    }
+
+    /**
+     * 새 엔티티. 문서가 없으면 null.
+     */
+    public T toEntity() {
+        return factory == null ? null : factory.get();
+    }
+}
@@ -1,165 +1,746 @@
 package com.GDG.worktree.team2.gardening_diary.repository;
 
+import com.GDG.worktree.team2.gardening_diary.dto.CursorPage;
+import com.GDG.worktree.team2.gardening_diary.dto.DiarySummary;
 import com.GDG.worktree.team2.gardening_diary.entity.Diary;
-import com.google.api.core.ApiFuture;
+import com.GDG.worktree.team2.gardening_diary.util.DocumentStream;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.GDG.worktree.team2.gardening_diary.util.PageCursor;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
 
 /**
  * 다이어리 Repository
+ *
+ * <p>모든 조회/저장은 {@code *Async} 메서드로 구현되어 있고,
+ * 동기 메서드는 기존 호출부 호환을 위해 결과를 기다려 반환한다.
+ *
+ * <p>문서 위치는 {@link StorageLayout}을 따른다. 하위 컬렉션(users/{uid}/diaries) 구조에서는
+ * 경로가 곧 소유권이므로 userId 조건 없이 조회한다.
+ *
+ * <p>{@code diary.counter.enabled}가 켜져 있으면 {@code user_stats/{userId}} 문서의
+ * 다이어리 개수를 생성/삭제와 같은 배치에서 갱신하여 개수 조회를 문서 1건 읽기로 처리한다.
+ *
+ * <p>ID 조회는 {@link EntityCache}와 {@link DiskCacheTier}를 차례로 거치며, 이 저장소를 통한 쓰기가 끝나면
+ * 두 계층에서 해당 문서를 무효화한다.
+ * 사용자의 전체 목록 조회는 {@link LiveUserLists}가 유지하는 실시간 결과로 응답할 수 있다.
  */
 @Repository
 public class DiaryRepository {
-    
+
     private static final String COLLECTION_NAME = "diaries";
-    
+    private static final String STATS_COLLECTION_NAME = "user_stats";
+    private static final String COUNT_FIELD = "diaryCount";
+    private static final String COUNT_SEEDED_FIELD = "diaryCountSeeded";
+
+    /** 요약 조회 시 내려받는 필드 (content 제외) */
+    private static final String[] SUMMARY_FIELDS = {"treeId", "preview", "writtenDate", "createdAt"};
+
     @Autowired
     private Firestore firestore;
-    
+
+    @Autowired
+    private StorageLayout layout;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private LiveUserLists liveLists;
+
+    @Autowired
+    private DiskCache diskCache;
+
+    @Value("${diary.counter.enabled:false}")
+    private boolean counterEnabled;
+
+    private EntityCache<CachedDocument<Diary>> cache;
+    private DiskCacheTier<Diary> diskTier;
+
+    @PostConstruct
+    void initCache() {
+        cache = entityCaches.create(COLLECTION_NAME);
+        // 저장 구조에 따라 캐시 키 형식이 달라지므로 이름에 모드를 붙인다
+        diskTier = diskCache.tier(COLLECTION_NAME + "@" + layout.getMode(), Diary.class, this::toDiary, cache);
+    }
+
     /**
      * 다이어리 저장
      */
     public Diary save(Diary diary) throws ExecutionException, InterruptedException {
-        if (diary.getId() == null) {
+        return await(saveAsync(diary));
+    }
+
+    /**
+     * 다이어리 저장 (비동기)
+     */
+    public CompletableFuture<Diary> saveAsync(Diary diary) {
+        boolean isNew = diary.getId() == null;
+        if (isNew) {
             // 새 다이어리인 경우
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-            diary.setId(docRef.getId());
-        }
-        
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(diary.getId())
-                .set(diary);
-        
-        future.get(); // 완료 대기
-        return diary;
+            diary.setId(layout.newDocumentId(COLLECTION_NAME));
+        }
+
+        List<DocumentReference> targets = layout.writeTargets(COLLECTION_NAME, diary.getUserId(), diary.getId());
+        if (targets.size() == 1 && (!isNew || !counterEnabled)) {
+            return afterWrite(diary.getId(), diary.getUserId(), toCompletableFuture(targets.get(0).set(diary)))
+                    .thenApply(writeResult -> diary);
+        }
+
+        // 새 다이어리와 개수 카운터(및 DUAL 기간의 사본)를 한 번에 커밋
+        WriteBatch batch = layout.set(firestore.batch(), COLLECTION_NAME, diary.getUserId(), diary.getId(), diary);
+        if (isNew && counterEnabled) {
+            batch.set(counterRef(diary.getUserId()),
+                    Map.<String, Object>of(COUNT_FIELD, FieldValue.increment(1)), SetOptions.merge());
+        }
+        return afterWrite(diary.getId(), diary.getUserId(), toCompletableFuture(batch.commit()))
+                .thenApply(writeResults -> diary);
     }
-    
+
+    /**
+     * 지정한 ID로 새 다이어리 생성
+     *
+     * <p>같은 ID의 다이어리가 이미 있으면 아무것도 쓰지 않고 ALREADY_EXISTS로 실패한다.
+     */
+    public Diary create(Diary diary) throws ExecutionException, InterruptedException {
+        return await(createAsync(diary));
+    }
+
+    /**
+     * 지정한 ID로 새 다이어리 생성 (비동기)
+     */
+    public CompletableFuture<Diary> createAsync(Diary diary) {
+        List<DocumentReference> targets = layout.writeTargets(COLLECTION_NAME, diary.getUserId(), diary.getId());
+        if (targets.size() == 1 && !counterEnabled) {
+            return afterWrite(diary.getId(), diary.getUserId(), toCompletableFuture(targets.get(0).create(diary)))
+                    .thenApply(writeResult -> diary);
+        }
+
+        // 생성 조건이 실패하면 카운터 증가도 함께 취소된다
+        WriteBatch batch = layout.create(firestore.batch(), COLLECTION_NAME, diary.getUserId(), diary.getId(), diary);
+        if (counterEnabled) {
+            batch.set(counterRef(diary.getUserId()),
+                    Map.<String, Object>of(COUNT_FIELD, FieldValue.increment(1)), SetOptions.merge());
+        }
+        return afterWrite(diary.getId(), diary.getUserId(), toCompletableFuture(batch.commit()))
+                .thenApply(writeResults -> diary);
+    }
+
+    /**
+     * 일괄 가져오기용 BulkWriter 생성
+     *
+     * <p>초당 쓰기 수를 initialOpsPerSecond에서 시작해 maxOpsPerSecond까지 점진적으로 늘린다.
+     */
+    public BulkWriter openBulkWriter(int initialOpsPerSecond, int maxOpsPerSecond) {
+        return firestore.bulkWriter(BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(initialOpsPerSecond)
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+    }
+
+    /**
+     * BulkWriter로 새 다이어리 생성 (비동기)
+     *
+     * <p>카운터는 갱신하지 않는다. 가져오기가 끝난 뒤 {@link #incrementCountAsync}로 한 번에 반영한다.
+     */
+    public CompletableFuture<Diary> bulkCreateAsync(BulkWriter writer, Diary diary) {
+        diary.setId(layout.newDocumentId(COLLECTION_NAME));
+        List<DocumentReference> targets = layout.writeTargets(COLLECTION_NAME, diary.getUserId(), diary.getId());
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            writes[i] = afterWrite(diary.getId(), diary.getUserId(),
+                    toCompletableFuture(writer.create(targets.get(i), diary)));
+        }
+        return CompletableFuture.allOf(writes).thenApply(ignored -> diary);
+    }
+
+    /**
+     * 다이어리 개수 카운터 증감 (카운터 사용 시에만, 비동기)
+     */
+    public CompletableFuture<Void> incrementCountAsync(String userId, long delta) {
+        if (!counterEnabled || delta == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return toCompletableFuture(counterRef(userId).set(
+                Map.<String, Object>of(COUNT_FIELD, FieldValue.increment(delta)), SetOptions.merge()))
+                .thenApply(writeResult -> null);
+    }
+
     /**
      * 다이어리 조회 (ID로)
      */
-    public Diary findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(Diary.class);
+    public Diary findById(String id, String userId) throws ExecutionException, InterruptedException {
+        return await(findByIdAsync(id, userId));
+    }
+
+    /**
+     * 다이어리 조회 (ID로, 비동기)
+     *
+     * <p>하위 컬렉션 구조에서는 다른 사용자의 다이어리는 찾을 수 없다(null).
+     */
+    public CompletableFuture<Diary> findByIdAsync(String id, String userId) {
+        return getCachedAsync(id, userId).thenApply(CachedDocument::toEntity);
+    }
+
+    /**
+     * 여러 다이어리 조회 (사용자 제한, 비동기)
+     *
+     * <p>getAll() 한 번으로 읽고 사용자 소유인 다이어리만 ID → 다이어리로 반환한다.
+     */
+    public CompletableFuture<Map<String, Diary>> findByIdsAsync(Collection<String> ids, String userId) {
+        return layout.getAllAsync(COLLECTION_NAME, "userId", userId, ids).thenApply(documents -> {
+            Map<String, Diary> diaries = new HashMap<>();
+            documents.forEach((id, document) -> {
+                Diary diary = document.toObject(Diary.class);
+                diary.clearChanges();
+                diaries.put(id, diary);
+            });
+            return diaries;
+        });
+    }
+
+    /**
+     * 다이어리 수정 (변경된 필드만)
+     */
+    public Diary update(Diary diary) throws ExecutionException, InterruptedException {
+        return await(updateAsync(diary));
+    }
+
+    /**
+     * 다이어리 수정 (변경된 필드만, 비동기)
+     *
+     * <p>setter로 바뀐 필드와 updatedAt만 update()로 보내므로 쓰기 크기가 변경분에 비례한다.
+     * 문서가 없으면 NOT_FOUND로 실패한다. DUAL 기간에는 전체 저장으로 대신한다.
+     */
+    public CompletableFuture<Diary> updateAsync(Diary diary) {
+        if (!layout.supportsPartialUpdate()) {
+            return saveAsync(diary);
         }
-        return null;
+        if (diary.getChanges().isEmpty()) {
+            return CompletableFuture.completedFuture(diary);
+        }
+
+        Map<String, Object> fields = new HashMap<>(diary.getChanges());
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return afterWrite(diary.getId(), diary.getUserId(),
+                        layout.updateAsync(COLLECTION_NAME, diary.getUserId(), diary.getId(), fields))
+                .thenApply(writeResult -> {
+                    diary.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    diary.clearChanges();
+                    return diary;
+                });
+    }
+
+    /**
+     * 사전 조회 없이 사용자 하위 컬렉션의 다이어리 수정 (NESTED, 비동기)
+     *
+     * <p>changes에 setter로 기록된 필드와 updatedAt만 update()로 보내고, 다시 읽지 않고 쓴 값에 ID와 커밋 시각을
+     * 채워 반환한다(커밋 1회). changes에 없던 필드는 비어 있다. 하위 컬렉션에 문서가 없으면 null을 반환한다.
+     */
+    public CompletableFuture<Diary> updateScopedAsync(String id, String userId, Diary changes) {
+        Map<String, Object> fields = new HashMap<>(changes.getChanges());
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return afterWrite(id, userId, layout.updateNestedAsync(COLLECTION_NAME, userId, id, fields))
+                .thenApply(writeResult -> {
+                    changes.setId(id);
+                    changes.setUserId(userId);
+                    changes.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    changes.clearChanges();
+                    return changes;
+                })
+                .exceptionallyCompose(ex -> FirestoreFutures.isNotFound(ex)
+                        ? CompletableFuture.<Diary>completedFuture(null)
+                        : CompletableFuture.<Diary>failedFuture(FirestoreFutures.unwrap(ex)));
     }
-    
+
     /**
      * 사용자의 모든 다이어리 조회
      */
     public List<Diary> findByUserId(String userId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .orderBy("createdAt", Query.Direction.DESCENDING);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Diary> diaries = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            diaries.add(document.toObject(Diary.class));
-        }
-        return diaries;
+        return await(findByUserIdAsync(userId));
     }
-    
+
+    /**
+     * 사용자의 모든 다이어리 조회 (비동기)
+     */
+    public CompletableFuture<List<Diary>> findByUserIdAsync(String userId) {
+        return findAllByUserIdAsync(userId).thenApply(documents -> map(documents, this::toDiary));
+    }
+
+    /**
+     * 사용자의 모든 다이어리 스트리밍 조회
+     *
+     * <p>결과를 한 번에 받지 않고 Query.stream()으로 흘려보낸다. 내보내기처럼 전체 이력을 훑는 용도.
+     */
+    public DocumentStream streamByUserId(String userId, int bufferSize) {
+        return DocumentStream.open(userQuery(userId), bufferSize);
+    }
+
     /**
      * 사용자의 다이어리 조회 (페이징)
      */
-    public List<Diary> findByUserIdWithPaging(String userId, int limit, String lastDocId) 
+    public List<Diary> findByUserIdWithPaging(String userId, int limit, String lastDocId)
             throws ExecutionException, InterruptedException {
-        
-    Query query = firestore.collection(COLLECTION_NAME)
-        .whereEqualTo("userId", userId)
-        .orderBy("createdAt", Query.Direction.DESCENDING)
-        .limit(limit);
-        
+        return await(findByUserIdWithPagingAsync(userId, limit, lastDocId));
+    }
+
+    /**
+     * 사용자의 다이어리 조회 (페이징, 비동기)
+     */
+    public CompletableFuture<List<Diary>> findByUserIdWithPagingAsync(String userId, int limit, String lastDocId) {
+        Query query = userQuery(userId)
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(limit);
+
         // 페이징을 위한 커서 처리
-        if (lastDocId != null && !lastDocId.isEmpty()) {
-            DocumentSnapshot lastDoc = firestore.collection(COLLECTION_NAME)
-                    .document(lastDocId).get().get();
-            if (lastDoc.exists()) {
-                query = query.startAfter(lastDoc);
-            }
+        if (lastDocId == null || lastDocId.isEmpty()) {
+            return toCompletableFuture(query.get()).thenApply(this::toDiaries);
         }
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Diary> diaries = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            diaries.add(document.toObject(Diary.class));
+
+        return toCompletableFuture(layout.readCollection(COLLECTION_NAME, userId).document(lastDocId).get())
+                .thenCompose(lastDoc -> {
+                    Query pageQuery = lastDoc.exists() ? query.startAfter(lastDoc) : query;
+                    return toCompletableFuture(pageQuery.get());
+                })
+                .thenApply(this::toDiaries);
+    }
+
+    /**
+     * 사용자의 다이어리 조회 (커서 페이징, 비동기)
+     *
+     * <p>(createdAt, 문서 ID) 키셋으로 startAfter를 구성하므로
+     * 이전 페이지의 마지막 문서를 다시 읽지 않고 쿼리 1회로 다음 페이지를 가져온다.
+     */
+    public CompletableFuture<CursorPage<Diary>> findPageByUserIdAsync(String userId, int limit, String cursor) {
+        return findPageAsync(userQuery(userId), "createdAt", limit, cursor, null,
+                document -> document.toObject(Diary.class));
+    }
+
+    /**
+     * 사용자의 다이어리 요약 조회 (커서 페이징, 비동기)
+     */
+    public CompletableFuture<CursorPage<DiarySummary>> findSummaryPageByUserIdAsync(String userId, int limit, String cursor) {
+        return findPageAsync(userQuery(userId), "createdAt", limit, cursor, SUMMARY_FIELDS, this::toSummary)
+                .thenCompose(page -> fillMissingPreviewsAsync(page, userId));
+    }
+
+    /**
+     * 작성 날짜 범위로 다이어리 조회 (커서 페이징, 비동기)
+     *
+     * <p>from 이상, to 미만 (둘 다 선택). (writtenDate, 문서 ID) 내림차순이며
+     * userId + writtenDate 복합 인덱스가 필요하다 (firestore.indexes.json).
+     */
+    public CompletableFuture<CursorPage<Diary>> findPageByWrittenDateAsync(String userId, Date from, Date to,
+                                                                          int limit, String cursor) {
+        return findPageAsync(writtenDateQuery(userId, from, to), "writtenDate", limit, cursor, null,
+                document -> document.toObject(Diary.class));
+    }
+
+    /**
+     * 작성 날짜 범위로 다이어리 요약 조회 (커서 페이징, 비동기)
+     */
+    public CompletableFuture<CursorPage<DiarySummary>> findSummaryPageByWrittenDateAsync(String userId, Date from, Date to,
+                                                                                        int limit, String cursor) {
+        return findPageAsync(writtenDateQuery(userId, from, to), "writtenDate", limit, cursor,
+                SUMMARY_FIELDS, this::toSummary)
+                .thenCompose(page -> fillMissingPreviewsAsync(page, userId));
+    }
+
+    private Query writtenDateQuery(String userId, Date from, Date to) {
+        Query query = userQuery(userId);
+        if (from != null) {
+            query = query.whereGreaterThanOrEqualTo("writtenDate", from);
         }
-        return diaries;
+        if (to != null) {
+            query = query.whereLessThan("writtenDate", to);
+        }
+        return query;
     }
-    
+
+    /**
+     * 사용자의 모든 다이어리 요약 조회 (비동기)
+     *
+     * <p>select() 필드 마스크로 본문을 제외하고 받아오므로 전송량이 항목 수에만 비례한다.
+     */
+    public CompletableFuture<List<DiarySummary>> findSummariesByUserIdAsync(String userId) {
+        Query query = latestFirst(userId);
+        return liveLists.getAsync(COLLECTION_NAME, userId, query,
+                        () -> toCompletableFuture(query.select(SUMMARY_FIELDS).get()).thenApply(QuerySnapshot::getDocuments))
+                .thenApply(documents -> map(documents, this::toSummary))
+                .thenCompose(summaries -> fillMissingPreviewsAsync(summaries, userId));
+    }
+
+    private <T> CompletableFuture<CursorPage<T>> findPageAsync(Query base, String orderField, int limit, String cursor,
+                                                               String[] fields,
+                                                               Function<DocumentSnapshot, T> mapper) {
+        Query query = base
+                .orderBy(orderField, Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(limit);
+
+        if (fields != null) {
+            query = query.select(fields);
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor decoded;
+            try {
+                decoded = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            query = query.startAfter(decoded.timestamp(), decoded.documentId());
+        }
+
+        return toCompletableFuture(query.get())
+                .thenApply(documents -> toPage(documents, limit, orderField, mapper));
+    }
+
     /**
      * 나무별 다이어리 조회 (사용자 제한)
      */
     public List<Diary> findByTreeId(String treeId, String userId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
+        return await(findByTreeIdAsync(treeId, userId));
+    }
+
+    /**
+     * 나무별 다이어리 조회 (사용자 제한, 비동기)
+     */
+    public CompletableFuture<List<Diary>> findByTreeIdAsync(String treeId, String userId) {
+        Query query = userQuery(userId)
                 .whereEqualTo("treeId", treeId)
-                .whereEqualTo("userId", userId)
                 .orderBy("createdAt", Query.Direction.ASCENDING);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Diary> diaries = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            diaries.add(document.toObject(Diary.class));
-        }
-        return diaries;
+
+        return toCompletableFuture(query.get()).thenApply(this::toDiaries);
+    }
+
+    /**
+     * 나무에 속한 다이어리 ID 조회 (사용자 제한, 비동기)
+     *
+     * <p>문서 ID만 받아오도록 select()로 본문을 제외한다.
+     */
+    public CompletableFuture<List<String>> findIdsByTreeIdAsync(String treeId, String userId) {
+        Query query = userQuery(userId)
+                .whereEqualTo("treeId", treeId)
+                .select(FieldPath.documentId());
+
+        return toCompletableFuture(query.get()).thenApply(documents -> map(documents, DocumentSnapshot::getId));
     }
-    
+
+    /**
+     * 나무별 다이어리 요약 조회 (사용자 제한, 비동기)
+     */
+    public CompletableFuture<List<DiarySummary>> findSummariesByTreeIdAsync(String treeId, String userId) {
+        Query query = userQuery(userId)
+                .whereEqualTo("treeId", treeId)
+                .orderBy("createdAt", Query.Direction.ASCENDING)
+                .select(SUMMARY_FIELDS);
+
+        return toCompletableFuture(query.get())
+                .thenApply(documents -> map(documents, this::toSummary))
+                .thenCompose(summaries -> fillMissingPreviewsAsync(summaries, userId));
+    }
+
     /**
      * 다이어리 삭제
      */
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        
-        future.get(); // 완료 대기
+    public void deleteById(String id, String userId) throws ExecutionException, InterruptedException {
+        await(deleteByIdAsync(id, userId));
     }
-    
+
+    /**
+     * 다이어리 삭제 (비동기)
+     *
+     * <p>카운터 사용 시 문서가 실제로 존재할 때만 개수가 줄어들도록 존재 조건을 건다.
+     * 하위 컬렉션 구조에서도 존재 조건을 걸어, 없는(또는 다른 사용자의) 다이어리면 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> deleteByIdAsync(String id, String userId) {
+        WriteBatch batch = firestore.batch();
+        batchDelete(batch, id, userId);
+        batchDecrementCount(batch, userId, 1);
+        return afterWrite(id, userId, toCompletableFuture(batch.commit()))
+                .thenApply(writeResults -> null);
+    }
+
+    /**
+     * 배치에 다이어리 삭제 추가 (개수 카운터는 {@link #batchDecrementCount}로 따로 반영)
+     *
+     * <p>배치를 커밋한 뒤 {@link #afterBatchCommit}로 커밋 시각을 알려야 한다.
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDelete(WriteBatch batch, String id, String userId) {
+        boolean requireExists = counterEnabled || layout.isUserScoped();
+        layout.delete(batch, COLLECTION_NAME, userId, id, requireExists);
+        return layout.writeTargets(COLLECTION_NAME, userId, id).size();
+    }
+
+    /**
+     * 배치에 다이어리 개수 감소 추가 (카운터 사용 시에만)
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDecrementCount(WriteBatch batch, String userId, long count) {
+        if (!counterEnabled || count == 0) {
+            return 0;
+        }
+        batch.set(counterRef(userId),
+                Map.<String, Object>of(COUNT_FIELD, FieldValue.increment(-count)), SetOptions.merge());
+        return 1;
+    }
+
     /**
      * 사용자의 다이어리 개수 조회
      */
     public long countByUserId(String userId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        return documents.getDocuments().size();
+        return await(countByUserIdAsync(userId));
     }
-    
+
+    /**
+     * 사용자의 다이어리 개수 조회 (비동기)
+     *
+     * <p>카운터가 준비되어 있으면 카운터 문서만 읽고,
+     * 그렇지 않으면 count() 집계 쿼리로 계산한다.
+     */
+    public CompletableFuture<Long> countByUserIdAsync(String userId) {
+        if (!counterEnabled) {
+            return aggregateCountAsync(userId);
+        }
+
+        return toCompletableFuture(counterRef(userId).get()).thenCompose(stats -> {
+            if (isSeeded(stats)) {
+                return CompletableFuture.completedFuture(readCount(stats));
+            }
+            return seedCounterAsync(userId);
+        });
+    }
+
     /**
      * 다이어리 존재 여부 확인
      */
-    public boolean existsById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        return document.exists();
+    public boolean existsById(String id, String userId) throws ExecutionException, InterruptedException {
+        return await(existsByIdAsync(id, userId));
+    }
+
+    /**
+     * 다이어리 존재 여부 확인 (비동기)
+     */
+    public CompletableFuture<Boolean> existsByIdAsync(String id, String userId) {
+        return getCachedAsync(id, userId).thenApply(CachedDocument::exists);
     }
-    
+
     /**
      * 다이어리 소유자 확인
      */
     public boolean isOwner(String diaryId, String userId) throws ExecutionException, InterruptedException {
-        Diary diary = findById(diaryId);
-        return diary != null && userId.equals(diary.getUserId());
+        return await(isOwnerAsync(diaryId, userId));
+    }
+
+    /**
+     * 다이어리 소유자 확인 (비동기)
+     */
+    public CompletableFuture<Boolean> isOwnerAsync(String diaryId, String userId) {
+        return findByIdAsync(diaryId, userId)
+                .thenApply(diary -> diary != null && userId.equals(diary.getUserId()));
+    }
+
+    /**
+     * 경로만으로 소유권이 보장되는 저장 구조인지 (사전 소유권 조회 생략 가능)
+     */
+    public boolean isUserScoped() {
+        return layout.isUserScoped();
+    }
+
+    /**
+     * 저장소 밖에서 커밋한 배치 삭제 반영 (캐시 무효화, 실시간 목록에 커밋 시각 전달)
+     *
+     * @param commitTime 커밋 시각 (실패 등으로 알 수 없으면 null)
+     */
+    public void afterBatchCommit(String id, String userId, Timestamp commitTime) {
+        evict(id, userId);
+        liveLists.recordWrite(COLLECTION_NAME, userId, commitTime, null);
+    }
+
+    private <T> CompletableFuture<T> afterWrite(String id, String userId, CompletableFuture<T> write) {
+        return write.whenComplete((result, ex) -> {
+            evict(id, userId);
+            liveLists.recordWrite(COLLECTION_NAME, userId, result, ex);
+        });
+    }
+
+    private void evict(String id, String userId) {
+        String key = layout.cacheKey(userId, id);
+        cache.invalidate(key);
+        diskTier.evict(key);
+    }
+
+    private CompletableFuture<List<QueryDocumentSnapshot>> findAllByUserIdAsync(String userId) {
+        Query query = latestFirst(userId);
+        return liveLists.getAsync(COLLECTION_NAME, userId, query,
+                () -> toCompletableFuture(query.get()).thenApply(QuerySnapshot::getDocuments));
+    }
+
+    private Query latestFirst(String userId) {
+        return userQuery(userId).orderBy("createdAt", Query.Direction.DESCENDING);
+    }
+
+    private CompletableFuture<CachedDocument<Diary>> getCachedAsync(String id, String userId) {
+        String key = layout.cacheKey(userId, id);
+        return cache.get(key,
+                () -> diskTier.load(key, () -> layout.getAsync(COLLECTION_NAME, "userId", userId, id)),
+                CachedDocument::exists);
+    }
+
+    /**
+     * count() 집계 쿼리로 개수 조회 (문서 본문을 읽지 않음)
+     */
+    private CompletableFuture<Long> aggregateCountAsync(String userId) {
+        AggregateQuery query = userQuery(userId).count();
+
+        return toCompletableFuture(query.get()).thenApply(AggregateQuerySnapshot::getCount);
+    }
+
+    /**
+     * 카운터 최초 초기화.
+     * 집계와 카운터 기록을 한 트랜잭션에서 수행해 그 사이의 생성/삭제가 누락되지 않도록 한다.
+     */
+    private CompletableFuture<Long> seedCounterAsync(String userId) {
+        DocumentReference statsRef = counterRef(userId);
+        AggregateQuery countQuery = userQuery(userId).count();
+
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            DocumentSnapshot stats = transaction.get(statsRef).get();
+            if (isSeeded(stats)) {
+                return readCount(stats);
+            }
+
+            long count = transaction.get(countQuery).get().getCount();
+            Map<String, Object> fields = new HashMap<>();
+            fields.put(COUNT_FIELD, count);
+            fields.put(COUNT_SEEDED_FIELD, true);
+            transaction.set(statsRef, fields, SetOptions.merge());
+            return count;
+        }));
+    }
+
+    private Query userQuery(String userId) {
+        return layout.userQuery(COLLECTION_NAME, "userId", userId);
+    }
+
+    private DocumentReference counterRef(String userId) {
+        return firestore.collection(STATS_COLLECTION_NAME).document(userId);
+    }
+
+    private boolean isSeeded(DocumentSnapshot stats) {
+        return stats.exists() && Boolean.TRUE.equals(stats.getBoolean(COUNT_SEEDED_FIELD));
+    }
+
+    private long readCount(DocumentSnapshot stats) {
+        Long count = stats.getLong(COUNT_FIELD);
+        return count != null ? Math.max(count, 0L) : 0L;
+    }
+
+    /**
+     * 조회 결과를 페이지로 변환. 결과가 limit만큼 찼을 때만 다음 커서를 만든다.
+     */
+    private <T> CursorPage<T> toPage(QuerySnapshot documents, int limit, String orderField,
+                                     Function<DocumentSnapshot, T> mapper) {
+        List<QueryDocumentSnapshot> snapshots = documents.getDocuments();
+        String nextCursor = null;
+        if (!snapshots.isEmpty() && snapshots.size() >= limit) {
+            QueryDocumentSnapshot last = snapshots.get(snapshots.size() - 1);
+            Timestamp orderValue = last.getTimestamp(orderField);
+            if (orderValue != null) {
+                nextCursor = new PageCursor(orderValue, last.getId()).encode();
+            }
+        }
+        return new CursorPage<>(map(documents, mapper), nextCursor);
+    }
+
+    private DiarySummary toSummary(DocumentSnapshot document) {
+        String preview = document.getString("preview");
+        if (preview == null && document.contains("content")) {
+            // 실시간 목록처럼 본문까지 받은 경우
+            preview = Diary.toPreview(document.getString("content"));
+        }
+        return new DiarySummary(
+                document.getId(),
+                document.getString("treeId"),
+                preview,
+                document.getDate("writtenDate"),
+                document.getDate("createdAt"));
+    }
+
+    private CompletableFuture<CursorPage<DiarySummary>> fillMissingPreviewsAsync(CursorPage<DiarySummary> page,
+                                                                                 String userId) {
+        return fillMissingPreviewsAsync(page.getItems(), userId).thenApply(items -> page);
+    }
+
+    /**
+     * preview 필드가 없는 예전 다이어리는 본문만 한 번 더 읽어 미리보기를 만든다.
+     * 미리보기 채우기(diary.preview-backfill)가 끝나면 추가 조회가 생기지 않는다.
+     */
+    private CompletableFuture<List<DiarySummary>> fillMissingPreviewsAsync(List<DiarySummary> summaries, String userId) {
+        Map<String, DiarySummary> missing = new HashMap<>();
+        for (DiarySummary summary : summaries) {
+            if (summary.getPreview() == null) {
+                missing.put(summary.getId(), summary);
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(summaries);
+        }
+
+        CollectionReference collection = layout.readCollection(COLLECTION_NAME, userId);
+        DocumentReference[] refs = missing.keySet().stream()
+                .map(collection::document)
+                .toArray(DocumentReference[]::new);
+        return toCompletableFuture(firestore.getAll(refs, FieldMask.of("content"))).thenApply(documents -> {
+            for (DocumentSnapshot document : documents) {
+                if (document.exists()) {
+                    missing.get(document.getId()).setPreview(Diary.toPreview(document.getString("content")));
+                }
+            }
+            return summaries;
+        });
+    }
+
+    private <T> List<T> map(QuerySnapshot documents, Function<DocumentSnapshot, T> mapper) {
+        return map(documents.getDocuments(), mapper);
+    }
+
+    private <T> List<T> map(List<? extends DocumentSnapshot> documents, Function<DocumentSnapshot, T> mapper) {
+        List<T> results = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            results.add(mapper.apply(document));
+        }
+        return results;
+    }
+
+    private List<Diary> toDiaries(QuerySnapshot documents) {
+        return map(documents, this::toDiary);
+    }
+
+    private Diary toDiary(DocumentSnapshot document) {
+        Diary diary = document.toObject(Diary.class);
+        diary.clearChanges();
+        return diary;
     }
 }
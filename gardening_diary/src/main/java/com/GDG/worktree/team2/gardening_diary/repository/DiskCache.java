@@ -0,0 +1,576 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.GDG.worktree.team2.gardening_diary.entity.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * 디스크 캐시 (메모리 캐시의 2차 계층)
+ *
+ * <p>최근 읽은 다이어리/나무/사용자 문서를 로컬 파일에 남겨, 컨테이너가 다시 뜬 뒤에도 Firestore에서
+ * 본문을 다시 받지 않고 응답한다. 파일은 메모리 맵으로 연 추가 전용 로그이며, 키별 최신 기록의 위치는
+ * 시작할 때 로그를 한 번 읽어 메모리 색인으로 만든다. 파일이 차면 최근 기록만 새 파일로 옮겨 압축한다.
+ *
+ * <p>디스크의 값은 문서의 updateTime과 함께 저장한다. 조회할 때 필드 없이 문서 메타데이터만 읽어
+ * updateTime이 같을 때만 쓰고, 한 번 확인한 값은 메모리 캐시 TTL 동안 다시 확인하지 않는다.
+ * 시작 직후에는 최근 기록을 일괄 확인해 메모리 캐시를 미리 채운다.
+ *
+ * <p>기록 추가와 압축은 전용 쓰기 스레드 하나에서 한다({@link #write}). Firestore 콜백 스레드는 쓰기를 넘기기만 하고
+ * 파일 I/O를 기다리지 않는다. 제거는 색인에서 바로 빼고 제거 기록만 쓰기 스레드에서 남긴다.
+ *
+ * <p>파일은 한 프로세스만 쓸 수 있으며, 이미 다른 프로세스가 쓰고 있거나 열 수 없으면 디스크 캐시 없이 동작한다.
+ * 컨테이너 재시작 후에도 남도록 영구 볼륨 경로를 지정해야 한다.
+ */
+@Component
+public class DiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCache.class);
+
+    private static final int MAGIC = 0x47444331; // "GDC1"
+    private static final int HEADER_SIZE = 16;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /** 압축 후 남길 최대 사용량 (용량 대비) */
+    private static final double COMPACT_RATIO = 0.5;
+
+    /** 쓰기 스레드에 밀려 있을 수 있는 최대 작업 수 (넘으면 저장을 건너뛴다) */
+    private static final int WRITE_QUEUE_CAPACITY = 10_000;
+
+    /**
+     * 디스크에 저장된 문서
+     *
+     * @param path     문서 경로 (검증 시 메타데이터를 읽을 위치)
+     * @param verified 메모리 캐시 TTL 안에 Firestore와 같음을 확인했는지
+     */
+    public record Entry(String path, Timestamp updateTime, byte[] value, boolean verified) {}
+
+    /**
+     * 색인 항목. verifiedUntil만 바뀌며 나머지는 기록 위치가 바뀌면 새로 만든다.
+     */
+    private static final class Slot {
+        final int offset;
+        final String path;
+        final Timestamp updateTime;
+        volatile long verifiedUntil;
+
+        Slot(int offset, String path, Timestamp updateTime, long verifiedUntil) {
+            this.offset = offset;
+            this.path = path;
+            this.updateTime = updateTime;
+            this.verifiedUntil = verifiedUntil;
+        }
+    }
+
+    /**
+     * 열린 로그 파일과 그 색인. 압축하면 통째로 바꾼다.
+     */
+    private record Segment(FileChannel channel, MappedByteBuffer buffer, Map<String, Slot> index) {}
+
+    /** 직렬화에서 제외하는 사용자 필드 */
+    private abstract static class UserMixin {
+        @JsonIgnore
+        abstract String getPassword();
+    }
+
+    private final Firestore firestore;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    /** 압축에 실패해 디스크 캐시를 끔 */
+    private volatile boolean failed;
+    private final Path directory;
+    private final int capacity;
+    private final int warmEntries;
+    private final long verifyMillis;
+    private final List<DiskCacheTier<?>> tiers = new CopyOnWriteArrayList<>();
+
+    private volatile Segment segment;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private volatile int writePosition;
+    private final ThreadPoolExecutor writer;
+
+    private final Counter hits;
+    private final Counter unverified;
+    private final Counter misses;
+
+    @Autowired
+    public DiskCache(Firestore firestore,
+                     @Value("${cache.disk.enabled:false}") boolean enabled,
+                     @Value("${cache.disk.path:/tmp/gardening-diary-cache}") String path,
+                     @Value("${cache.disk.max-size-mb:64}") int maxSizeMb,
+                     @Value("${cache.disk.warm-entries:1000}") int warmEntries,
+                     @Value("${cache.entity.ttl-seconds:60}") long verifySeconds,
+                     ObjectProvider<MeterRegistry> meterRegistry) {
+        this.firestore = firestore;
+        this.objectMapper = recordMapper();
+        this.directory = Path.of(path);
+        this.capacity = (int) Math.min((long) maxSizeMb * 1024 * 1024, Integer.MAX_VALUE);
+        this.warmEntries = warmEntries;
+        this.verifyMillis = verifySeconds * 1000;
+        this.enabled = enabled && open();
+        this.writer = this.enabled
+                ? new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "disk-cache-writer");
+                            thread.setDaemon(true);
+                            return thread;
+                        })
+                : null;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null && this.enabled) {
+            Gauge.builder("cache.disk.entries", this, cache -> cache.segment.index().size())
+                    .description("디스크 캐시 문서 수")
+                    .register(registry);
+            Gauge.builder("cache.disk.used.bytes", this, cache -> cache.writePosition)
+                    .description("디스크 캐시 로그 사용량")
+                    .register(registry);
+            this.hits = Counter.builder("cache.disk.reads").tag("result", "hit").register(registry);
+            this.unverified = Counter.builder("cache.disk.reads").tag("result", "unverified").register(registry);
+            this.misses = Counter.builder("cache.disk.reads").tag("result", "miss").register(registry);
+        } else {
+            this.hits = null;
+            this.unverified = null;
+            this.misses = null;
+        }
+    }
+
+    /**
+     * 캐시 기록 직렬화용 매퍼
+     *
+     * <p>앱 ObjectMapper는 spring.jackson.date-format에 따라 날짜를 초 단위 문자열로 쓰므로, 그대로 쓰면 디스크에서
+     * 되살린 날짜가 Firestore 값과 달라진다. 날짜를 epoch 밀리초로 쓰는 전용 매퍼를 쓴다.
+     */
+    static ObjectMapper recordMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .addMixIn(User.class, UserMixin.class)
+                .build();
+    }
+
+    /**
+     * 저장소별 계층 생성. 디스크 캐시가 꺼져 있으면 항상 Firestore에서 읽는 계층을 반환한다.
+     *
+     * @param name   저장소 이름 (키 앞에 붙는다. 저장 구조가 바뀌면 이름도 바꿔 이전 키를 쓰지 않게 한다)
+     * @param memory 시작할 때 미리 채울 메모리 캐시
+     */
+    public <T> DiskCacheTier<T> tier(String name, Class<T> type, Function<DocumentSnapshot, T> mapper,
+                                     EntityCache<CachedDocument<T>> memory) {
+        DiskCacheTier<T> tier = new DiskCacheTier<>(this, firestore, objectMapper, name, type, mapper, memory);
+        if (enabled) {
+            tiers.add(tier);
+        }
+        return tier;
+    }
+
+    public boolean isEnabled() {
+        return enabled && !failed;
+    }
+
+    /**
+     * 시작 직후 저장소별 최근 기록을 확인해 메모리 캐시를 채운다 (요청 처리와 함께 비동기로 진행).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!enabled || warmEntries <= 0) {
+            return;
+        }
+        for (DiskCacheTier<?> tier : tiers) {
+            tier.warm(warmEntries);
+        }
+    }
+
+    /**
+     * 키 조회. 없으면 null.
+     */
+    Entry get(String key) {
+        Entry entry = find(key);
+        count(entry == null ? misses : entry.verified() ? hits : unverified);
+        return entry;
+    }
+
+    /**
+     * 통계에 넣지 않는 조회 (미리 채우기용)
+     */
+    Entry find(String key) {
+        Segment current = segment;
+        Slot slot = current.index().get(key);
+        if (slot == null) {
+            return null;
+        }
+        boolean verified = slot.verifiedUntil > System.currentTimeMillis();
+        return new Entry(slot.path, slot.updateTime, readValue(current.buffer(), slot.offset), verified);
+    }
+
+    /**
+     * 쓰기 스레드에서 작업 실행. 밀린 작업이 너무 많거나 종료 중이면 건너뛴다(캐시이므로 저장하지 않아도 된다).
+     */
+    void write(Runnable task) {
+        if (writer == null || failed) {
+            return;
+        }
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("디스크 캐시 쓰기가 밀려 건너뜁니다");
+        }
+    }
+
+    /**
+     * Firestore에서 방금 읽은 문서 저장 (TTL 동안 확인 없이 사용). 파일에 쓰므로 쓰기 스레드에서 호출한다.
+     */
+    synchronized void put(String key, String path, Timestamp updateTime, byte[] value) {
+        byte[] body = encodePut(key, path, updateTime, value);
+        int offset = append(body);
+        if (offset >= 0) {
+            segment.index().put(key, new Slot(offset, path, updateTime, System.currentTimeMillis() + verifyMillis));
+        } else {
+            // 저장하지 못했으면 옛 기록도 쓰지 않는다
+            segment.index().remove(key);
+        }
+    }
+
+    /**
+     * Firestore와 같음을 확인한 기록 표시 (그사이 바뀐 기록이면 무시)
+     */
+    void markVerified(String key, Timestamp updateTime) {
+        Slot slot = segment.index().get(key);
+        if (slot != null && slot.updateTime.equals(updateTime)) {
+            slot.verifiedUntil = System.currentTimeMillis() + verifyMillis;
+        }
+    }
+
+    /**
+     * 키 제거. 색인에서는 바로 빼고, 제거 기록은 쓰기 스레드에서 남긴다.
+     */
+    void remove(String key) {
+        if (segment.index().remove(key) != null) {
+            write(() -> appendRemove(key));
+        }
+    }
+
+    private synchronized void appendRemove(String key) {
+        // 그사이 압축이 옛 색인의 항목을 새 색인으로 옮겼을 수 있으므로 지금 색인에서도 뺀다
+        segment.index().remove(key);
+        append(encodeRemove(key));
+    }
+
+    /**
+     * 문서 ID가 같은 모든 키 제거 (ID가 아닌 값으로 찾은 키 포함)
+     */
+    void removeDocument(String prefix, String documentId) {
+        String suffix = "/" + documentId;
+        List<String> keys = new ArrayList<>();
+        segment.index().forEach((key, slot) -> {
+            if (key.startsWith(prefix) && slot.path.endsWith(suffix)) {
+                keys.add(key);
+            }
+        });
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * 최근에 쓴 순서로 키 목록 (압축과 무관하게 최신 기록이 뒤에 있다)
+     */
+    List<String> recentKeys(String prefix, int limit) {
+        return segment.index().entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Comparator.comparingInt((Map.Entry<String, Slot> entry) -> entry.getValue().offset).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private boolean open() {
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve("cache.lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = lockChannel.tryLock();
+            if (lock == null) {
+                logger.warn("다른 프로세스가 디스크 캐시를 사용 중이어서 디스크 캐시 없이 동작합니다. path={}", directory);
+                lockChannel.close();
+                return false;
+            }
+
+            segment = load(directory.resolve("cache.log"));
+            logger.info("디스크 캐시를 열었습니다. path={}, 문서 {}건, 사용량 {}/{} bytes",
+                    directory, segment.index().size(), writePosition, capacity);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("디스크 캐시를 열 수 없어 디스크 캐시 없이 동작합니다. path={}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 로그를 열고 처음부터 읽어 색인을 만든다. 끝이 잘린(쓰는 도중 종료된) 기록부터는 버린다.
+     */
+    private Segment load(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        Map<String, Slot> index = new ConcurrentHashMap<>();
+
+        if (buffer.getInt(0) != MAGIC) {
+            // 새 파일이거나 형식이 다른 파일
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, 0);
+            writePosition = HEADER_SIZE;
+            return new Segment(channel, buffer, index);
+        }
+
+        int position = HEADER_SIZE;
+        while (true) {
+            int length = recordLength(buffer, position);
+            if (length <= 0) {
+                break;
+            }
+            int offset = position + 4;
+            int cursor = offset;
+            byte type = buffer.get(cursor++);
+            String key = readString(buffer, cursor);
+            cursor += 2 + utf8Length(buffer, cursor);
+            if (type == PUT) {
+                String path = readString(buffer, cursor);
+                cursor += 2 + utf8Length(buffer, cursor);
+                Timestamp updateTime = Timestamp.ofTimeSecondsAndNanos(buffer.getLong(cursor), buffer.getInt(cursor + 8));
+                index.put(key, new Slot(position, path, updateTime, 0));
+            } else {
+                index.remove(key);
+            }
+            position = offset + length + 4;
+        }
+        writePosition = position;
+        return new Segment(channel, buffer, index);
+    }
+
+    /**
+     * position의 기록 길이. 기록이 없거나 손상됐으면 0.
+     */
+    private int recordLength(MappedByteBuffer buffer, int position) {
+        if (position + 4 > capacity) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || (long) position + 4 + length + 4 > capacity) {
+            return 0;
+        }
+        byte[] body = new byte[length];
+        buffer.get(position + 4, body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue() == buffer.getInt(position + 4 + length) ? length : 0;
+    }
+
+    /**
+     * 기록 추가. 공간이 모자라면 압축하고, 그래도 안 되면 저장하지 않는다(-1).
+     */
+    private int append(byte[] body) {
+        int size = 4 + body.length + 4;
+        if (failed || size > capacity * COMPACT_RATIO) {
+            return -1;
+        }
+        if (writePosition + size > capacity) {
+            compact();
+            if (failed || writePosition + size > capacity) {
+                return -1;
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        MappedByteBuffer buffer = segment.buffer();
+        int offset = writePosition;
+        buffer.put(offset + 4, body);
+        buffer.putInt(offset + 4 + body.length, (int) crc.getValue());
+        // 길이를 마지막에 써서 읽는 쪽이 끝나지 않은 기록을 보지 않게 한다
+        buffer.putInt(offset, body.length);
+        writePosition = offset + size;
+        return offset;
+    }
+
+    /**
+     * 최근 기록부터 용량의 절반까지만 새 파일로 옮기고 파일을 바꾼다.
+     */
+    private void compact() {
+        Segment old = segment;
+        List<Map.Entry<String, Slot>> live = new ArrayList<>(old.index().entrySet());
+        live.sort(Comparator.comparingInt((Map.Entry<String, Slot> entry) -> entry.getValue().offset).reversed());
+
+        int budget = (int) (capacity * COMPACT_RATIO) - HEADER_SIZE;
+        List<Map.Entry<String, Slot>> kept = new ArrayList<>();
+        for (Map.Entry<String, Slot> entry : live) {
+            int size = 4 + old.buffer().getInt(entry.getValue().offset) + 4;
+            if (size > budget) {
+                break;
+            }
+            budget -= size;
+            kept.add(entry);
+        }
+        // 옛 순서(오래된 것부터)대로 옮겨 최근 순서를 유지한다
+        kept.sort(Comparator.comparingInt(entry -> entry.getValue().offset));
+
+        Path file = directory.resolve("cache.log");
+        Path compacted = directory.resolve("cache.log.compact");
+        FileChannel channel = null;
+        try {
+            Files.deleteIfExists(compacted);
+            channel = FileChannel.open(compacted,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, 0);
+
+            Map<String, Slot> index = new ConcurrentHashMap<>();
+            int position = HEADER_SIZE;
+            for (Map.Entry<String, Slot> entry : kept) {
+                Slot slot = entry.getValue();
+                int size = 4 + old.buffer().getInt(slot.offset) + 4;
+                byte[] record = new byte[size];
+                old.buffer().get(slot.offset, record);
+                buffer.put(position, record);
+                index.put(entry.getKey(), new Slot(position, slot.path, slot.updateTime, slot.verifiedUntil));
+                position += size;
+            }
+            buffer.force();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // 읽는 중인 요청은 옛 매핑을 계속 쓸 수 있다 (채널을 닫아도 매핑은 유지된다)
+            segment = new Segment(channel, buffer, index);
+            writePosition = position;
+            old.channel().close();
+            logger.info("디스크 캐시를 압축했습니다. 문서 {}건 → {}건", live.size(), kept.size());
+        } catch (IOException e) {
+            // 옛 매핑의 위치를 들고 읽는 중인 요청이 있으므로 그 자리에 다시 쓰지 않고 디스크 캐시를 끈다.
+            // 파일은 그대로 두며, 다음 시작 때 다시 연다.
+            logger.warn("디스크 캐시 압축에 실패해 디스크 캐시 없이 동작합니다: {}", e.getMessage());
+            failed = true;
+            if (channel != null) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(compacted);
+                } catch (IOException ignored) {
+                    // 다음 압축 때 지운다
+                }
+            }
+        }
+    }
+
+    private byte[] encodePut(String key, String path, Timestamp updateTime, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(
+                1 + 2 + keyBytes.length + 2 + pathBytes.length + 8 + 4 + 4 + value.length);
+        body.put(PUT)
+                .putShort((short) keyBytes.length).put(keyBytes)
+                .putShort((short) pathBytes.length).put(pathBytes)
+                .putLong(updateTime.getSeconds()).putInt(updateTime.getNanos())
+                .putInt(value.length).put(value);
+        return body.array();
+    }
+
+    private byte[] encodeRemove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 2 + keyBytes.length);
+        body.put(REMOVE).putShort((short) keyBytes.length).put(keyBytes);
+        return body.array();
+    }
+
+    private byte[] readValue(MappedByteBuffer buffer, int offset) {
+        int cursor = offset + 4 + 1;
+        cursor += 2 + utf8Length(buffer, cursor);
+        cursor += 2 + utf8Length(buffer, cursor);
+        cursor += 8 + 4;
+        byte[] value = new byte[buffer.getInt(cursor)];
+        buffer.get(cursor + 4, value);
+        return value;
+    }
+
+    private String readString(MappedByteBuffer buffer, int position) {
+        byte[] bytes = new byte[utf8Length(buffer, position)];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int utf8Length(MappedByteBuffer buffer, int position) {
+        return Short.toUnsignedInt(buffer.getShort(position));
+    }
+
+    private void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        // 밀린 기록을 마저 쓴다
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("디스크 캐시에 쓰지 못한 기록 {}건", writer.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                segment.buffer().force();
+                segment.channel().close();
+                lock.release();
+                lockChannel.close();
+            } catch (IOException e) {
+                logger.warn("디스크 캐시를 닫는 중 오류: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.GDG.worktree.team2.gardening_diary.entity.TrackedEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 저장소 하나의 디스크 캐시 계층
+ *
+ * <p>메모리 캐시에 없는 문서를 읽을 때 {@link #load}를 loader로 쓴다. 디스크에 있으면 문서 메타데이터만 읽어
+ * updateTime을 비교하고, 같으면 디스크의 값으로 응답한다. 없거나 바뀌었으면 reader로 전체를 읽어 디스크에 남긴다.
+ * 저장소는 쓰기가 끝나면 메모리 캐시와 함께 {@link #evict}로 디스크의 기록도 지운다.
+ * 읽은 문서의 직렬화와 파일 쓰기는 디스크 캐시의 쓰기 스레드에서 하므로 Firestore 콜백 스레드를 붙잡지 않는다.
+ */
+public class DiskCacheTier<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheTier.class);
+
+    /** 미리 채울 때 getAll() 한 번에 확인하는 문서 수 */
+    private static final int VERIFY_BATCH_SIZE = 100;
+
+    private static final int VERSION_STRIPES = 64;
+
+    /** 문서 메타데이터(updateTime)만 받기 위한 필드 마스크 */
+    private static final FieldMask METADATA_ONLY = FieldMask.of(FieldPath.documentId());
+
+    private final DiskCache disk;
+    private final Firestore firestore;
+    private final ObjectMapper objectMapper;
+    private final String name;
+    private final String prefix;
+    private final Class<T> type;
+    private final Function<DocumentSnapshot, T> mapper;
+    private final EntityCache<CachedDocument<T>> memory;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    DiskCacheTier(DiskCache disk, Firestore firestore, ObjectMapper objectMapper, String name, Class<T> type,
+                  Function<DocumentSnapshot, T> mapper, EntityCache<CachedDocument<T>> memory) {
+        this.disk = disk;
+        this.firestore = firestore;
+        this.objectMapper = objectMapper;
+        this.name = name;
+        this.prefix = name + ":";
+        this.type = type;
+        this.mapper = mapper;
+        this.memory = memory;
+    }
+
+    /**
+     * 문서 읽기. 디스크의 값이 최신이면 그 값을, 아니면 reader로 읽은 값을 반환한다.
+     *
+     * @param reader 문서 전체를 읽는다 (결과가 null이면 없는 문서)
+     */
+    public CompletableFuture<CachedDocument<T>> load(String key, Supplier<CompletableFuture<DocumentSnapshot>> reader) {
+        if (!disk.isEnabled()) {
+            return reader.get().thenApply(document -> CachedDocument.of(document, mapper));
+        }
+
+        DiskCache.Entry entry = disk.get(prefix + key);
+        if (entry == null) {
+            return read(key, reader);
+        }
+        if (entry.verified()) {
+            CachedDocument<T> restored = restore(key, entry);
+            return restored != null ? CompletableFuture.completedFuture(restored) : read(key, reader);
+        }
+
+        return toCompletableFuture(firestore.document(entry.path()).get(METADATA_ONLY)).thenCompose(metadata -> {
+            if (metadata.exists() && entry.updateTime().equals(metadata.getUpdateTime())) {
+                disk.markVerified(prefix + key, entry.updateTime());
+                CachedDocument<T> restored = restore(key, entry);
+                if (restored != null) {
+                    return CompletableFuture.completedFuture(restored);
+                }
+            }
+            return read(key, reader);
+        });
+    }
+
+    /**
+     * 키의 디스크 기록 제거 (쓰기 완료 후 호출)
+     */
+    public void evict(String key) {
+        if (!disk.isEnabled()) {
+            return;
+        }
+        versions.incrementAndGet(stripe(key));
+        disk.remove(prefix + key);
+    }
+
+    /**
+     * 문서 ID가 같은 모든 키의 디스크 기록 제거 (키를 알 수 없는 보조 조회 결과용)
+     */
+    public void evictDocument(String documentId) {
+        if (!disk.isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        disk.removeDocument(prefix, documentId);
+    }
+
+    /**
+     * 최근 기록을 getAll()로 묶어 확인하고, 최신인 문서로 메모리 캐시를 채운다.
+     */
+    void warm(int limit) {
+        List<String> keys = disk.recentKeys(prefix, limit).stream()
+                .map(diskKey -> diskKey.substring(prefix.length()))
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<Integer> chain = CompletableFuture.completedFuture(0);
+        for (int from = 0; from < keys.size(); from += VERIFY_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + VERIFY_BATCH_SIZE, keys.size()));
+            chain = chain.thenCompose(warmed -> warmBatch(batch).thenApply(count -> warmed + count));
+        }
+        chain.whenComplete((warmed, ex) -> {
+            if (ex != null) {
+                logger.warn("디스크 캐시로 메모리 캐시를 채우지 못했습니다. name={}: {}", name, ex.getMessage());
+            } else {
+                logger.info("디스크 캐시로 메모리 캐시를 채웠습니다. name={}, {}/{}건", name, warmed, keys.size());
+            }
+        });
+    }
+
+    private CompletableFuture<Integer> warmBatch(List<String> keys) {
+        Map<String, DiskCache.Entry> entries = new LinkedHashMap<>();
+        Map<String, DocumentReference> refs = new LinkedHashMap<>();
+        for (String key : keys) {
+            DiskCache.Entry entry = disk.find(prefix + key);
+            if (entry != null) {
+                entries.put(key, entry);
+                refs.putIfAbsent(entry.path(), firestore.document(entry.path()));
+            }
+        }
+        if (refs.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        return toCompletableFuture(firestore.getAll(refs.values().toArray(new DocumentReference[0]), METADATA_ONLY))
+                .thenCompose(snapshots -> {
+                    Map<String, DocumentSnapshot> byPath = new HashMap<>();
+                    for (DocumentSnapshot snapshot : snapshots) {
+                        byPath.put(snapshot.getReference().getPath(), snapshot);
+                    }
+
+                    List<CompletableFuture<CachedDocument<T>>> loads = new ArrayList<>();
+                    entries.forEach((key, entry) -> {
+                        DocumentSnapshot metadata = byPath.get(entry.path());
+                        if (metadata == null || !metadata.exists()
+                                || !entry.updateTime().equals(metadata.getUpdateTime())) {
+                            disk.remove(prefix + key);
+                            return;
+                        }
+                        disk.markVerified(prefix + key, entry.updateTime());
+                        loads.add(memory.get(key,
+                                () -> load(key, () -> toCompletableFuture(firestore.document(entry.path()).get())),
+                                CachedDocument::exists));
+                    });
+                    return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                            .thenApply(ignored -> loads.size());
+                });
+    }
+
+    private CompletableFuture<CachedDocument<T>> read(String key, Supplier<CompletableFuture<DocumentSnapshot>> reader) {
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        return reader.get().thenApply(document -> {
+            CachedDocument<T> cached = CachedDocument.of(document, mapper);
+            if (cached.exists()) {
+                disk.write(() -> {
+                    store(key, document);
+                    if (versions.get(stripe) != version) {
+                        // 읽은 뒤 저장하기 전까지 쓰기가 있었음
+                        disk.remove(prefix + key);
+                    }
+                });
+            } else {
+                disk.remove(prefix + key);
+            }
+            return cached;
+        });
+    }
+
+    private void store(String key, DocumentSnapshot document) {
+        try {
+            byte[] value = objectMapper.writeValueAsBytes(mapper.apply(document));
+            disk.put(prefix + key, document.getReference().getPath(), document.getUpdateTime(), value);
+        } catch (IOException e) {
+            logger.debug("디스크 캐시에 저장하지 못했습니다. name={}, key={}: {}", name, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 디스크의 값으로 문서 복원. 값을 읽을 수 없으면(엔티티 구조 변경 등) 기록을 지우고 null.
+     */
+    private CachedDocument<T> restore(String key, DiskCache.Entry entry) {
+        try {
+            decode(entry.value());
+        } catch (IOException e) {
+            logger.debug("디스크 캐시 값을 읽지 못해 지웁니다. name={}, key={}: {}", name, key, e.getMessage());
+            disk.remove(prefix + key);
+            return null;
+        }
+        String id = entry.path().substring(entry.path().lastIndexOf('/') + 1);
+        return CachedDocument.restored(id, () -> {
+            try {
+                return decode(entry.value());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private T decode(byte[] value) throws IOException {
+        T entity = objectMapper.readValue(value, type);
+        if (entity instanceof TrackedEntity tracked) {
+            tracked.clearChanges();
+        }
+        return entity;
+    }
+
+    private int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+}
@@ -1,82 +1,356 @@
 package com.GDG.worktree.team2.gardening_diary.repository;
 
 import com.GDG.worktree.team2.gardening_diary.entity.EmotionAnalysis;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
 /**
  * 감정 분석 Repository
+ *
+ * <p>분석 결과는 다이어리 ID를 문서 ID로 사용한다(emotion_analysis/{diaryId}).
+ * 따라서 조회/저장/삭제 모두 조건 쿼리 없이 문서 경로로 바로 처리한다.
+ * 예전 랜덤 UUID 문서가 남아 있는 동안은 {@code emotion.analysis.legacy-lookup}을 켜 두어
+ * diaryId 조건 조회로 한 번 더 찾는다. 켜 두면 조회와 삭제마다 조건 조회가 한 번 더 들므로 기본값은 꺼짐이다.
+ *
+ * <p>다이어리 ID 조회는 {@link EntityCache}를 거친다 (예전 UUID 문서는 캐시하지 않는다).
  */
 @Repository
 public class EmotionAnalysisRepository {
-    
-    private static final String COLLECTION_NAME = "emotion_analysis";
-    
+
+    public static final String COLLECTION_NAME = "emotion_analysis";
+
+    /** Firestore whereIn 조건에 넣을 수 있는 최대 값 개수 */
+    private static final int IN_QUERY_LIMIT = 30;
+
     @Autowired
     private Firestore firestore;
-    
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Value("${emotion.analysis.legacy-lookup:false}")
+    private boolean legacyLookup;
+
+    private EntityCache<DocumentSnapshot> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = entityCaches.create(COLLECTION_NAME);
+    }
+
     /**
      * 감정 분석 저장
      */
     public EmotionAnalysis save(EmotionAnalysis analysis) throws ExecutionException, InterruptedException {
-        // ID가 없으면 자동 생성
+        return await(saveAsync(analysis));
+    }
+
+    /**
+     * 감정 분석 저장 (비동기)
+     */
+    public CompletableFuture<EmotionAnalysis> saveAsync(EmotionAnalysis analysis) {
+        // ID가 없으면 다이어리 ID 사용
         if (analysis.getId() == null || analysis.getId().isEmpty()) {
-            analysis.setId(java.util.UUID.randomUUID().toString());
+            analysis.setId(analysis.getDiaryId());
         }
-        
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
+
+        return cache.invalidateAfter(analysis.getId(), toCompletableFuture(firestore.collection(COLLECTION_NAME)
                 .document(analysis.getId())
-                .set(analysis);
-        
-        future.get();
-        return analysis;
+                .set(analysis)))
+                .thenApply(writeResult -> analysis);
     }
-    
+
+    /**
+     * 다이어리의 감정 분석 저장 또는 갱신 (비동기)
+     *
+     * <p>사전 조회 없이 결과 필드를 병합 쓰기 한 번으로 저장한다. 생성 일시는 쓰지 않고 문서의 생성 시각으로 채운다
+     * ({@link #toAnalysis}).
+     */
+    public CompletableFuture<EmotionAnalysis> upsertByDiaryIdAsync(EmotionAnalysis analysis) {
+        analysis.setId(analysis.getDiaryId());
+        return cache.invalidateAfter(analysis.getDiaryId(),
+                        toCompletableFuture(documentOf(analysis.getDiaryId()).set(resultFields(analysis), SetOptions.merge())))
+                .thenApply(writeResult -> analysis);
+    }
+
+    /**
+     * 다이어리의 감정 분석 결과 갱신 (비동기)
+     *
+     * <p>분석 문서가 있을 때만 쓴다. 분석하는 사이 다이어리와 함께 지워졌으면 NOT_FOUND로 실패하며 문서를 다시 만들지 않는다.
+     */
+    public CompletableFuture<EmotionAnalysis> updateByDiaryIdAsync(EmotionAnalysis analysis) {
+        analysis.setId(analysis.getDiaryId());
+        return cache.invalidateAfter(analysis.getDiaryId(),
+                        toCompletableFuture(documentOf(analysis.getDiaryId()).update(resultFields(analysis))))
+                .thenApply(writeResult -> analysis);
+    }
+
+    /**
+     * 다이어리의 감정 분석 상태만 기록 (비동기)
+     *
+     * <p>병합 쓰기 한 번으로, 분석이 없으면 결과 없이 상태만 가진 문서를 만들고 있으면 이전 결과를 둔 채 상태만 바꾼다.
+     */
+    public CompletableFuture<Void> upsertStatusAsync(String diaryId, String status) {
+        return cache.invalidateAfter(diaryId,
+                        toCompletableFuture(documentOf(diaryId).set(statusFields(diaryId, status), SetOptions.merge())))
+                .thenApply(writeResult -> null);
+    }
+
+    /**
+     * 다이어리의 감정 분석 상태만 갱신 (비동기). 분석 문서가 없으면 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> updateStatusAsync(String diaryId, String status) {
+        return cache.invalidateAfter(diaryId, toCompletableFuture(documentOf(diaryId).update(statusFields(diaryId, status))))
+                .thenApply(writeResult -> null);
+    }
+
+    private Map<String, Object> resultFields(EmotionAnalysis analysis) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("diaryId", analysis.getDiaryId());
+        fields.put("comment", analysis.getComment());
+        fields.put("dominantEmotion", analysis.getDominantEmotion());
+        fields.put("result", analysis.getResult());
+        fields.put("status", analysis.getStatus());
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    private Map<String, Object> statusFields(String diaryId, String status) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("diaryId", diaryId);
+        fields.put("status", status);
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return fields;
+    }
+
     /**
      * 감정 분석 조회 (ID로)
      */
     public EmotionAnalysis findById(String id) throws ExecutionException, InterruptedException {
+        return await(findByIdAsync(id));
+    }
+
+    /**
+     * 감정 분석 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<EmotionAnalysis> findByIdAsync(String id) {
         DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(EmotionAnalysis.class);
-        }
-        return null;
+        return toCompletableFuture(docRef.get())
+                .thenApply(document -> document.exists() ? toAnalysis(document) : null);
     }
-    
+
     /**
      * 다이어리의 감정 분석 조회
      */
     public EmotionAnalysis findByDiaryId(String diaryId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("diaryId", diaryId)
-                .limit(1);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        if (!documents.isEmpty()) {
-            DocumentSnapshot document = documents.getDocuments().get(0);
-            return document.toObject(EmotionAnalysis.class);
+        return await(findByDiaryIdAsync(diaryId));
+    }
+
+    /**
+     * 다이어리의 감정 분석 조회 (비동기)
+     */
+    public CompletableFuture<EmotionAnalysis> findByDiaryIdAsync(String diaryId) {
+        return cache.get(diaryId,
+                () -> toCompletableFuture(documentOf(diaryId).get()),
+                DocumentSnapshot::exists).thenCompose(document -> {
+            if (document.exists()) {
+                return CompletableFuture.completedFuture(toAnalysis(document));
+            }
+            if (!legacyLookup) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return toCompletableFuture(legacyQuery(diaryId).limit(1).get())
+                    .thenApply(documents -> documents.isEmpty()
+                            ? null
+                            : toAnalysis(documents.getDocuments().get(0)));
+        });
+    }
+
+    /**
+     * 여러 다이어리의 감정 분석 조회 (비동기)
+     *
+     * <p>문서 ID가 다이어리 ID이므로 getAll로 한 번에 읽는다.
+     * 예전 문서 조회가 켜져 있으면 whereIn 제한에 맞춰 나눠 조건 조회한다.
+     */
+    public CompletableFuture<Map<String, EmotionAnalysis>> findByDiaryIdsAsync(List<String> diaryIds) {
+        if (diaryIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        if (!legacyLookup) {
+            DocumentReference[] refs = new DocumentReference[diaryIds.size()];
+            for (int i = 0; i < diaryIds.size(); i++) {
+                refs[i] = documentOf(diaryIds.get(i));
+            }
+            return toCompletableFuture(firestore.getAll(refs)).thenApply(documents -> {
+                Map<String, EmotionAnalysis> analyses = new HashMap<>();
+                for (DocumentSnapshot document : documents) {
+                    if (document.exists()) {
+                        analyses.put(document.getId(), toAnalysis(document));
+                    }
+                }
+                return analyses;
+            });
         }
-        return null;
+
+        List<CompletableFuture<QuerySnapshot>> chunks = new ArrayList<>();
+        for (int from = 0; from < diaryIds.size(); from += IN_QUERY_LIMIT) {
+            List<String> chunk = diaryIds.subList(from, Math.min(from + IN_QUERY_LIMIT, diaryIds.size()));
+            Query query = firestore.collection(COLLECTION_NAME)
+                    .whereIn("diaryId", new ArrayList<Object>(chunk));
+            chunks.add(toCompletableFuture(query.get()));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, EmotionAnalysis> analyses = new HashMap<>();
+            for (CompletableFuture<QuerySnapshot> chunk : chunks) {
+                for (DocumentSnapshot document : chunk.join().getDocuments()) {
+                    EmotionAnalysis analysis = toAnalysis(document);
+                    // 다이어리 ID로 키가 잡힌 문서를 우선한다
+                    if (document.getId().equals(analysis.getDiaryId())) {
+                        analyses.put(analysis.getDiaryId(), analysis);
+                    } else {
+                        analyses.putIfAbsent(analysis.getDiaryId(), analysis);
+                    }
+                }
+            }
+            return analyses;
+        });
     }
-    
+
     /**
      * 감정 분석 삭제
      */
     public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
+        await(deleteByIdAsync(id));
+    }
+
+    /**
+     * 감정 분석 삭제 (비동기)
+     */
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return cache.invalidateAfter(id, toCompletableFuture(firestore.collection(COLLECTION_NAME)
                 .document(id)
-                .delete();
-        
-        future.get();
+                .delete()))
+                .thenApply(writeResult -> null);
     }
-}
 
+    /**
+     * 다이어리의 감정 분석 삭제 (비동기)
+     *
+     * <p>문서 경로로 바로 삭제한다. 예전 문서 조회가 켜져 있으면 남아 있는 UUID 문서도 함께 지운다.
+     */
+    public CompletableFuture<Void> deleteByDiaryIdAsync(String diaryId) {
+        CompletableFuture<Void> deleted = cache.invalidateAfter(diaryId, toCompletableFuture(documentOf(diaryId).delete()))
+                .thenApply(writeResult -> null);
+        if (!legacyLookup) {
+            return deleted;
+        }
+
+        CompletableFuture<Void> legacyDeleted = toCompletableFuture(legacyQuery(diaryId).get())
+                .thenCompose(documents -> {
+                    if (documents.isEmpty()) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    WriteBatch batch = firestore.batch();
+                    for (DocumentSnapshot document : documents.getDocuments()) {
+                        batch.delete(document.getReference());
+                    }
+                    return toCompletableFuture(batch.commit()).thenApply(writeResults -> null);
+                });
+        return CompletableFuture.allOf(deleted, legacyDeleted);
+    }
+
+    /**
+     * 배치에 다이어리의 감정 분석 삭제 추가
+     *
+     * <p>배치를 커밋한 뒤 {@link #evictCached}로 캐시를 비워야 한다.
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDeleteByDiaryId(WriteBatch batch, String diaryId) {
+        batch.delete(documentOf(diaryId));
+        return 1;
+    }
+
+    /**
+     * 예전 UUID로 저장된 감정 분석 문서 참조 조회 (비동기)
+     *
+     * <p>예전 문서 조회가 꺼져 있으면 조회 없이 빈 목록을 반환한다.
+     */
+    public CompletableFuture<List<DocumentReference>> findLegacyRefsAsync(List<String> diaryIds) {
+        if (!legacyLookup || diaryIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        List<CompletableFuture<QuerySnapshot>> chunks = new ArrayList<>();
+        for (int from = 0; from < diaryIds.size(); from += IN_QUERY_LIMIT) {
+            List<String> chunk = diaryIds.subList(from, Math.min(from + IN_QUERY_LIMIT, diaryIds.size()));
+            Query query = firestore.collection(COLLECTION_NAME)
+                    .whereIn("diaryId", new ArrayList<Object>(chunk))
+                    .select("diaryId");
+            chunks.add(toCompletableFuture(query.get()));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<DocumentReference> refs = new ArrayList<>();
+            for (CompletableFuture<QuerySnapshot> chunk : chunks) {
+                for (DocumentSnapshot document : chunk.join().getDocuments()) {
+                    if (!document.getId().equals(document.getString("diaryId"))) {
+                        refs.add(document.getReference());
+                    }
+                }
+            }
+            return refs;
+        });
+    }
+
+    /**
+     * 문서를 감정 분석으로 변환. 생성 일시를 따로 쓰지 않은 문서는 문서 생성 시각을 쓴다.
+     */
+    private static EmotionAnalysis toAnalysis(DocumentSnapshot document) {
+        EmotionAnalysis analysis = document.toObject(EmotionAnalysis.class);
+        if (analysis != null && analysis.getCreatedAt() == null && document.getCreateTime() != null) {
+            analysis.setCreatedAt(document.getCreateTime().toDate());
+        }
+        return analysis;
+    }
+
+    /**
+     * 다이어리의 감정 분석 문서 참조
+     */
+    public DocumentReference documentOf(String diaryId) {
+        return firestore.collection(COLLECTION_NAME).document(diaryId);
+    }
+
+    /**
+     * 캐시에서 다이어리의 감정 분석 제거 (저장소 밖에서 커밋한 배치 삭제 후 호출)
+     */
+    public void evictCached(String diaryId) {
+        cache.invalidate(diaryId);
+    }
+
+    /**
+     * 예전 UUID 문서 조회 사용 여부
+     */
+    public boolean isLegacyLookup() {
+        return legacyLookup;
+    }
+
+    private Query legacyQuery(String diaryId) {
+        return firestore.collection(COLLECTION_NAME).whereEqualTo("diaryId", diaryId);
+    }
+}
@@ -0,0 +1,107 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.GDG.worktree.team2.gardening_diary.entity.EmotionOutboxEntry;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 감정 분석 재시도 outbox Repository
+ *
+ * <p>API를 호출하지 못한 분석을 다이어리 ID를 문서 ID로 해서 남겨 둔다(emotion_outbox/{diaryId}).
+ * 같은 다이어리는 한 번만 들어가며, 재시도 횟수와 다음 시도 시각은 드레이너가 관리한다.
+ * 여러 인스턴스가 함께 드레인해도 같은 항목을 동시에 처리하지 않도록 가져올 때 임대 시각을 기록한다.
+ */
+@Repository
+public class EmotionOutboxRepository {
+
+    public static final String COLLECTION_NAME = "emotion_outbox";
+
+    @Autowired
+    private Firestore firestore;
+
+    /**
+     * 재시도 항목 추가 (비동기). 이미 있으면 그대로 둔다(재시도 일정은 드레이너가 관리).
+     */
+    public CompletableFuture<Void> addAsync(String diaryId, String userId, String reason, Date firstAttemptAt) {
+        EmotionOutboxEntry entry = new EmotionOutboxEntry(diaryId, userId, reason, firstAttemptAt);
+        return toCompletableFuture(documentOf(diaryId).create(entry))
+                .thenApply(writeResult -> (Void) null)
+                .exceptionallyCompose(ex -> FirestoreFutures.hasStatus(ex, StatusCode.Code.ALREADY_EXISTS)
+                        ? CompletableFuture.<Void>completedFuture(null)
+                        : CompletableFuture.<Void>failedFuture(FirestoreFutures.unwrap(ex)));
+    }
+
+    /**
+     * 시도할 때가 된 항목을 가져와 leaseUntil까지 임대 (비동기)
+     *
+     * <p>조회한 뒤 다른 인스턴스가 먼저 가져간(문서가 바뀐) 항목은 결과에서 빠진다.
+     */
+    public CompletableFuture<List<EmotionOutboxEntry>> claimDueAsync(Date now, int limit, Date leaseUntil) {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereLessThanOrEqualTo("nextAttemptAt", now)
+                .orderBy("nextAttemptAt")
+                .limit(limit);
+
+        return toCompletableFuture(query.get()).thenCompose(snapshot -> {
+            List<CompletableFuture<EmotionOutboxEntry>> claims = new ArrayList<>();
+            for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                EmotionOutboxEntry entry = document.toObject(EmotionOutboxEntry.class);
+                claims.add(toCompletableFuture(document.getReference()
+                        .update(Precondition.updatedAt(document.getUpdateTime()), "nextAttemptAt", leaseUntil))
+                        .thenApply(writeResult -> entry)
+                        .exceptionally(ex -> null));
+            }
+            return CompletableFuture.allOf(claims.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                List<EmotionOutboxEntry> claimed = new ArrayList<>();
+                for (CompletableFuture<EmotionOutboxEntry> claim : claims) {
+                    if (claim.join() != null) {
+                        claimed.add(claim.join());
+                    }
+                }
+                return claimed;
+            });
+        });
+    }
+
+    /**
+     * 다음 시도 예약 (비동기)
+     */
+    public CompletableFuture<Void> rescheduleAsync(String diaryId, int attempts, Date nextAttemptAt, String lastError) {
+        return toCompletableFuture(documentOf(diaryId).update(
+                "attempts", attempts,
+                "nextAttemptAt", nextAttemptAt,
+                "lastError", lastError))
+                .thenApply(writeResult -> null);
+    }
+
+    /**
+     * 항목 삭제 (비동기)
+     */
+    public CompletableFuture<Void> deleteAsync(String diaryId) {
+        return toCompletableFuture(documentOf(diaryId).delete()).thenApply(writeResult -> null);
+    }
+
+    /**
+     * 배치에 항목 삭제 추가. 항목이 없어도 실패하지 않는다.
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDelete(WriteBatch batch, String diaryId) {
+        batch.delete(documentOf(diaryId));
+        return 1;
+    }
+
+    private DocumentReference documentOf(String diaryId) {
+        return firestore.collection(COLLECTION_NAME).document(diaryId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 저장소 조회 결과 캐시
+ *
+ * <p>엔티티 객체가 아니라 읽어 온 문서(DocumentSnapshot 등)를 담아 두고, 저장소가 조회할 때마다
+ * 새 엔티티로 변환한다. 호출부가 엔티티를 고쳐도 캐시된 값은 바뀌지 않는다.
+ *
+ * <p>쓰기가 끝나면 저장소가 {@link #invalidate}로 해당 키를 비운다. 무효화 직전에 시작한
+ * 조회가 옛 문서를 다시 넣지 않도록, 키별 버전이 조회 도중 바뀌었으면 넣은 값을 다시 지운다.
+ * 저장소를 거치지 않는 쓰기(마이그레이션 등)는 TTL이 지나야 반영된다.
+ */
+public class EntityCache<V> {
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final Cache<String, V> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * @param cache null이면 캐시하지 않고 항상 저장소에서 읽는다
+     */
+    EntityCache(Cache<String, V> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 캐시에 있으면 바로 반환하고, 없으면 loader로 읽어 cacheable한 값만 담는다.
+     */
+    public CompletableFuture<V> get(String key, Supplier<CompletableFuture<V>> loader, Predicate<V> cacheable) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        return loader.get().thenApply(value -> {
+            if (value != null && cacheable.test(value)) {
+                cache.put(key, value);
+                if (versions.get(stripe) != version) {
+                    // 읽는 사이 쓰기가 있었음
+                    cache.invalidate(key);
+                }
+            }
+            return value;
+        });
+    }
+
+    /**
+     * 키 무효화 (쓰기 완료 후 호출)
+     */
+    public void invalidate(String key) {
+        if (cache == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    /**
+     * 쓰기가 끝나면(성공/실패 모두) 키 무효화
+     */
+    public <T> CompletableFuture<T> invalidateAfter(String key, CompletableFuture<T> write) {
+        return write.whenComplete((result, ex) -> invalidate(key));
+    }
+
+    /**
+     * 조건에 맞는 값을 모두 무효화 (키를 알 수 없는 보조 조회 결과용)
+     */
+    public void invalidateIf(Predicate<V> condition) {
+        if (cache == null) {
+            return;
+        }
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        cache.asMap().values().removeIf(condition);
+    }
+
+    private int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+}
@@ -0,0 +1,57 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 저장소별 {@link EntityCache} 생성
+ *
+ * <p>모든 캐시는 같은 크기 상한과 TTL을 쓰며, 적중/실패/제거 통계를
+ * {@code cache.*} 메트릭(태그 cache=이름)으로 actuator에 노출한다.
+ */
+@Component
+public class EntityCaches {
+
+    private final boolean enabled;
+    private final long maximumSize;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public EntityCaches(@Value("${cache.entity.enabled:true}") boolean enabled,
+                        @Value("${cache.entity.maximum-size:10000}") long maximumSize,
+                        @Value("${cache.entity.ttl-seconds:60}") long ttlSeconds,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.maximumSize = maximumSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    /**
+     * 이름별 캐시 생성. 캐시가 꺼져 있으면 항상 저장소에서 읽는 캐시를 반환한다.
+     */
+    public <V> EntityCache<V> create(String name) {
+        if (!enabled) {
+            return new EntityCache<>(null);
+        }
+
+        Cache<String, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        }
+        return new EntityCache<>(cache);
+    }
+}
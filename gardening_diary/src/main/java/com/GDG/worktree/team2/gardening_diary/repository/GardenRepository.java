@@ -1,83 +1,218 @@
 package com.GDG.worktree.team2.gardening_diary.repository;
 
 import com.GDG.worktree.team2.gardening_diary.entity.Garden;
-import com.google.api.core.ApiFuture;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
 import com.google.cloud.firestore.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
 /**
  * 정원 Repository
+ *
+ * <p>ID 조회와 사용자별 정원 조회는 {@link EntityCache}를 거치며, 정원을 쓰면 두 캐시를 함께 무효화한다.
+ * 활성 사용자의 정원 목록은 {@link LiveUserLists}의 실시간 결과로 응답한다.
  */
 @Repository
 public class GardenRepository {
-    
+
     private static final String COLLECTION_NAME = "gardens";
-    
+
     @Autowired
     private Firestore firestore;
-    
+
+    @Autowired
+    private StorageLayout layout;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private LiveUserLists liveLists;
+
+    private EntityCache<DocumentSnapshot> cache;
+    private EntityCache<List<QueryDocumentSnapshot>> userCache;
+
+    @PostConstruct
+    void initCache() {
+        cache = entityCaches.create(COLLECTION_NAME);
+        userCache = entityCaches.create(COLLECTION_NAME + "-by-user");
+    }
+
     /**
      * 정원 저장
      */
     public Garden save(Garden garden) throws ExecutionException, InterruptedException {
+        return await(saveAsync(garden));
+    }
+
+    /**
+     * 정원 저장 (비동기)
+     */
+    public CompletableFuture<Garden> saveAsync(Garden garden) {
         // ID가 없으면 자동 생성
         if (garden.getId() == null || garden.getId().isEmpty()) {
             garden.setId(java.util.UUID.randomUUID().toString());
         }
-        
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(garden.getId())
-                .set(garden);
-        
-        future.get();
-        return garden;
+
+        List<DocumentReference> targets = layout.writeTargets(COLLECTION_NAME, garden.getUserId(), garden.getId());
+        if (targets.size() == 1) {
+            return evictAfter(garden.getId(), garden.getUserId(), toCompletableFuture(targets.get(0).set(garden)))
+                    .thenApply(writeResult -> garden);
+        }
+
+        WriteBatch batch = layout.set(firestore.batch(), COLLECTION_NAME, garden.getUserId(), garden.getId(), garden);
+        return evictAfter(garden.getId(), garden.getUserId(), toCompletableFuture(batch.commit()))
+                .thenApply(writeResults -> garden);
     }
-    
+
     /**
      * 정원 조회 (ID로)
      */
-    public Garden findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(Garden.class);
+    public Garden findById(String id, String userId) throws ExecutionException, InterruptedException {
+        return await(findByIdAsync(id, userId));
+    }
+
+    /**
+     * 정원 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<Garden> findByIdAsync(String id, String userId) {
+        return cache.get(layout.cacheKey(userId, id),
+                () -> layout.getAsync(COLLECTION_NAME, "user_id", userId, id),
+                DocumentSnapshot::exists).thenApply(document -> {
+            if (!document.exists()) {
+                return null;
+            }
+            Garden garden = document.toObject(Garden.class);
+            garden.clearChanges();
+            return garden;
+        });
+    }
+
+    /**
+     * 정원 수정 (변경된 필드만)
+     */
+    public Garden update(Garden garden) throws ExecutionException, InterruptedException {
+        return await(updateAsync(garden));
+    }
+
+    /**
+     * 정원 수정 (변경된 필드만, 비동기)
+     *
+     * <p>setter로 바뀐 필드와 updated_at만 update()로 보내므로 쓰기 크기가 변경분에 비례한다.
+     * 문서가 없으면 NOT_FOUND로 실패한다. DUAL 기간에는 전체 저장으로 대신한다.
+     */
+    public CompletableFuture<Garden> updateAsync(Garden garden) {
+        if (!layout.supportsPartialUpdate()) {
+            return saveAsync(garden);
         }
-        return null;
+        if (garden.getChanges().isEmpty()) {
+            return CompletableFuture.completedFuture(garden);
+        }
+
+        Map<String, Object> fields = new HashMap<>(garden.getChanges());
+        fields.put("updated_at", FieldValue.serverTimestamp());
+        return evictAfter(garden.getId(), garden.getUserId(),
+                        layout.updateAsync(COLLECTION_NAME, garden.getUserId(), garden.getId(), fields))
+                .thenApply(writeResult -> {
+                    garden.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    garden.clearChanges();
+                    return garden;
+                });
     }
-    
+
+    /**
+     * 사전 조회 없이 사용자 하위 컬렉션의 정원 수정 (NESTED, 비동기)
+     *
+     * <p>changes에 setter로 기록된 필드와 updated_at만 update()로 보내고, 다시 읽지 않고 쓴 값에 ID와 커밋 시각을
+     * 채워 반환한다(커밋 1회). changes에 없던 필드는 비어 있다. 하위 컬렉션에 문서가 없으면 null을 반환한다.
+     */
+    public CompletableFuture<Garden> updateScopedAsync(String id, String userId, Garden changes) {
+        Map<String, Object> fields = new HashMap<>(changes.getChanges());
+        fields.put("updated_at", FieldValue.serverTimestamp());
+        return evictAfter(id, userId, layout.updateNestedAsync(COLLECTION_NAME, userId, id, fields))
+                .thenApply(writeResult -> {
+                    changes.setId(id);
+                    changes.setUserId(userId);
+                    changes.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    changes.clearChanges();
+                    return changes;
+                })
+                .exceptionallyCompose(ex -> FirestoreFutures.isNotFound(ex)
+                        ? CompletableFuture.<Garden>completedFuture(null)
+                        : CompletableFuture.<Garden>failedFuture(FirestoreFutures.unwrap(ex)));
+    }
+
     /**
      * 사용자의 정원 조회
      */
     public List<Garden> findByUserId(String userId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("user_id", userId);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Garden> gardens = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            gardens.add(document.toObject(Garden.class));
-        }
-        return gardens;
+        return await(findByUserIdAsync(userId));
     }
-    
+
+    /**
+     * 사용자의 정원 조회 (비동기)
+     */
+    public CompletableFuture<List<Garden>> findByUserIdAsync(String userId) {
+        Query query = userQuery(userId);
+        return liveLists.getAsync(COLLECTION_NAME, userId, query,
+                () -> userCache.get(userId,
+                        () -> toCompletableFuture(query.get()).thenApply(documents -> List.copyOf(documents.getDocuments())),
+                        documents -> true)).thenApply(documents -> {
+            List<Garden> gardens = new ArrayList<>();
+            for (DocumentSnapshot document : documents) {
+                Garden garden = document.toObject(Garden.class);
+                garden.clearChanges();
+                gardens.add(garden);
+            }
+            return gardens;
+        });
+    }
+
     /**
      * 정원 삭제
      */
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        
-        future.get();
+    public void deleteById(String id, String userId) throws ExecutionException, InterruptedException {
+        await(deleteByIdAsync(id, userId));
+    }
+
+    /**
+     * 정원 삭제 (비동기)
+     *
+     * <p>하위 컬렉션 구조에서는 존재 조건을 걸어, 없는(또는 다른 사용자의) 정원이면 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> deleteByIdAsync(String id, String userId) {
+        WriteBatch batch = layout.delete(firestore.batch(), COLLECTION_NAME, userId, id, layout.isUserScoped());
+        return evictAfter(id, userId, toCompletableFuture(batch.commit())).thenApply(writeResults -> null);
+    }
+
+    /**
+     * 경로만으로 소유권이 보장되는 저장 구조인지 (사전 소유권 조회 생략 가능)
+     */
+    public boolean isUserScoped() {
+        return layout.isUserScoped();
+    }
+
+    private <T> CompletableFuture<T> evictAfter(String id, String userId, CompletableFuture<T> write) {
+        return write.whenComplete((result, ex) -> {
+            cache.invalidate(layout.cacheKey(userId, id));
+            userCache.invalidate(userId);
+            liveLists.recordWrite(COLLECTION_NAME, userId, result, ex);
+        });
+    }
+
+    private Query userQuery(String userId) {
+        return layout.userQuery(COLLECTION_NAME, "user_id", userId);
     }
 }
 
@@ -0,0 +1,234 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 활성 사용자 목록 실시간 캐시
+ *
+ * <p>사용자가 목록(다이어리/나무/정원)을 조회하면 같은 쿼리에 Firestore 실시간 리스너를 걸어 두고,
+ * 이후 조회는 메모리에 유지된 결과로 바로 응답한다. idle 동안 조회가 없거나 리스너 수가 상한을 넘으면
+ * 오래된 리스너부터 해제한다. 문서 수가 max-documents를 넘는 목록은 리스너를 해제하고 일반 쿼리로 조회한다.
+ *
+ * <p>저장소는 쓰기가 끝나면 {@link #recordWrite}로 커밋 시각을 알린다. 리스너가 그 시각 이후의
+ * 스냅샷을 받기 전까지는 일반 쿼리로 조회하므로, 방금 쓴 내용이 목록에서 빠지는 일이 없다.
+ */
+@Component
+public class LiveUserLists {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveUserLists.class);
+
+    /** 첫 스냅샷을 기다리는 최대 시간 (넘으면 일반 쿼리로 조회) */
+    private static final long FIRST_SNAPSHOT_TIMEOUT_SECONDS = 5;
+
+    private record State(List<QueryDocumentSnapshot> documents, Timestamp readTime) {}
+
+    private static final class Entry {
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        volatile State state;
+        volatile Timestamp requiredReadTime;
+        volatile boolean disabled;
+        volatile boolean closed;
+        volatile ListenerRegistration registration;
+
+        synchronized void requireReadTime(Timestamp commitTime) {
+            if (requiredReadTime == null || requiredReadTime.compareTo(commitTime) < 0) {
+                requiredReadTime = commitTime;
+            }
+        }
+
+        boolean isServable(State current) {
+            Timestamp required = requiredReadTime;
+            return !disabled && current != null
+                    && (required == null || current.readTime().compareTo(required) >= 0);
+        }
+
+        void close() {
+            closed = true;
+            ListenerRegistration current = registration;
+            if (current != null) {
+                current.remove();
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxDocuments;
+    private final Cache<String, Entry> entries;
+    private final Counter hits;
+    private final Counter fallbacks;
+
+    @Autowired
+    public LiveUserLists(@Value("${cache.live-lists.enabled:true}") boolean enabled,
+                         @Value("${cache.live-lists.max-listeners:300}") long maxListeners,
+                         @Value("${cache.live-lists.idle-seconds:300}") long idleSeconds,
+                         @Value("${cache.live-lists.max-documents:1000}") int maxDocuments,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.maxDocuments = maxDocuments;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxListeners)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .scheduler(Scheduler.systemScheduler())
+                .<String, Entry>removalListener((key, entry, cause) -> {
+                    if (entry != null) {
+                        entry.close();
+                    }
+                })
+                .build();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("live.lists.listeners", entries, Cache::estimatedSize)
+                    .description("활성 사용자 목록 리스너 수")
+                    .register(registry);
+            this.hits = Counter.builder("live.lists.reads").tag("result", "hit").register(registry);
+            this.fallbacks = Counter.builder("live.lists.reads").tag("result", "fallback").register(registry);
+        } else {
+            this.hits = null;
+            this.fallbacks = null;
+        }
+    }
+
+    /**
+     * 사용자 목록 조회
+     *
+     * <p>리스너가 최신 상태면 메모리의 결과를, 아니면 fallback으로 읽은 결과를 반환한다.
+     * query는 컬렉션·사용자마다 항상 같은 쿼리여야 한다.
+     */
+    public CompletableFuture<List<QueryDocumentSnapshot>> getAsync(
+            String collection, String userId, Query query,
+            Supplier<CompletableFuture<List<QueryDocumentSnapshot>>> fallback) {
+        if (!enabled) {
+            return fallback.get();
+        }
+
+        Entry entry = entries.get(key(collection, userId), key -> open(key, query));
+        return entry.ready.thenCompose(ignored -> {
+            State current = entry.state;
+            if (!entry.isServable(current)) {
+                count(fallbacks);
+                return fallback.get();
+            }
+            count(hits);
+            return CompletableFuture.completedFuture(current.documents());
+        });
+    }
+
+    /**
+     * 쓰기 결과 반영. result는 쓰기 Future의 결과(WriteResult 또는 그 목록)이다.
+     * 커밋 시각을 알 수 없으면(실패 포함) 해당 목록의 리스너를 해제한다.
+     */
+    public void recordWrite(String collection, String userId, Object result, Throwable ex) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        String key = key(collection, userId);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return;
+        }
+
+        Timestamp commitTime = ex == null ? commitTimeOf(result) : null;
+        if (commitTime == null) {
+            entries.invalidate(key);
+        } else {
+            entry.requireReadTime(commitTime);
+        }
+    }
+
+    private Entry open(String key, Query query) {
+        Entry entry = new Entry();
+        entry.ready.completeOnTimeout(null, FIRST_SNAPSHOT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        entry.registration = query.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                // 만료될 때까지 일반 쿼리로 조회
+                logger.warn("목록 리스너 오류로 실시간 캐시를 중단합니다. key={}: {}", key, error.getMessage());
+                disable(entry);
+                return;
+            }
+            if (snapshot == null) {
+                return;
+            }
+            if (snapshot.size() > maxDocuments) {
+                logger.debug("목록이 커서 실시간 캐시를 중단합니다. key={}, 문서 {}건", key, snapshot.size());
+                disable(entry);
+                return;
+            }
+            entry.state = new State(List.copyOf(snapshot.getDocuments()), snapshot.getReadTime());
+            entry.ready.complete(null);
+        });
+        if (entry.closed) {
+            // 등록이 끝나기 전에 해제된 경우
+            entry.registration.remove();
+        }
+        return entry;
+    }
+
+    private void disable(Entry entry) {
+        entry.disabled = true;
+        entry.state = null;
+        entry.close();
+        entry.ready.complete(null);
+    }
+
+    private Timestamp commitTimeOf(Object result) {
+        if (result instanceof WriteResult writeResult) {
+            return writeResult.getUpdateTime();
+        }
+        if (result instanceof List<?> results) {
+            Timestamp latest = null;
+            for (Object item : results) {
+                if (!(item instanceof WriteResult writeResult)) {
+                    return null;
+                }
+                if (latest == null || latest.compareTo(writeResult.getUpdateTime()) < 0) {
+                    latest = writeResult.getUpdateTime();
+                }
+            }
+            return latest;
+        }
+        if (result instanceof Timestamp timestamp) {
+            return timestamp;
+        }
+        return null;
+    }
+
+    private String key(String collection, String userId) {
+        return collection + "/" + userId;
+    }
+
+    private void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        entries.invalidateAll();
+        entries.cleanUp();
+    }
+}
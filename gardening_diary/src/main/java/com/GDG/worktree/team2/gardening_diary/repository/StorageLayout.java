@@ -0,0 +1,273 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 사용자 데이터 저장 구조 설정
+ *
+ * <p>다이어리/나무/정원 문서를 어디에 둘지 결정한다.
+ * <ul>
+ *   <li>FLAT: 최상위 컬렉션(diaries/{id})에 두고 userId 필드로 조회 (기존 방식)</li>
+ *   <li>DUAL: 마이그레이션 기간. 양쪽에 모두 쓰고, 읽기는 최상위 컬렉션에서 한다</li>
+ *   <li>NESTED: users/{uid}/diaries/{id}에 두고 경로로 소유권을 보장한다</li>
+ * </ul>
+ * NESTED에서 {@code storage.fallback-read}를 켜면 하위 컬렉션에 없는 문서를 최상위 컬렉션에서 한 번 더 찾는다.
+ */
+@Component
+public class StorageLayout {
+
+    public enum Mode { FLAT, DUAL, NESTED }
+
+    static final String USERS_COLLECTION = "users";
+
+    private final Firestore firestore;
+    private final Mode mode;
+    private final boolean fallbackRead;
+
+    @Autowired
+    public StorageLayout(Firestore firestore,
+                         @Value("${storage.layout:FLAT}") Mode mode,
+                         @Value("${storage.fallback-read:false}") boolean fallbackRead) {
+        this.firestore = firestore;
+        this.mode = mode;
+        this.fallbackRead = fallbackRead;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 문서 경로만으로 소유권이 보장되는지 여부 (NESTED)
+     */
+    public boolean isUserScoped() {
+        return mode == Mode.NESTED;
+    }
+
+    /**
+     * 최상위 컬렉션
+     */
+    public CollectionReference flat(String collection) {
+        return firestore.collection(collection);
+    }
+
+    /**
+     * 사용자 하위 컬렉션 (users/{uid}/{collection})
+     */
+    public CollectionReference nested(String userId, String collection) {
+        return firestore.collection(USERS_COLLECTION).document(userId).collection(collection);
+    }
+
+    /**
+     * 읽기 대상 컬렉션
+     */
+    public CollectionReference readCollection(String collection, String userId) {
+        return isUserScoped() ? nested(userId, collection) : flat(collection);
+    }
+
+    /**
+     * 사용자 문서 조회 쿼리. 하위 컬렉션이면 소유자 조건이 필요 없다.
+     */
+    public Query userQuery(String collection, String ownerField, String userId) {
+        return isUserScoped()
+                ? nested(userId, collection)
+                : flat(collection).whereEqualTo(ownerField, userId);
+    }
+
+    /**
+     * 새 문서 ID 발급
+     */
+    public String newDocumentId(String collection) {
+        return flat(collection).document().getId();
+    }
+
+    /**
+     * 조회 캐시 키. 사용자별 경로면 같은 ID라도 사용자마다 다른 문서이므로 사용자 ID를 포함한다.
+     */
+    public String cacheKey(String userId, String id) {
+        return isUserScoped() ? userId + "/" + id : id;
+    }
+
+    /**
+     * 쓰기 대상 문서. DUAL이면 두 곳 모두, 첫 번째가 읽기 대상이다.
+     */
+    public List<DocumentReference> writeTargets(String collection, String userId, String id) {
+        return switch (mode) {
+            case FLAT -> List.of(flat(collection).document(id));
+            case DUAL -> List.of(flat(collection).document(id), nested(userId, collection).document(id));
+            case NESTED -> List.of(nested(userId, collection).document(id));
+        };
+    }
+
+    /**
+     * 배치에 저장 추가
+     */
+    public WriteBatch set(WriteBatch batch, String collection, String userId, String id, Object data) {
+        for (DocumentReference target : writeTargets(collection, userId, id)) {
+            batch.set(target, data);
+        }
+        return batch;
+    }
+
+    /**
+     * 배치에 새 문서 생성 추가. 읽기 대상 문서가 이미 있으면 커밋이 ALREADY_EXISTS로 실패한다
+     * (DUAL 기간의 하위 컬렉션 사본은 그대로 덮어쓴다).
+     */
+    public WriteBatch create(WriteBatch batch, String collection, String userId, String id, Object data) {
+        List<DocumentReference> targets = writeTargets(collection, userId, id);
+        for (int i = 0; i < targets.size(); i++) {
+            if (i == 0) {
+                batch.create(targets.get(i), data);
+            } else {
+                batch.set(targets.get(i), data);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 배치에 삭제 추가. requireExists면 읽기 대상 문서에만 존재 조건을 건다
+     * (DUAL 기간에는 하위 컬렉션에 아직 복사되지 않았을 수 있으므로).
+     */
+    public WriteBatch delete(WriteBatch batch, String collection, String userId, String id, boolean requireExists) {
+        List<DocumentReference> targets = writeTargets(collection, userId, id);
+        for (int i = 0; i < targets.size(); i++) {
+            if (i == 0 && requireExists) {
+                batch.delete(targets.get(i), Precondition.exists(true));
+            } else {
+                batch.delete(targets.get(i));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 필드 일부만 수정할 수 있는지 여부.
+     * DUAL 기간에는 하위 컬렉션 사본이 아직 없을 수 있으므로 전체 저장(set)을 써야 한다.
+     */
+    public boolean supportsPartialUpdate() {
+        return mode != Mode.DUAL;
+    }
+
+    /**
+     * 필드 일부만 수정 (비동기). 문서가 없으면 NOT_FOUND로 실패한다.
+     * NESTED + fallback-read면 최상위 컬렉션에서 읽힌 문서일 수 있으므로 그쪽도 시도한다.
+     */
+    public CompletableFuture<WriteResult> updateAsync(String collection, String userId, String id,
+                                                      Map<String, Object> fields) {
+        CompletableFuture<WriteResult> primary =
+                toCompletableFuture(readCollection(collection, userId).document(id).update(fields));
+        if (!isUserScoped() || !fallbackRead) {
+            return primary;
+        }
+
+        return primary.exceptionallyCompose(ex -> FirestoreFutures.isNotFound(ex)
+                ? toCompletableFuture(flat(collection).document(id).update(fields))
+                : CompletableFuture.failedFuture(ex));
+    }
+
+    /**
+     * 사용자 하위 컬렉션 문서만 필드 일부 수정 (NESTED, 비동기)
+     *
+     * <p>update()는 문서가 있어야 성공하고 경로가 곧 소유권이므로, 사전 조회 없이 쓰기 한 번으로
+     * 존재와 소유권을 함께 확인한다. 문서가 없으면 NOT_FOUND로 실패한다(최상위 컬렉션은 보지 않는다).
+     */
+    public CompletableFuture<WriteResult> updateNestedAsync(String collection, String userId, String id,
+                                                            Map<String, Object> fields) {
+        return toCompletableFuture(nested(userId, collection).document(id).update(fields));
+    }
+
+    /**
+     * 문서 1건 조회 (비동기). NESTED + fallback-read면 최상위 컬렉션에서 한 번 더 찾되 소유자를 확인한다.
+     */
+    public CompletableFuture<DocumentSnapshot> getAsync(String collection, String ownerField, String userId, String id) {
+        CompletableFuture<DocumentSnapshot> primary =
+                toCompletableFuture(readCollection(collection, userId).document(id).get());
+        if (!isUserScoped() || !fallbackRead) {
+            return primary;
+        }
+
+        return primary.thenCompose(document -> {
+            if (document.exists()) {
+                return CompletableFuture.completedFuture(document);
+            }
+            return toCompletableFuture(flat(collection).document(id).get())
+                    .thenApply(legacy -> legacy.exists() && userId.equals(legacy.getString(ownerField))
+                            ? legacy
+                            : document);
+        });
+    }
+
+    /**
+     * 여러 문서를 getAll() 한 번으로 조회 (비동기)
+     *
+     * <p>존재하고 사용자 소유인 문서만 ID → 문서로 담아 반환한다. 소유자 확인은 메모리에서 한다.
+     * NESTED + fallback-read면 하위 컬렉션에 없는 문서만 최상위 컬렉션에서 한 번 더 찾는다.
+     */
+    public CompletableFuture<Map<String, DocumentSnapshot>> getAllAsync(String collection, String ownerField,
+                                                                     String userId, Collection<String> ids) {
+        CompletableFuture<Map<String, DocumentSnapshot>> primary =
+                getOwnedAsync(readCollection(collection, userId), ownerField, userId, ids, !isUserScoped());
+        if (!isUserScoped() || !fallbackRead) {
+            return primary;
+        }
+
+        return primary.thenCompose(found -> {
+            List<String> missing = new ArrayList<>();
+            for (String id : ids) {
+                if (!found.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+            return getOwnedAsync(flat(collection), ownerField, userId, missing, true)
+                    .thenApply(legacy -> {
+                        found.putAll(legacy);
+                        return found;
+                    });
+        });
+    }
+
+    private CompletableFuture<Map<String, DocumentSnapshot>> getOwnedAsync(CollectionReference collection,
+                                                                        String ownerField, String userId,
+                                                                        Collection<String> ids, boolean checkOwner) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        DocumentReference[] refs = new DocumentReference[ids.size()];
+        int i = 0;
+        for (String id : ids) {
+            refs[i++] = collection.document(id);
+        }
+
+        return toCompletableFuture(firestore.getAll(refs)).thenApply(documents -> {
+            Map<String, DocumentSnapshot> owned = new HashMap<>();
+            for (DocumentSnapshot document : documents) {
+                if (document.exists() && (!checkOwner || userId.equals(document.getString(ownerField)))) {
+                    owned.put(document.getId(), document);
+                }
+            }
+            return owned;
+        });
+    }
+}
@@ -1,101 +1,471 @@
 package com.GDG.worktree.team2.gardening_diary.repository;
 
+import com.GDG.worktree.team2.gardening_diary.dto.TreeSummary;
 import com.GDG.worktree.team2.gardening_diary.entity.Tree;
-import com.google.api.core.ApiFuture;
+import com.GDG.worktree.team2.gardening_diary.util.DocumentStream;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
 
 /**
  * 나무 Repository
+ *
+ * <p>ID 조회는 {@link EntityCache}와 {@link DiskCacheTier}를, 사용자의 나무 목록 조회는 {@link LiveUserLists}를 거친다.
+ *
+ * <p>{@code tree.counter.enabled}가 켜져 있으면 사용자의 나무 개수를
+ * {@code user_stats/{userId}/tree_count_shards/{n}} 샤드 중 임의의 하나에 생성/삭제와 같은 배치로 증감한다.
+ * 문서 하나의 쓰기 한도(초당 약 1회)에 걸리지 않도록 쓰기를 샤드에 나누고, 조회할 때 샤드를 합산한다.
+ * 합계는 캐시해 두었다가 이 저장소를 통한 생성/삭제가 끝나면 비운다.
  */
 @Repository
 public class TreeRepository {
-    
+
     private static final String COLLECTION_NAME = "trees";
-    
+    private static final String STATS_COLLECTION_NAME = "user_stats";
+    private static final String COUNT_SHARDS_COLLECTION_NAME = "tree_count_shards";
+    private static final String SHARD_COUNT_FIELD = "count";
+    /** 샤드 0에만 기록하는 초기화 완료 표시 */
+    private static final String SHARD_SEEDED_FIELD = "seeded";
+
+    /** 요약 조회 시 내려받는 필드 (tree_snapshot 제외) */
+    private static final String[] SUMMARY_FIELDS = {
+            "week_short_date", "week_end_date", "diary_leaf_colors", "status", "created_at"
+    };
+
     @Autowired
     private Firestore firestore;
-    
+
+    @Autowired
+    private StorageLayout layout;
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private LiveUserLists liveLists;
+
+    @Autowired
+    private DiskCache diskCache;
+
+    @Value("${tree.counter.enabled:true}")
+    private boolean counterEnabled;
+
+    @Value("${tree.counter.shards:10}")
+    private int counterShards;
+
+    private EntityCache<CachedDocument<Tree>> cache;
+    private DiskCacheTier<Tree> diskTier;
+    private EntityCache<Long> countCache;
+
+    @PostConstruct
+    void initCache() {
+        cache = entityCaches.create(COLLECTION_NAME);
+        diskTier = diskCache.tier(COLLECTION_NAME + "@" + layout.getMode(), Tree.class, this::toTree, cache);
+        countCache = entityCaches.create(COLLECTION_NAME + "-count");
+    }
+
     /**
      * 나무 저장
      */
     public Tree save(Tree tree) throws ExecutionException, InterruptedException {
+        return await(saveAsync(tree));
+    }
+
+    /**
+     * 나무 저장 (비동기)
+     */
+    public CompletableFuture<Tree> saveAsync(Tree tree) {
         // ID가 없으면 자동 생성
-        if (tree.getId() == null || tree.getId().isEmpty()) {
+        boolean isNew = tree.getId() == null || tree.getId().isEmpty();
+        if (isNew) {
             tree.setId(java.util.UUID.randomUUID().toString());
         }
-        
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(tree.getId())
-                .set(tree);
-        
-        future.get();
-        return tree;
+
+        List<DocumentReference> targets = layout.writeTargets(COLLECTION_NAME, tree.getUserId(), tree.getId());
+        if (targets.size() == 1 && (!isNew || !counterEnabled)) {
+            return afterWrite(tree.getId(), tree.getUserId(), toCompletableFuture(targets.get(0).set(tree)))
+                    .thenApply(writeResult -> tree);
+        }
+
+        // 새 나무와 개수 샤드(및 DUAL 기간의 사본)를 한 번에 커밋
+        WriteBatch batch = layout.set(firestore.batch(), COLLECTION_NAME, tree.getUserId(), tree.getId(), tree);
+        if (isNew && counterEnabled) {
+            batch.set(randomShardRef(tree.getUserId()),
+                    Map.<String, Object>of(SHARD_COUNT_FIELD, FieldValue.increment(1)), SetOptions.merge());
+        }
+        return afterWrite(tree.getId(), tree.getUserId(), toCompletableFuture(batch.commit()))
+                .whenComplete((writeResults, ex) -> {
+                    if (isNew) {
+                        countCache.invalidate(tree.getUserId());
+                    }
+                })
+                .thenApply(writeResults -> tree);
     }
-    
+
     /**
      * 나무 조회 (ID로)
      */
-    public Tree findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(Tree.class);
+    public Tree findById(String id, String userId) throws ExecutionException, InterruptedException {
+        return await(findByIdAsync(id, userId));
+    }
+
+    /**
+     * 나무 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<Tree> findByIdAsync(String id, String userId) {
+        String key = layout.cacheKey(userId, id);
+        return cache.get(key,
+                () -> diskTier.load(key, () -> layout.getAsync(COLLECTION_NAME, "user_id", userId, id)),
+                CachedDocument::exists).thenApply(CachedDocument::toEntity);
+    }
+
+    /**
+     * 나무 수정 (변경된 필드만)
+     */
+    public Tree update(Tree tree) throws ExecutionException, InterruptedException {
+        return await(updateAsync(tree));
+    }
+
+    /**
+     * 나무 수정 (변경된 필드만, 비동기)
+     *
+     * <p>setter로 바뀐 필드와 updated_at만 update()로 보내므로 쓰기 크기가 변경분에 비례한다.
+     * 문서가 없으면 NOT_FOUND로 실패한다. DUAL 기간에는 전체 저장으로 대신한다.
+     */
+    public CompletableFuture<Tree> updateAsync(Tree tree) {
+        if (!layout.supportsPartialUpdate()) {
+            return saveAsync(tree);
         }
-        return null;
+        if (tree.getChanges().isEmpty()) {
+            return CompletableFuture.completedFuture(tree);
+        }
+
+        Map<String, Object> fields = new HashMap<>(tree.getChanges());
+        fields.put("updated_at", FieldValue.serverTimestamp());
+        return afterWrite(tree.getId(), tree.getUserId(),
+                        layout.updateAsync(COLLECTION_NAME, tree.getUserId(), tree.getId(), fields))
+                .thenApply(writeResult -> {
+                    tree.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    tree.clearChanges();
+                    return tree;
+                });
     }
-    
+
+    /**
+     * 사전 조회 없이 사용자 하위 컬렉션의 나무 수정 (NESTED, 비동기)
+     *
+     * <p>changes에 setter로 기록된 필드와 updated_at만 update()로 보내고, 다시 읽지 않고 쓴 값에 ID와 커밋 시각을
+     * 채워 반환한다(커밋 1회). changes에 없던 필드는 비어 있다. 하위 컬렉션에 문서가 없으면 null을 반환한다.
+     */
+    public CompletableFuture<Tree> updateScopedAsync(String id, String userId, Tree changes) {
+        Map<String, Object> fields = new HashMap<>(changes.getChanges());
+        fields.put("updated_at", FieldValue.serverTimestamp());
+        return afterWrite(id, userId, layout.updateNestedAsync(COLLECTION_NAME, userId, id, fields))
+                .thenApply(writeResult -> {
+                    changes.setId(id);
+                    changes.setUserId(userId);
+                    changes.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    changes.clearChanges();
+                    return changes;
+                })
+                .exceptionallyCompose(ex -> FirestoreFutures.isNotFound(ex)
+                        ? CompletableFuture.<Tree>completedFuture(null)
+                        : CompletableFuture.<Tree>failedFuture(FirestoreFutures.unwrap(ex)));
+    }
+
     /**
      * 사용자의 모든 나무 조회
      */
     public List<Tree> findByUserId(String userId) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("user_id", userId);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Tree> trees = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            trees.add(document.toObject(Tree.class));
-        }
-        return trees;
+        return await(findByUserIdAsync(userId));
     }
-    
+
+    /**
+     * 사용자의 모든 나무 조회 (비동기)
+     */
+    public CompletableFuture<List<Tree>> findByUserIdAsync(String userId) {
+        return findAllByUserIdAsync(userId).thenApply(documents -> toTrees(documents, null));
+    }
+
+    /**
+     * 사용자의 모든 나무 스트리밍 조회
+     */
+    public DocumentStream streamByUserId(String userId, int bufferSize) {
+        return DocumentStream.open(userQuery(userId), bufferSize);
+    }
+
     /**
      * 사용자 ID와 상태로 나무 조회
      */
     public List<Tree> findByUserIdAndStatus(String userId, String status) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("user_id", userId)
-                .whereEqualTo("status", status);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        List<Tree> trees = new ArrayList<>();
-        for (DocumentSnapshot document : documents.getDocuments()) {
-            trees.add(document.toObject(Tree.class));
-        }
-        return trees;
+        return await(findByUserIdAndStatusAsync(userId, status));
+    }
+
+    /**
+     * 사용자 ID와 상태로 나무 조회 (비동기)
+     */
+    public CompletableFuture<List<Tree>> findByUserIdAndStatusAsync(String userId, String status) {
+        // 활성 사용자면 실시간 목록에서 걸러 내고, 아니면 상태 조건 쿼리로 조회
+        return liveLists.getAsync(COLLECTION_NAME, userId, userQuery(userId),
+                        () -> toCompletableFuture(userQuery(userId).whereEqualTo("status", status).get())
+                                .thenApply(QuerySnapshot::getDocuments))
+                .thenApply(documents -> toTrees(documents, status));
     }
-    
+
+    /**
+     * 사용자의 나무 요약 조회 (비동기)
+     *
+     * <p>select() 필드 마스크로 스냅샷 이미지를 제외하고 받아온다. status가 있으면 함께 필터링한다.
+     * 활성 사용자면 실시간 목록에서 만든다.
+     */
+    public CompletableFuture<List<TreeSummary>> findSummariesByUserIdAsync(String userId, String status) {
+        boolean filtered = status != null && !status.isEmpty();
+        Query query = filtered ? userQuery(userId).whereEqualTo("status", status) : userQuery(userId);
+
+        return liveLists.getAsync(COLLECTION_NAME, userId, userQuery(userId),
+                        () -> toCompletableFuture(query.select(SUMMARY_FIELDS).get()).thenApply(QuerySnapshot::getDocuments))
+                .thenApply(documents -> toSummaries(documents, filtered ? status : null));
+    }
+
     /**
      * 나무 삭제
      */
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        
-        future.get();
+    public void deleteById(String id, String userId) throws ExecutionException, InterruptedException {
+        await(deleteByIdAsync(id, userId));
+    }
+
+    /**
+     * 나무 삭제 (비동기)
+     *
+     * <p>하위 컬렉션 구조에서는 존재 조건을 걸어, 없는(또는 다른 사용자의) 나무면 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> deleteByIdAsync(String id, String userId) {
+        WriteBatch batch = firestore.batch();
+        batchDelete(batch, id, userId);
+        batchDecrementCount(batch, userId);
+        return afterWrite(id, userId, toCompletableFuture(batch.commit()))
+                .whenComplete((writeResults, ex) -> countCache.invalidate(userId))
+                .thenApply(writeResults -> null);
+    }
+
+    /**
+     * 배치에 나무 삭제 추가 (개수 샤드는 {@link #batchDecrementCount}로 따로 반영)
+     *
+     * <p>배치를 커밋한 뒤 {@link #afterBatchCommit}로 커밋 시각을 알려야 한다.
+     * 카운터를 쓰면 존재 조건을 걸어, 이미 지워진 나무를 두 번 빼지 않게 한다.
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDelete(WriteBatch batch, String id, String userId) {
+        boolean requireExists = counterEnabled || layout.isUserScoped();
+        layout.delete(batch, COLLECTION_NAME, userId, id, requireExists);
+        return layout.writeTargets(COLLECTION_NAME, userId, id).size();
+    }
+
+    /**
+     * 배치에 나무 개수 감소 추가 (카운터 사용 시에만)
+     *
+     * @return 추가된 쓰기 수
+     */
+    public int batchDecrementCount(WriteBatch batch, String userId) {
+        if (!counterEnabled) {
+            return 0;
+        }
+        batch.set(randomShardRef(userId),
+                Map.<String, Object>of(SHARD_COUNT_FIELD, FieldValue.increment(-1)), SetOptions.merge());
+        return 1;
+    }
+
+    /**
+     * 사용자의 나무 개수 조회
+     */
+    public long countByUserId(String userId) throws ExecutionException, InterruptedException {
+        return await(countByUserIdAsync(userId));
+    }
+
+    /**
+     * 사용자의 나무 개수 조회 (비동기)
+     *
+     * <p>카운터를 쓰면 캐시된 합계를, 없으면 샤드를 읽어 합산한다(처음이면 초기화).
+     * 카운터를 쓰지 않으면 count() 집계 쿼리로 계산한다.
+     */
+    public CompletableFuture<Long> countByUserIdAsync(String userId) {
+        if (!counterEnabled) {
+            return toCompletableFuture(userQuery(userId).count().get()).thenApply(AggregateQuerySnapshot::getCount);
+        }
+        return countCache.get(userId, () -> sumShardsAsync(userId), count -> true);
+    }
+
+    /**
+     * 서버가 나무 개수를 관리하는지 여부
+     */
+    public boolean isCounterEnabled() {
+        return counterEnabled;
+    }
+
+    /**
+     * 경로만으로 소유권이 보장되는 저장 구조인지 (사전 소유권 조회 생략 가능)
+     */
+    public boolean isUserScoped() {
+        return layout.isUserScoped();
+    }
+
+    /**
+     * 저장소 밖에서 커밋한 배치 삭제 반영 (캐시 무효화, 실시간 목록에 커밋 시각 전달)
+     *
+     * @param commitTime 커밋 시각 (실패 등으로 알 수 없으면 null)
+     */
+    public void afterBatchCommit(String id, String userId, Timestamp commitTime) {
+        evict(id, userId);
+        countCache.invalidate(userId);
+        liveLists.recordWrite(COLLECTION_NAME, userId, commitTime, null);
+    }
+
+    private <T> CompletableFuture<T> afterWrite(String id, String userId, CompletableFuture<T> write) {
+        return write.whenComplete((result, ex) -> {
+            evict(id, userId);
+            liveLists.recordWrite(COLLECTION_NAME, userId, result, ex);
+        });
+    }
+
+    private void evict(String id, String userId) {
+        String key = layout.cacheKey(userId, id);
+        cache.invalidate(key);
+        diskTier.evict(key);
+    }
+
+    private CompletableFuture<List<QueryDocumentSnapshot>> findAllByUserIdAsync(String userId) {
+        Query query = userQuery(userId);
+        return liveLists.getAsync(COLLECTION_NAME, userId, query,
+                () -> toCompletableFuture(query.get()).thenApply(QuerySnapshot::getDocuments));
+    }
+
+    private Query userQuery(String userId) {
+        return layout.userQuery(COLLECTION_NAME, "user_id", userId);
+    }
+
+    private CompletableFuture<Long> sumShardsAsync(String userId) {
+        return toCompletableFuture(shardsRef(userId).get()).thenCompose(shards -> {
+            if (isSeeded(shards.getDocuments())) {
+                return CompletableFuture.completedFuture(sumShards(shards.getDocuments()));
+            }
+            return seedCounterAsync(userId);
+        });
+    }
+
+    /**
+     * 카운터 최초 초기화.
+     * 샤드 읽기와 집계, 샤드 기록을 한 트랜잭션에서 수행해 그 사이의 생성/삭제가 누락되지 않도록 한다.
+     * 전체 개수는 샤드 0에 두고 나머지 샤드는 비운다.
+     */
+    private CompletableFuture<Long> seedCounterAsync(String userId) {
+        DocumentReference[] refs = new DocumentReference[counterShards];
+        for (int i = 0; i < counterShards; i++) {
+            refs[i] = shardsRef(userId).document(String.valueOf(i));
+        }
+        AggregateQuery countQuery = userQuery(userId).count();
+
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            List<DocumentSnapshot> shards = transaction.getAll(refs).get();
+            if (isSeeded(shards)) {
+                return sumShards(shards);
+            }
+
+            long count = transaction.get(countQuery).get().getCount();
+            for (int i = 0; i < refs.length; i++) {
+                Map<String, Object> fields = new HashMap<>();
+                fields.put(SHARD_COUNT_FIELD, i == 0 ? count : 0L);
+                if (i == 0) {
+                    fields.put(SHARD_SEEDED_FIELD, true);
+                }
+                transaction.set(refs[i], fields);
+            }
+            return count;
+        }));
+    }
+
+    private CollectionReference shardsRef(String userId) {
+        return firestore.collection(STATS_COLLECTION_NAME).document(userId).collection(COUNT_SHARDS_COLLECTION_NAME);
+    }
+
+    private DocumentReference randomShardRef(String userId) {
+        return shardsRef(userId).document(String.valueOf(ThreadLocalRandom.current().nextInt(counterShards)));
+    }
+
+    private boolean isSeeded(List<? extends DocumentSnapshot> shards) {
+        for (DocumentSnapshot shard : shards) {
+            if (shard.exists() && "0".equals(shard.getId())
+                    && Boolean.TRUE.equals(shard.getBoolean(SHARD_SEEDED_FIELD))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long sumShards(List<? extends DocumentSnapshot> shards) {
+        long sum = 0;
+        for (DocumentSnapshot shard : shards) {
+            Long count = shard.exists() ? shard.getLong(SHARD_COUNT_FIELD) : null;
+            if (count != null) {
+                sum += count;
+            }
+        }
+        return Math.max(sum, 0L);
+    }
+
+    /**
+     * 문서를 나무 요약으로 변환 (status가 있으면 해당 상태만)
+     */
+    private List<TreeSummary> toSummaries(List<? extends DocumentSnapshot> documents, String status) {
+        List<TreeSummary> summaries = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            if (status != null && !status.equals(document.getString("status"))) {
+                continue;
+            }
+            summaries.add(new TreeSummary(
+                    document.getId(),
+                    document.getDate("week_short_date"),
+                    document.getDate("week_end_date"),
+                    document.getString("diary_leaf_colors"),
+                    document.getString("status"),
+                    document.getDate("created_at")));
+        }
+        return summaries;
+    }
+
+    /**
+     * 문서를 나무로 변환 (status가 있으면 해당 상태만)
+     */
+    private List<Tree> toTrees(List<? extends DocumentSnapshot> documents, String status) {
+        List<Tree> trees = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            if (status != null && !status.equals(document.getString("status"))) {
+                continue;
+            }
+            trees.add(toTree(document));
+        }
+        return trees;
+    }
+
+    private Tree toTree(DocumentSnapshot document) {
+        Tree tree = document.toObject(Tree.class);
+        tree.clearChanges();
+        return tree;
     }
 }
 
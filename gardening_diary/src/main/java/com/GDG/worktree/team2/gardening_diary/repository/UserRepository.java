@@ -1,168 +1,333 @@
 package com.GDG.worktree.team2.gardening_diary.repository;
 
+import com.GDG.worktree.team2.gardening_diary.dto.CursorPage;
 import com.GDG.worktree.team2.gardening_diary.entity.User;
-import com.google.api.core.ApiFuture;
+import com.GDG.worktree.team2.gardening_diary.util.DocumentStream;
 import com.google.cloud.firestore.*;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
 /**
  * 사용자 Repository
+ *
+ * <p>ID 조회와 UID 조회는 {@link EntityCache}와 {@link DiskCacheTier}를 차례로 거친다. 사용자 문서를 쓰면
+ * 그 문서에서 나온 캐시 항목(ID/UID 키 모두)을 두 계층에서 무효화한다. 디스크에는 password를 남기지 않는다.
  */
 @Repository
 public class UserRepository {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRepository.class);
+
     private static final String COLLECTION_NAME = "users";
-    
+
+    /** 목록 조회에서 받아오는 필드 (password 제외) */
+    private static final String[] LIST_FIELDS = {
+            "uid", "username", "email", "nickname", "displayName",
+            "profileImageUrl", "authProvider", "createdAt", "updatedAt"
+    };
+
     @Autowired
     private Firestore firestore;
-    
+
+    @Autowired
+    private EntityCaches entityCaches;
+
+    @Autowired
+    private DiskCache diskCache;
+
+    private EntityCache<CachedDocument<User>> cache;
+    private DiskCacheTier<User> diskTier;
+
+    @PostConstruct
+    void initCache() {
+        cache = entityCaches.create(COLLECTION_NAME);
+        diskTier = diskCache.tier(COLLECTION_NAME, User.class, this::toUser, cache);
+    }
+
     /**
      * 사용자 저장
      */
     public User save(User user) throws ExecutionException, InterruptedException {
+        return await(saveAsync(user));
+    }
+
+    /**
+     * 사용자 저장 (비동기)
+     */
+    public CompletableFuture<User> saveAsync(User user) {
         // ID가 없으면 자동 생성
         if (user.getId() == null || user.getId().isEmpty()) {
             user.setId(java.util.UUID.randomUUID().toString());
         }
-        
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
+
+        return evictAfter(user.getId(), toCompletableFuture(firestore.collection(COLLECTION_NAME)
                 .document(user.getId())
-                .set(user);
-        
-        future.get(); // 완료 대기
-        return user;
+                .set(user)))
+                .thenApply(writeResult -> user);
     }
-    
+
     /**
      * 사용자 조회 (ID로)
      */
     public User findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(User.class);
+        return await(findByIdAsync(id));
+    }
+
+    /**
+     * 사용자 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<User> findByIdAsync(String id) {
+        return getByIdCachedAsync(id).thenApply(CachedDocument::toEntity);
+    }
+
+    /**
+     * 사용자 수정 (변경된 필드만)
+     */
+    public User update(User user) throws ExecutionException, InterruptedException {
+        return await(updateAsync(user));
+    }
+
+    /**
+     * 사용자 수정 (변경된 필드만, 비동기)
+     *
+     * <p>setter로 바뀐 필드와 updatedAt만 update()로 보낸다. 문서가 없으면 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<User> updateAsync(User user) {
+        if (user.getChanges().isEmpty()) {
+            return CompletableFuture.completedFuture(user);
         }
-        return null;
+
+        Map<String, Object> fields = new HashMap<>(user.getChanges());
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return evictAfter(user.getId(), toCompletableFuture(firestore.collection(COLLECTION_NAME)
+                .document(user.getId())
+                .update(fields)))
+                .thenApply(writeResult -> {
+                    user.setUpdatedAt(writeResult.getUpdateTime().toDate());
+                    user.clearChanges();
+                    return user;
+                });
     }
-    
+
     /**
      * 이메일로 사용자 조회
      */
     public User findByEmail(String email) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("email", email)
-                .limit(1);
-        
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        QuerySnapshot documents = querySnapshot.get();
-        
-        if (!documents.isEmpty()) {
-            DocumentSnapshot document = documents.getDocuments().get(0);
-            return document.toObject(User.class);
-        }
-        return null;
+        return await(findByEmailAsync(email));
     }
-    
+
+    /**
+     * 이메일로 사용자 조회 (비동기)
+     */
+    public CompletableFuture<User> findByEmailAsync(String email) {
+        return findFirstAsync("email", email);
+    }
+
     /**
      * 아이디로 사용자 조회
      */
     public User findByUsername(String username) {
         try {
-            Query query = firestore.collection(COLLECTION_NAME)
-                    .whereEqualTo("username", username)
-                    .limit(1);
-            
-            ApiFuture<QuerySnapshot> querySnapshot = query.get();
-            QuerySnapshot documents = querySnapshot.get();
-            
-            if (!documents.isEmpty()) {
-                DocumentSnapshot document = documents.getDocuments().get(0);
-                return document.toObject(User.class);
-            }
-            return null;
+            return await(findByUsernameAsync(username));
         } catch (Exception e) {
-            System.err.println("아이디로 사용자 조회 실패: " + e.getMessage());
+            logger.warn("아이디로 사용자 조회 실패: {}", e.getMessage());
             return null;
         }
     }
-    
+
+    /**
+     * 아이디로 사용자 조회 (비동기)
+     */
+    public CompletableFuture<User> findByUsernameAsync(String username) {
+        return findFirstAsync("username", username);
+    }
+
     /**
      * UID로 사용자 조회
      */
     public User findByUid(String uid) {
         try {
-            Query query = firestore.collection(COLLECTION_NAME)
-                    .whereEqualTo("uid", uid)
-                    .limit(1);
-            
-            ApiFuture<QuerySnapshot> querySnapshot = query.get();
-            QuerySnapshot documents = querySnapshot.get();
-            
-            if (!documents.isEmpty()) {
-                DocumentSnapshot document = documents.getDocuments().get(0);
-                return document.toObject(User.class);
-            }
-            return null;
+            return await(findByUidAsync(uid));
         } catch (Exception e) {
-            System.err.println("UID로 사용자 조회 실패: " + e.getMessage());
+            logger.warn("UID로 사용자 조회 실패: {}", e.getMessage());
             return null;
         }
     }
-    
+
+    /**
+     * UID로 사용자 조회 (비동기)
+     */
+    public CompletableFuture<User> findByUidAsync(String uid) {
+        String key = "uid:" + uid;
+        return cache.get(key,
+                () -> diskTier.load(key, () -> findFirstDocumentAsync("uid", uid)),
+                CachedDocument::exists).thenApply(CachedDocument::toEntity);
+    }
+
     /**
      * 사용자 삭제
      */
     public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
+        await(deleteByIdAsync(id));
+    }
+
+    /**
+     * 사용자 삭제 (비동기)
+     */
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return evictAfter(id, toCompletableFuture(firestore.collection(COLLECTION_NAME)
                 .document(id)
-                .delete();
-        
-        future.get(); // 완료 대기
+                .delete()))
+                .thenApply(writeResult -> null);
     }
-    
+
     /**
      * UID로 사용자 삭제
      */
     public void deleteByUid(String uid) {
         try {
-            User user = findByUid(uid);
-            if (user != null && user.getId() != null) {
-                deleteById(user.getId());
-            }
+            await(deleteByUidAsync(uid));
         } catch (Exception e) {
-            System.err.println("UID로 사용자 삭제 실패: " + e.getMessage());
+            logger.warn("UID로 사용자 삭제 실패: {}", e.getMessage());
         }
     }
-    
+
+    /**
+     * UID로 사용자 삭제 (비동기)
+     */
+    public CompletableFuture<Void> deleteByUidAsync(String uid) {
+        return findByUidAsync(uid).thenCompose(user -> user != null && user.getId() != null
+                ? deleteByIdAsync(user.getId())
+                : CompletableFuture.<Void>completedFuture(null));
+    }
+
     /**
-     * 모든 사용자 조회
+     * 사용자 목록 조회 (커서 페이징, 비동기)
+     *
+     * <p>문서 ID 순으로 정렬하고 select()로 password를 제외한 필드만 받아온다.
      */
-    public List<User> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-        QuerySnapshot querySnapshot = future.get();
-        
-        List<User> users = new ArrayList<>();
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            users.add(document.toObject(User.class));
+    public CompletableFuture<CursorPage<User>> findPageAsync(int limit, String cursor) {
+        Query query = listQuery().limit(limit);
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String lastId;
+            try {
+                lastId = decodeCursor(cursor);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            query = query.startAfter(lastId);
         }
-        return users;
+
+        return toCompletableFuture(query.get()).thenApply(documents -> {
+            List<User> users = new ArrayList<>(documents.size());
+            for (DocumentSnapshot document : documents.getDocuments()) {
+                users.add(document.toObject(User.class));
+            }
+            String nextCursor = users.size() == limit
+                    ? encodeCursor(users.get(users.size() - 1).getId())
+                    : null;
+            return new CursorPage<>(users, nextCursor);
+        });
     }
-    
+
+    /**
+     * 모든 사용자 스트리밍 조회 (password 제외)
+     *
+     * <p>결과를 한 번에 받지 않고 Query.stream()으로 흘려보낸다.
+     */
+    public DocumentStream streamAll(int bufferSize) {
+        return DocumentStream.open(listQuery(), bufferSize);
+    }
+
     /**
      * 사용자 존재 여부 확인
      */
     public boolean existsById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        
-        DocumentSnapshot document = future.get();
-        return document.exists();
+        return await(existsByIdAsync(id));
+    }
+
+    /**
+     * 사용자 존재 여부 확인 (비동기)
+     */
+    public CompletableFuture<Boolean> existsByIdAsync(String id) {
+        return getByIdCachedAsync(id).thenApply(CachedDocument::exists);
+    }
+
+    /**
+     * 캐시에서 사용자 제거 (저장소를 거치지 않고 사용자 문서를 쓴 뒤 호출)
+     */
+    public void evictCached(String id) {
+        cache.invalidateIf(document -> id.equals(document.getId()));
+        diskTier.evictDocument(id);
+    }
+
+    private <T> CompletableFuture<T> evictAfter(String id, CompletableFuture<T> write) {
+        return write.whenComplete((result, ex) -> evictCached(id));
+    }
+
+    private CompletableFuture<CachedDocument<User>> getByIdCachedAsync(String id) {
+        String key = "id:" + id;
+        return cache.get(key,
+                () -> diskTier.load(key,
+                        () -> toCompletableFuture(firestore.collection(COLLECTION_NAME).document(id).get())),
+                CachedDocument::exists);
+    }
+
+    private Query listQuery() {
+        return firestore.collection(COLLECTION_NAME)
+                .orderBy(FieldPath.documentId())
+                .select(LIST_FIELDS);
+    }
+
+    private String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            String lastId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (lastId.isEmpty()) {
+                throw new IllegalArgumentException("잘못된 페이징 커서입니다");
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 페이징 커서입니다", e);
+        }
+    }
+
+    private CompletableFuture<User> findFirstAsync(String field, Object value) {
+        return findFirstDocumentAsync(field, value)
+                .thenApply(document -> document == null ? null : toUser(document));
+    }
+
+    private CompletableFuture<DocumentSnapshot> findFirstDocumentAsync(String field, Object value) {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo(field, value)
+                .limit(1);
+
+        return toCompletableFuture(query.get())
+                .thenApply(documents -> documents.isEmpty() ? null : documents.getDocuments().get(0));
+    }
+
+    private User toUser(DocumentSnapshot document) {
+        User user = document.toObject(User.class);
+        user.clearChanges();
+        return user;
     }
 }
@@ -1,15 +1,21 @@
 package com.GDG.worktree.team2.gardening_diary.service;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
 
 import jakarta.annotation.PostConstruct;
 
@@ -31,12 +37,14 @@ import com.google.firebase.auth.UserRecord;
 @Service
 public class AuthService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtProvider jwtProvider;
     private final FirebaseAuth firebaseAuth;
     private final ObjectMapper objectMapper;
-    private final HttpClient httpClient;
+    private final RestTemplate restTemplate;
     
     @Value("${firebase.web-api-key:}")
     private String firebaseWebApiKey;
@@ -44,13 +52,14 @@ public class AuthService {
     @Value("${gcp.project-id:diarygarden-7bb2d}")
     private String projectId;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtProvider jwtProvider, FirebaseAuth firebaseAuth) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtProvider jwtProvider, FirebaseAuth firebaseAuth,
+                       @Qualifier("authRestTemplate") RestTemplate authRestTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtProvider = jwtProvider;
         this.firebaseAuth = firebaseAuth; // Spring Bean으로 주입
         this.objectMapper = new ObjectMapper();
-        this.httpClient = HttpClient.newHttpClient();
+        this.restTemplate = authRestTemplate; // 공유 HTTP/2 클라이언트 (HttpClientConfig)
     }
     
     /**
@@ -84,7 +93,7 @@ public class AuthService {
             throw new IllegalStateException("Firebase Web API Key가 설정되지 않았습니다. .env 파일에 FIREBASE_WEB_API_KEY를 설정해주세요.");
         }
         
-        System.out.println("Custom Token을 ID Token으로 변환 시도 중...");
+        logger.debug("Custom Token을 ID Token으로 변환 시도 중...");
         
         String url = "https://identitytoolkit.googleapis.com/v1/accounts:signInWithCustomToken?key=" + firebaseWebApiKey;
         
@@ -95,30 +104,35 @@ public class AuthService {
         
         String jsonBody = objectMapper.writeValueAsString(requestBody);
         
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                .build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
         
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.postForEntity(url, new HttpEntity<>(jsonBody, headers), String.class);
+        } catch (RestClientResponseException e) {
+            logger.warn("Firebase ID Token 변환 실패: HTTP {} - {}", e.getStatusCode().value(), e.getResponseBodyAsString());
+            throw new IOException("Failed to exchange custom token: HTTP " + e.getStatusCode().value() + " - " + e.getResponseBodyAsString());
+        } catch (RestClientException e) {
+            throw new IOException("Failed to exchange custom token: " + e.getMessage(), e);
+        }
         
-        System.out.println("Firebase REST API 응답 상태 코드: " + response.statusCode());
+        logger.debug("Firebase REST API 응답 상태 코드: {}", response.getStatusCode().value());
         
-        if (response.statusCode() == 200) {
+        if (response.getStatusCode().value() == 200) {
             @SuppressWarnings("unchecked")
-            Map<String, Object> responseBody = objectMapper.readValue(response.body(), Map.class);
+            Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
             String idToken = (String) responseBody.get("idToken");
             if (idToken != null && !idToken.isEmpty()) {
-                System.out.println("Firebase ID Token 획득 성공!");
+                logger.debug("Firebase ID Token 획득 성공");
                 return idToken;
             } else {
-                System.err.println("응답에 idToken이 없습니다: " + response.body());
-                throw new IOException("Firebase ID Token을 받아올 수 없습니다. 응답: " + response.body());
+                logger.warn("응답에 idToken이 없습니다: {}", response.getBody());
+                throw new IOException("Firebase ID Token을 받아올 수 없습니다. 응답: " + response.getBody());
             }
         } else {
-            System.err.println("Firebase ID Token 변환 실패: " + response.body());
-            throw new IOException("Failed to exchange custom token: HTTP " + response.statusCode() + " - " + response.body());
+            logger.warn("Firebase ID Token 변환 실패: HTTP {} - {}", response.getStatusCode().value(), response.getBody());
+            throw new IOException("Failed to exchange custom token: HTTP " + response.getStatusCode().value() + " - " + response.getBody());
         }
     }
     
@@ -202,7 +216,7 @@ public class AuthService {
             // Custom Token 생성 후 Firebase ID Token으로 변환
             try {
                 String customToken = firebaseAuth.createCustomToken(user.getUid());
-                System.out.println("Custom Token 생성 완료");
+                logger.debug("Custom Token 생성 완료");
                 
                 String idToken = exchangeCustomTokenForIdToken(customToken);
                 return new AuthResponse(idToken, user.getUid(), request.getUsername(), user.getDisplayName());
@@ -250,7 +264,7 @@ public class AuthService {
             if (displayName != null) user.setDisplayName(displayName);
             if (profileImageUrl != null) user.setProfileImageUrl(profileImageUrl);
             
-            return userRepository.save(user);
+            return userRepository.update(user);
             
         } catch (Exception e) {
             System.err.println("사용자 업데이트 실패: " + e.getMessage());
@@ -0,0 +1,162 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.repository.DiaryRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionAnalysisRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionOutboxRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.TreeRepository;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 연쇄 삭제 서비스
+ *
+ * <p>다이어리와 감정 분석, 감정 분석 재시도 outbox 항목(및 다이어리 개수 카운터)을 하나의 WriteBatch로 커밋해,
+ * 중간에 실패해도 감정 분석만 남는 일이 없도록 한다. 나무 삭제도 같은 방식으로
+ * 나무에 속한 다이어리까지 함께 지운다.
+ *
+ * <p>호출 전에 소유권 확인이 끝나 있어야 한다 (NESTED 저장 구조에서는 경로가 소유권을 보장한다).
+ * 다이어리 삭제가 커밋 1회로 끝나는 것은 NESTED 구조에서 {@code emotion.analysis.legacy-lookup}이 꺼져 있을 때(기본값)다.
+ * FLAT 구조는 소유권 확인 조회가, 예전 문서 조회를 켜 두면 예전 UUID 문서 조회가 커밋 전에 한 번씩 더 든다.
+ */
+@Service
+public class CascadeDeleteService {
+
+    /** Firestore WriteBatch 1개에 담을 수 있는 최대 쓰기 수 */
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private final Firestore firestore;
+    private final DiaryRepository diaryRepository;
+    private final TreeRepository treeRepository;
+    private final EmotionAnalysisRepository emotionAnalysisRepository;
+    private final EmotionOutboxRepository emotionOutboxRepository;
+
+    @Autowired
+    public CascadeDeleteService(Firestore firestore,
+                                DiaryRepository diaryRepository,
+                                TreeRepository treeRepository,
+                                EmotionAnalysisRepository emotionAnalysisRepository,
+                                EmotionOutboxRepository emotionOutboxRepository) {
+        this.firestore = firestore;
+        this.diaryRepository = diaryRepository;
+        this.treeRepository = treeRepository;
+        this.emotionAnalysisRepository = emotionAnalysisRepository;
+        this.emotionOutboxRepository = emotionOutboxRepository;
+    }
+
+    /**
+     * 다이어리와 감정 분석, 재시도 outbox 항목 삭제 (커밋 1회, 비동기)
+     *
+     * <p>다이어리가 없으면 NOT_FOUND로 실패하고 아무것도 지워지지 않는다.
+     */
+    public CompletableFuture<Void> deleteDiaryAsync(String diaryId, String userId) {
+        return emotionAnalysisRepository.findLegacyRefsAsync(List.of(diaryId))
+                .thenCompose(legacyRefs -> {
+                    WriteBatch batch = firestore.batch();
+                    diaryRepository.batchDelete(batch, diaryId, userId);
+                    emotionAnalysisRepository.batchDeleteByDiaryId(batch, diaryId);
+                    emotionOutboxRepository.batchDelete(batch, diaryId);
+                    for (DocumentReference legacy : legacyRefs) {
+                        batch.delete(legacy);
+                    }
+                    diaryRepository.batchDecrementCount(batch, userId, 1);
+                    return toCompletableFuture(batch.commit());
+                })
+                .whenComplete((writeResults, ex) -> afterCommit(diaryId, userId, ex == null ? commitTimeOf(writeResults) : null))
+                .thenApply(writeResults -> null);
+    }
+
+    /**
+     * 나무와 나무에 속한 다이어리, 감정 분석 삭제 (비동기)
+     *
+     * <p>한 배치에 다 들어가면 커밋 1회로 원자적으로 지운다. 다이어리가 많아 배치 한도를 넘으면
+     * 여러 배치로 나눠 차례로 커밋하고 나무는 마지막 배치에서 지운다. 중간에 실패해도
+     * 나무가 남아 있으므로 다시 삭제하면 남은 다이어리부터 이어서 지워진다.
+     */
+    public CompletableFuture<Void> deleteTreeAsync(String treeId, String userId) {
+        return diaryRepository.findIdsByTreeIdAsync(treeId, userId)
+                .thenCompose(diaryIds -> emotionAnalysisRepository.findLegacyRefsAsync(diaryIds)
+                        .thenCompose(legacyRefs -> commitInOrder(buildTreeBatches(treeId, userId, diaryIds, legacyRefs)))
+                        .whenComplete((commitTime, ex) -> {
+                            // 일부 배치만 커밋되었을 수 있으므로 실패해도 캐시를 비운다
+                            Timestamp committed = ex == null ? commitTime : null;
+                            diaryIds.forEach(diaryId -> afterCommit(diaryId, userId, committed));
+                            treeRepository.afterBatchCommit(treeId, userId, committed);
+                        })
+                        .thenApply(commitTime -> null));
+    }
+
+    private void afterCommit(String diaryId, String userId, Timestamp commitTime) {
+        diaryRepository.afterBatchCommit(diaryId, userId, commitTime);
+        emotionAnalysisRepository.evictCached(diaryId);
+    }
+
+    private Timestamp commitTimeOf(List<WriteResult> writeResults) {
+        return writeResults == null || writeResults.isEmpty() ? null : writeResults.get(0).getUpdateTime();
+    }
+
+    private List<WriteBatch> buildTreeBatches(String treeId, String userId,
+                                              List<String> diaryIds, List<DocumentReference> legacyRefs) {
+        List<WriteBatch> batches = new ArrayList<>();
+        // 나무 삭제(DUAL이면 2곳)와 다이어리/나무 카운터 감소가 들어갈 자리를 남겨 둔다
+        int limit = MAX_BATCH_WRITES - 4;
+
+        WriteBatch batch = firestore.batch();
+        int writes = 0;
+        long diaries = 0;
+
+        for (String diaryId : diaryIds) {
+            // 다이어리(DUAL이면 2곳) + 감정 분석 + outbox 항목
+            if (writes + 4 > limit) {
+                diaryRepository.batchDecrementCount(batch, userId, diaries);
+                batches.add(batch);
+                batch = firestore.batch();
+                writes = 0;
+                diaries = 0;
+            }
+            writes += diaryRepository.batchDelete(batch, diaryId, userId);
+            writes += emotionAnalysisRepository.batchDeleteByDiaryId(batch, diaryId);
+            writes += emotionOutboxRepository.batchDelete(batch, diaryId);
+            diaries++;
+        }
+
+        for (DocumentReference legacy : legacyRefs) {
+            if (writes + 1 > limit) {
+                diaryRepository.batchDecrementCount(batch, userId, diaries);
+                batches.add(batch);
+                batch = firestore.batch();
+                writes = 0;
+                diaries = 0;
+            }
+            batch.delete(legacy);
+            writes++;
+        }
+
+        diaryRepository.batchDecrementCount(batch, userId, diaries);
+        treeRepository.batchDelete(batch, treeId, userId);
+        treeRepository.batchDecrementCount(batch, userId);
+        batches.add(batch);
+        return batches;
+    }
+
+    /**
+     * 배치를 차례로 커밋하고 마지막 커밋 시각을 반환한다.
+     */
+    private CompletableFuture<Timestamp> commitInOrder(List<WriteBatch> batches) {
+        CompletableFuture<Timestamp> chain = CompletableFuture.completedFuture(null);
+        for (WriteBatch batch : batches) {
+            chain = chain.thenCompose(ignored -> toCompletableFuture(batch.commit()).thenApply(this::commitTimeOf));
+        }
+        return chain;
+    }
+}
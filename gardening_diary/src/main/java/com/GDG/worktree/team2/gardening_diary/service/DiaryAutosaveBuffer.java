@@ -0,0 +1,243 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.dto.DiaryRequest;
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 다이어리 자동 저장 버퍼 (write-behind)
+ *
+ * <p>편집기가 몇 초마다 보내는 자동 저장을 다이어리별로 모아 두었다가, 마지막 편집 후 window 동안
+ * 추가 편집이 없으면 최종 상태만 한 번 저장한다. 계속 입력 중이어도 첫 편집 후 max-delay가 지나면 저장한다.
+ * 저장은 단일 스레드에서 순서대로 처리하므로 같은 다이어리의 이전 상태가 최신 상태를 덮어쓰지 않는다.
+ * 감정 분석은 분석 큐로 넘기며, 애플리케이션 종료 시 남은 편집을 모두 저장한다. 종료가 시작된 뒤 들어온 편집은
+ * 모으지 않고 바로 저장한다.
+ */
+@Component
+public class DiaryAutosaveBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiaryAutosaveBuffer.class);
+
+    private final DiaryService diaryService;
+    private final long windowMillis;
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 다이어리 하나에 대해 모아 둔 편집. 필드는 pending 맵의 compute 안에서만 바뀐다.
+     */
+    private static final class Pending {
+        final String userId;
+        final long firstEditAt;
+        String treeId;
+        String content;
+        Date writtenDate;
+        int edits;
+        ScheduledFuture<?> flushTask;
+
+        Pending(String userId, long firstEditAt) {
+            this.userId = userId;
+            this.firstEditAt = firstEditAt;
+        }
+
+        void merge(DiaryRequest request) {
+            if (request.getTreeId() != null) {
+                treeId = request.getTreeId();
+            }
+            if (request.getContent() != null) {
+                content = request.getContent();
+            }
+            if (request.getWrittenDate() != null) {
+                writtenDate = request.getWrittenDate();
+            }
+            edits++;
+        }
+
+        DiaryRequest toRequest() {
+            DiaryRequest request = new DiaryRequest(treeId, content);
+            request.setWrittenDate(writtenDate);
+            return request;
+        }
+    }
+
+    @Autowired
+    public DiaryAutosaveBuffer(DiaryService diaryService,
+                               @Value("${diary.autosave.window-ms:5000}") long windowMillis,
+                               @Value("${diary.autosave.max-delay-ms:60000}") long maxDelayMillis,
+                               @Value("${diary.autosave.max-pending:10000}") int maxPending) {
+        this.diaryService = diaryService;
+        this.windowMillis = windowMillis;
+        this.maxDelayMillis = Math.max(maxDelayMillis, windowMillis);
+        this.maxPending = maxPending;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "diary-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 자동 저장 편집 등록
+     *
+     * <p>다이어리의 첫 편집이면 존재와 소유권을 먼저 확인한다. 버퍼가 가득 차 있으면 모으지 않고 바로 저장한다.
+     *
+     * @return 버퍼에 모았으면 true, 바로 저장했으면 false
+     */
+    public boolean submit(String diaryId, String userId, DiaryRequest request)
+            throws ExecutionException, InterruptedException {
+        if (!pending.containsKey(diaryId)) {
+            if (pending.size() >= maxPending) {
+                diaryService.saveAutosave(diaryId, userId, request);
+                return false;
+            }
+            checkOwner(diaryId, userId);
+        }
+
+        long now = System.currentTimeMillis();
+        Pending[] rejected = new Pending[1];
+        pending.compute(diaryId, (id, entry) -> {
+            if (entry == null) {
+                entry = new Pending(userId, now);
+            } else if (!entry.userId.equals(userId)) {
+                throw new IllegalArgumentException("다이어리 수정 권한이 없습니다");
+            }
+            entry.merge(request);
+
+            // 마지막 편집 후 window만큼 기다리되, 첫 편집 후 max-delay를 넘기지 않는다
+            if (entry.flushTask != null) {
+                entry.flushTask.cancel(false);
+            }
+            long delay = Math.max(0, Math.min(windowMillis, entry.firstEditAt + maxDelayMillis - now));
+            Pending scheduled = entry;
+            try {
+                entry.flushTask = scheduler.schedule(() -> flush(id, scheduled), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 종료 중
+                entry.flushTask = null;
+                rejected[0] = entry;
+            }
+            return entry;
+        });
+
+        if (rejected[0] != null) {
+            // 종료 처리가 이미 가져간 편집이면 그쪽에서 저장한다
+            if (pending.remove(diaryId, rejected[0])) {
+                diaryService.saveAutosave(diaryId, userId, rejected[0].toRequest());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 모아 둔 편집을 바로 저장하고 끝날 때까지 기다린다.
+     * 명시적 수정 전에 호출해 나중에 버퍼가 새 내용을 이전 자동 저장으로 덮어쓰지 않게 한다.
+     */
+    public void flushNow(String diaryId) throws ExecutionException, InterruptedException {
+        Pending entry = pending.get(diaryId);
+        if (entry == null) {
+            return;
+        }
+        // 저장 스레드를 거쳐야 진행 중인 저장 뒤에 순서대로 처리된다
+        Future<?> flushed;
+        try {
+            flushed = scheduler.submit(() -> flush(diaryId, entry));
+        } catch (RejectedExecutionException e) {
+            // 종료 중이면 이 스레드에서 저장
+            flush(diaryId, entry);
+            return;
+        }
+        flushed.get();
+    }
+
+    /**
+     * 모아 둔 편집을 저장하지 않고 버린다 (다이어리 삭제 시).
+     */
+    public void discard(String diaryId, String userId) {
+        pending.computeIfPresent(diaryId, (id, entry) -> {
+            if (!entry.userId.equals(userId)) {
+                return entry;
+            }
+            if (entry.flushTask != null) {
+                entry.flushTask.cancel(false);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 저장 대기 중인 다이어리 수
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    private void checkOwner(String diaryId, String userId) throws ExecutionException, InterruptedException {
+        Diary diary = diaryService.getDiaryById(diaryId, userId);
+        if (diary == null) {
+            throw new IllegalArgumentException("다이어리를 찾을 수 없습니다");
+        }
+        if (!userId.equals(diary.getUserId())) {
+            throw new IllegalArgumentException("다이어리 수정 권한이 없습니다");
+        }
+    }
+
+    private void flush(String diaryId, Pending entry) {
+        // 이미 저장했거나 버린 편집
+        if (!pending.remove(diaryId, entry)) {
+            return;
+        }
+        try {
+            diaryService.saveAutosave(diaryId, entry.userId, entry.toRequest());
+            logger.debug("자동 저장 완료. diaryId={}, 모은 편집 {}건", diaryId, entry.edits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("자동 저장이 중단되었습니다. diaryId={}", diaryId);
+        } catch (IllegalArgumentException e) {
+            // 그사이 삭제된 다이어리 등
+            logger.info("자동 저장을 건너뜁니다. diaryId={}: {}", diaryId, e.getMessage());
+        } catch (Exception e) {
+            logger.error("자동 저장 실패. diaryId={}", diaryId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 예약된 저장을 취소하고 남은 편집을 모두 바로 저장
+        List<String> diaryIds = new ArrayList<>(pending.keySet());
+        for (String diaryId : diaryIds) {
+            Pending entry = pending.get(diaryId);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.flushTask != null) {
+                entry.flushTask.cancel(false);
+            }
+            scheduler.execute(() -> flush(diaryId, entry));
+        }
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("종료 시점에 저장하지 못한 자동 저장 {}건", pending.size());
+        }
+    }
+}
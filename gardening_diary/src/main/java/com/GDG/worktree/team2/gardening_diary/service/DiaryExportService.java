@@ -0,0 +1,125 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.GDG.worktree.team2.gardening_diary.entity.EmotionAnalysis;
+import com.GDG.worktree.team2.gardening_diary.entity.Tree;
+import com.GDG.worktree.team2.gardening_diary.repository.DiaryRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionAnalysisRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.TreeRepository;
+import com.GDG.worktree.team2.gardening_diary.util.DocumentStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+
+/**
+ * 다이어리 내보내기 서비스
+ *
+ * <p>사용자의 전체 이력을 NDJSON(한 줄에 JSON 객체 하나)으로 출력한다.
+ * Firestore 결과를 스트리밍으로 읽으면서 바로 쓰기 때문에 메모리 사용량은 이력 크기와 무관하다.
+ * <ul>
+ *   <li>{"type":"tree","data":{...}} - include=trees일 때 먼저 출력</li>
+ *   <li>{"type":"diary","data":{...},"emotion":{...}} - emotion은 include=emotions일 때만 포함</li>
+ * </ul>
+ */
+@Service
+public class DiaryExportService {
+
+    public static final String INCLUDE_EMOTIONS = "emotions";
+    public static final String INCLUDE_TREES = "trees";
+
+    /** Firestore 스트림에서 미리 받아 둘 문서 수 */
+    private static final int STREAM_BUFFER_SIZE = 100;
+
+    /** 감정 분석을 한 번에 묶어 조회할 다이어리 수 */
+    private static final int JOIN_BATCH_SIZE = 30;
+
+    private static final byte NEWLINE = '\n';
+
+    private final DiaryRepository diaryRepository;
+    private final TreeRepository treeRepository;
+    private final EmotionAnalysisRepository emotionAnalysisRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public DiaryExportService(DiaryRepository diaryRepository,
+                              TreeRepository treeRepository,
+                              EmotionAnalysisRepository emotionAnalysisRepository,
+                              ObjectMapper objectMapper) {
+        this.diaryRepository = diaryRepository;
+        this.treeRepository = treeRepository;
+        this.emotionAnalysisRepository = emotionAnalysisRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 사용자의 다이어리를 NDJSON으로 내보내기
+     */
+    public void export(String userId, boolean includeEmotions, boolean includeTrees, OutputStream out)
+            throws IOException, ExecutionException, InterruptedException {
+        if (includeTrees) {
+            try (DocumentStream trees = treeRepository.streamByUserId(userId, STREAM_BUFFER_SIZE)) {
+                while (trees.hasNext()) {
+                    writeLine(out, "tree", trees.next().toObject(Tree.class), null, false);
+                }
+            }
+            out.flush();
+        }
+
+        try (DocumentStream diaries = diaryRepository.streamByUserId(userId, STREAM_BUFFER_SIZE)) {
+            List<Diary> batch = new ArrayList<>(JOIN_BATCH_SIZE);
+            while (diaries.hasNext()) {
+                batch.add(diaries.next().toObject(Diary.class));
+                if (batch.size() == JOIN_BATCH_SIZE) {
+                    writeDiaries(out, batch, includeEmotions);
+                    batch.clear();
+                }
+            }
+            writeDiaries(out, batch, includeEmotions);
+        }
+        out.flush();
+    }
+
+    private void writeDiaries(OutputStream out, List<Diary> diaries, boolean includeEmotions)
+            throws IOException, ExecutionException, InterruptedException {
+        if (diaries.isEmpty()) {
+            return;
+        }
+
+        Map<String, EmotionAnalysis> emotions = Collections.emptyMap();
+        if (includeEmotions) {
+            List<String> diaryIds = new ArrayList<>(diaries.size());
+            for (Diary diary : diaries) {
+                diaryIds.add(diary.getId());
+            }
+            emotions = await(emotionAnalysisRepository.findByDiaryIdsAsync(diaryIds));
+        }
+
+        for (Diary diary : diaries) {
+            writeLine(out, "diary", diary, emotions.get(diary.getId()), includeEmotions);
+        }
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, String type, Object data, EmotionAnalysis emotion, boolean withEmotion)
+            throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.put("data", data);
+        if (withEmotion) {
+            line.put("emotion", emotion);
+        }
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write(NEWLINE);
+    }
+}
@@ -0,0 +1,283 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.dto.ImportResult;
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.GDG.worktree.team2.gardening_diary.repository.DiaryRepository;
+import com.GDG.worktree.team2.gardening_diary.util.CsvReader;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.firestore.BulkWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+
+/**
+ * 다이어리 일괄 가져오기 서비스
+ *
+ * <p>업로드된 JSON(배열 또는 NDJSON)/CSV를 한 행씩 읽어 Firestore BulkWriter로 저장한다.
+ * BulkWriter가 초당 쓰기 수를 점진적으로 늘리며 조절하고, 일정 행마다 flush해서
+ * 대기 중인 쓰기가 메모리에 쌓이지 않도록 한다. 감정 분석은 저장이 끝난 행만 큐에 넣는다.
+ */
+@Service
+public class DiaryImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiaryImportService.class);
+
+    /** 이 행 수마다 BulkWriter를 flush해 대기 중인 쓰기를 비운다 */
+    private static final int FLUSH_INTERVAL = 500;
+
+    private static final DateTimeFormatter SPACED_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 업로드 형식
+     */
+    public enum Format {
+        JSON, CSV;
+
+        public static Format fromContentType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv") ? CSV : JSON;
+        }
+    }
+
+    private final DiaryRepository diaryRepository;
+    private final EmotionAnalysisQueue emotionAnalysisQueue;
+    private final ObjectMapper objectMapper;
+    private final int initialOpsPerSecond;
+    private final int maxOpsPerSecond;
+    private final ZoneId zoneId;
+
+    @Autowired
+    public DiaryImportService(DiaryRepository diaryRepository,
+                              EmotionAnalysisQueue emotionAnalysisQueue,
+                              ObjectMapper objectMapper,
+                              @Value("${diary.import.initial-ops-per-second:100}") int initialOpsPerSecond,
+                              @Value("${diary.import.max-ops-per-second:500}") int maxOpsPerSecond,
+                              @Value("${spring.jackson.time-zone:Asia/Seoul}") String timeZone) {
+        this.diaryRepository = diaryRepository;
+        this.emotionAnalysisQueue = emotionAnalysisQueue;
+        this.objectMapper = objectMapper;
+        this.initialOpsPerSecond = initialOpsPerSecond;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+        this.zoneId = ZoneId.of(timeZone);
+    }
+
+    /**
+     * 다이어리 일괄 가져오기
+     *
+     * <p>행 단위 오류는 결과에 기록하고 계속 진행한다. 파일 형식 자체가 깨진 경우에는
+     * 그 지점까지 저장한 뒤 중단 사유를 결과에 남긴다.
+     */
+    public ImportResult importDiaries(String userId, InputStream in, Format format)
+            throws IOException, ExecutionException, InterruptedException {
+        ImportResult result = new ImportResult();
+        BulkWriter writer = diaryRepository.openBulkWriter(initialOpsPerSecond, maxOpsPerSecond);
+        List<CompletableFuture<?>> pending = new ArrayList<>(FLUSH_INTERVAL);
+        long row = 0;
+
+        try {
+            RowSource rows = format == Format.CSV ? csvRows(in) : jsonRows(in);
+            ImportRow next;
+            while ((next = rows.next()) != null) {
+                row++;
+                CompletableFuture<?> write = submit(writer, userId, row, next, result);
+                if (write != null) {
+                    pending.add(write);
+                }
+                if (row % FLUSH_INTERVAL == 0) {
+                    writer.flush().get();
+                    awaitCallbacks(pending);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.setAbortedReason((row + 1) + "번째 행의 JSON 형식이 올바르지 않습니다: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            result.setAbortedReason((row + 1) + "번째 행을 읽을 수 없습니다: " + e.getMessage());
+        } finally {
+            writer.close();
+            awaitCallbacks(pending);
+        }
+
+        result.setTotal(row);
+        await(diaryRepository.incrementCountAsync(userId, result.getSucceeded()));
+        logger.info("다이어리 가져오기 완료. userId={}, {}", userId, result);
+        return result;
+    }
+
+    /**
+     * 한 행 저장 등록. 검증에 실패하면 바로 실패로 기록하고 null을 반환한다.
+     */
+    private CompletableFuture<?> submit(BulkWriter writer, String userId, long row, ImportRow importRow,
+                                        ImportResult result) {
+        String error = validate(importRow);
+        Date writtenDate = null;
+        if (error == null) {
+            try {
+                writtenDate = parseDate(importRow.writtenDate());
+            } catch (DateTimeParseException e) {
+                error = "작성 날짜 형식이 올바르지 않습니다: " + importRow.writtenDate();
+            }
+        }
+        if (error != null) {
+            result.addFailure(row, error);
+            return null;
+        }
+
+        Diary diary = new Diary();
+        diary.setUserId(userId);
+        diary.setTreeId(importRow.treeId());
+        diary.setContent(importRow.content());
+        diary.setWrittenDate(writtenDate != null ? writtenDate : new Date());
+
+        return diaryRepository.bulkCreateAsync(writer, diary).whenComplete((saved, ex) -> {
+            if (ex != null) {
+                result.addFailure(row, "저장 실패: " + FirestoreFutures.unwrap(ex).getMessage());
+                return;
+            }
+            result.addSuccess();
+            emotionAnalysisQueue.enqueue(saved.getId(), saved.getUserId(), saved.getContent());
+        });
+    }
+
+    /**
+     * 결과 집계 콜백까지 끝날 때까지 대기한다 (개별 실패는 콜백에서 이미 기록됨).
+     */
+    private void awaitCallbacks(List<CompletableFuture<?>> pending) {
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .join();
+        pending.clear();
+    }
+
+    private String validate(ImportRow row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        if (row.treeId() == null || row.treeId().isBlank()) {
+            return "나무 ID는 필수입니다";
+        }
+        if (row.content() == null || row.content().isBlank()) {
+            return "내용은 필수입니다";
+        }
+        return null;
+    }
+
+    /**
+     * yyyy-MM-dd, yyyy-MM-dd HH:mm:ss, ISO-8601 날짜/시각을 허용한다. 시간대가 없으면 서버 시간대로 본다.
+     */
+    private Date parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.strip();
+        if (text.length() == 10) {
+            return Date.from(LocalDate.parse(text).atStartOfDay(zoneId).toInstant());
+        }
+        if (text.endsWith("Z") || text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+            return Date.from(Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(text)));
+        }
+        LocalDateTime dateTime = text.indexOf('T') > 0
+                ? LocalDateTime.parse(text)
+                : LocalDateTime.parse(text, SPACED_DATE_TIME);
+        return Date.from(dateTime.atZone(zoneId).toInstant());
+    }
+
+    private RowSource jsonRows(InputStream in) throws IOException {
+        MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(in);
+        return () -> {
+            if (!nodes.hasNextValue()) {
+                return null;
+            }
+            JsonNode node = nodes.nextValue();
+            if (!node.isObject()) {
+                return new ImportRow(null, null, null, "각 행은 JSON 객체여야 합니다");
+            }
+            return new ImportRow(
+                    node.path("treeId").asText(null),
+                    node.path("content").asText(null),
+                    node.path("writtenDate").asText(null),
+                    null);
+        };
+    }
+
+    private RowSource csvRows(InputStream in) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+
+        int treeIdColumn = columnIndex(header, "treeid", "tree_id");
+        int contentColumn = columnIndex(header, "content");
+        int writtenDateColumn = columnIndex(header, "writtendate", "written_date");
+        if (treeIdColumn < 0 || contentColumn < 0) {
+            throw new IllegalArgumentException("CSV 헤더에 treeId, content 열이 필요합니다");
+        }
+
+        return () -> {
+            List<String> record = csv.readRecord();
+            while (record != null && record.size() == 1 && record.get(0).isBlank()) {
+                record = csv.readRecord();
+            }
+            if (record == null) {
+                return null;
+            }
+            return new ImportRow(
+                    column(record, treeIdColumn),
+                    column(record, contentColumn),
+                    column(record, writtenDateColumn),
+                    null);
+        };
+    }
+
+    private int columnIndex(List<String> header, String... names) {
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).strip().replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+            for (String name : names) {
+                if (column.equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String column(List<String> record, int index) {
+        return index >= 0 && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * 업로드에서 읽은 한 행. error가 있으면 저장하지 않고 실패로 기록한다.
+     */
+    private record ImportRow(String treeId, String content, String writtenDate, String error) {}
+
+    @FunctionalInterface
+    private interface RowSource {
+        /** 다음 행, 끝이면 null */
+        ImportRow next() throws IOException;
+    }
+}
@@ -0,0 +1,142 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 다이어리 미리보기 채우기 서비스
+ *
+ * <p>preview 필드가 생기기 전에 저장된 다이어리는 요약 조회 때마다 본문을 한 번 더 읽어야 하므로,
+ * 본문으로 preview를 채운다. 최상위 컬렉션과 users/{uid}/diaries 하위 컬렉션을 컬렉션 그룹으로 함께 훑는다.
+ */
+@Service
+public class DiaryPreviewBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiaryPreviewBackfillService.class);
+
+    /** 한 번에 읽어 오는 문서 수 */
+    private static final int PAGE_SIZE = 300;
+
+    private static final String COLLECTION_ID = "diaries";
+
+    private final Firestore firestore;
+    private final boolean enabled;
+    private final int maxOpsPerSecond;
+
+    @Autowired
+    public DiaryPreviewBackfillService(Firestore firestore,
+                                           @Value("${diary.preview-backfill.enabled:false}") boolean enabled,
+                                           @Value("${diary.preview-backfill.max-ops-per-second:200}") int maxOpsPerSecond) {
+        this.firestore = firestore;
+        this.enabled = enabled;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                long filled = backfill();
+                logger.info("다이어리 미리보기 채우기 완료: {}건", filled);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("다이어리 미리보기 채우기가 중단되었습니다");
+            } catch (Exception e) {
+                logger.error("다이어리 미리보기 채우기 실패", e);
+            }
+        }, "diary-preview-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * preview가 없는 다이어리에 미리보기를 채운다.
+     *
+     * @return 채운 문서 수
+     */
+    public long backfill() throws ExecutionException, InterruptedException {
+        AtomicLong filled = new AtomicLong();
+        long scanned = 0;
+
+        BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        try {
+            Query page = firestore.collectionGroup(COLLECTION_ID)
+                    .orderBy(FieldPath.documentId())
+                    .select("preview", "content")
+                    .limit(PAGE_SIZE);
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                List<QueryDocumentSnapshot> snapshots =
+                        (last == null ? page : page.startAfter(last)).get().get().getDocuments();
+                if (snapshots.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<?>> updates = new ArrayList<>();
+                for (QueryDocumentSnapshot document : snapshots) {
+                    String content = document.getString("content");
+                    if (document.get("preview") != null || content == null) {
+                        continue;
+                    }
+                    String preview = Diary.toPreview(content);
+                    updates.add(toCompletableFuture(writer.update(document.getReference(), "preview", preview))
+                            .whenComplete((result, ex) -> {
+                                if (ex == null) {
+                                    filled.incrementAndGet();
+                                } else {
+                                    logger.warn("{} 미리보기 채우기 실패: {}", document.getReference().getPath(),
+                                            FirestoreFutures.unwrap(ex).getMessage());
+                                }
+                            }));
+                }
+
+                scanned += snapshots.size();
+                last = snapshots.get(snapshots.size() - 1);
+                writer.flush().get();
+                awaitAll(updates);
+                logger.info("다이어리 미리보기 채우기 진행: 확인 {}건, 채움 {}건", scanned, filled.get());
+            }
+        } finally {
+            writer.close();
+        }
+
+        return filled.get();
+    }
+
+    /**
+     * 콜백까지 모두 끝날 때까지 대기 (개별 실패는 콜백에서 이미 처리)
+     */
+    private void awaitAll(List<CompletableFuture<?>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .join();
+    }
+}
@@ -1,49 +1,174 @@
 package com.GDG.worktree.team2.gardening_diary.service;
 
+import com.GDG.worktree.team2.gardening_diary.dto.BatchGetResult;
+import com.GDG.worktree.team2.gardening_diary.dto.CursorPage;
 import com.GDG.worktree.team2.gardening_diary.dto.DiaryRequest;
+import com.GDG.worktree.team2.gardening_diary.dto.DiarySummary;
 import com.GDG.worktree.team2.gardening_diary.entity.Diary;
 import com.GDG.worktree.team2.gardening_diary.repository.DiaryRepository;
+import com.GDG.worktree.team2.gardening_diary.util.IdempotencyCache;
+import com.google.api.gax.rpc.StatusCode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.hasStatus;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.notFoundAs;
+
 /**
  * 다이어리 서비스
+ *
+ * <p>감정 분석은 다이어리를 저장한 뒤 {@link EmotionAnalysisQueue}에 넘기고 기다리지 않는다.
+ * 분석이 끝날 때까지 분석 결과의 상태는 PENDING이다.
  */
 @Service
 public class DiaryService {
+
+    /** 멱등 키 최대 길이 */
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
     
     private final DiaryRepository diaryRepository;
-    private final EmotionAnalysisService emotionAnalysisService;
+    private final EmotionAnalysisQueue emotionAnalysisQueue;
+    private final CascadeDeleteService cascadeDeleteService;
+    private final ZoneId zoneId;
+    private final IdempotencyCache<Diary> createdByKey;
 
     @Autowired
     public DiaryService(DiaryRepository diaryRepository,
-                        EmotionAnalysisService emotionAnalysisService) {
+                        EmotionAnalysisQueue emotionAnalysisQueue,
+                        CascadeDeleteService cascadeDeleteService,
+                        @Value("${spring.jackson.time-zone:Asia/Seoul}") String timeZone,
+                        @Value("${diary.idempotency.ttl-seconds:600}") long idempotencyTtlSeconds) {
         this.diaryRepository = diaryRepository;
-        this.emotionAnalysisService = emotionAnalysisService;
+        this.emotionAnalysisQueue = emotionAnalysisQueue;
+        this.cascadeDeleteService = cascadeDeleteService;
+        this.zoneId = ZoneId.of(timeZone);
+        this.createdByKey = new IdempotencyCache<>(Duration.ofSeconds(idempotencyTtlSeconds));
     }
     
     /**
      * 다이어리 생성
      */
     public Diary createDiary(String userId, DiaryRequest request) throws ExecutionException, InterruptedException {
+        Diary saved = diaryRepository.save(newDiary(userId, request));
+        emotionAnalysisQueue.enqueue(saved.getId(), saved.getUserId(), saved.getContent());
+        return saved;
+    }
+
+    /**
+     * 다이어리 생성 (멱등 키 사용)
+     *
+     * <p>다이어리 ID를 사용자 ID와 멱등 키에서 결정적으로 만들어 create()로 저장한다.
+     * 같은 키로 다시 요청하면 새로 쓰거나 감정 분석을 요청하지 않고 처음 만든 다이어리를 반환한다.
+     * 최근 키는 프로세스 내에 잠시 보관해 동시에 들어온 재시도도 한 번만 처리한다.
+     */
+    public Diary createDiary(String userId, DiaryRequest request, String idempotencyKey)
+            throws ExecutionException, InterruptedException {
+        if (idempotencyKey == null) {
+            return createDiary(userId, request);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key는 1~" + MAX_IDEMPOTENCY_KEY_LENGTH + "자여야 합니다");
+        }
+
+        String diaryId = idempotentDiaryId(userId, idempotencyKey);
+        return createdByKey.execute(diaryId, () -> {
+            Diary diary = newDiary(userId, request);
+            diary.setId(diaryId);
+            try {
+                Diary saved = diaryRepository.create(diary);
+                emotionAnalysisQueue.enqueue(saved.getId(), saved.getUserId(), saved.getContent());
+                return saved;
+            } catch (ExecutionException e) {
+                if (!hasStatus(e, StatusCode.Code.ALREADY_EXISTS)) {
+                    throw e;
+                }
+                // 이전 요청이 이미 만든 다이어리
+                Diary existing = diaryRepository.findById(diaryId, userId);
+                if (existing == null) {
+                    throw new IllegalArgumentException("이 Idempotency-Key로 만든 다이어리가 삭제되었습니다");
+                }
+                return existing;
+            }
+        });
+    }
+
+    private Diary newDiary(String userId, DiaryRequest request) {
         Diary diary = new Diary();
         diary.setUserId(userId);
         diary.setTreeId(request.getTreeId());
         diary.setContent(request.getContent());
-        
-        Diary saved = diaryRepository.save(diary);
-        emotionAnalysisService.analyzeAndSave(saved.getId(), saved.getContent());
-        return saved;
+        diary.setWrittenDate(request.getWrittenDate() != null ? request.getWrittenDate() : new Date());
+        return diary;
+    }
+
+    /**
+     * 사용자 ID와 멱등 키로 다이어리 문서 ID 생성 (SHA-256 16진수)
+     */
+    private String idempotentDiaryId(String userId, String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(userId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다", e);
+        }
     }
     
     /**
      * 다이어리 조회 (ID로)
      */
-    public Diary getDiaryById(String id) throws ExecutionException, InterruptedException {
-        return diaryRepository.findById(id);
+    public Diary getDiaryById(String id, String userId) throws ExecutionException, InterruptedException {
+        return diaryRepository.findById(id, userId);
+    }
+
+    /**
+     * 다이어리 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<Diary> getDiaryByIdAsync(String id, String userId) {
+        return diaryRepository.findByIdAsync(id, userId);
+    }
+    
+    /**
+     * 여러 다이어리 일괄 조회 (비동기)
+     *
+     * <p>요청 순서대로 결과를 반환하며, 없거나 본인 소유가 아닌 다이어리는 found=false로 표시한다.
+     */
+    public CompletableFuture<List<BatchGetResult<Diary>>> getDiariesByIdsAsync(List<String> ids, String userId) {
+        // 중복 제거, 문서 ID로 쓸 수 없는 값은 조회하지 않고 없는 것으로 처리
+        Set<String> lookup = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank() && id.indexOf('/') < 0) {
+                lookup.add(id);
+            }
+        }
+
+        return diaryRepository.findByIdsAsync(lookup, userId).thenApply(found -> {
+            List<BatchGetResult<Diary>> results = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                results.add(new BatchGetResult<>(id, id != null ? found.get(id) : null));
+            }
+            return results;
+        });
     }
     
     /**
@@ -52,6 +177,13 @@ public class DiaryService {
     public List<Diary> getUserDiaries(String userId) throws ExecutionException, InterruptedException {
         return diaryRepository.findByUserId(userId);
     }
+
+    /**
+     * 사용자의 모든 다이어리 조회 (비동기)
+     */
+    public CompletableFuture<List<Diary>> getUserDiariesAsync(String userId) {
+        return diaryRepository.findByUserIdAsync(userId);
+    }
     
     /**
      * 사용자의 다이어리 조회 (페이징)
@@ -60,15 +192,118 @@ public class DiaryService {
             throws ExecutionException, InterruptedException {
         return diaryRepository.findByUserIdWithPaging(userId, limit, lastDocId);
     }
+
+    /**
+     * 사용자의 다이어리 조회 (페이징, 비동기)
+     */
+    public CompletableFuture<List<Diary>> getUserDiariesWithPagingAsync(String userId, int limit, String lastDocId) {
+        return diaryRepository.findByUserIdWithPagingAsync(userId, limit, lastDocId);
+    }
+
+    /**
+     * 사용자의 다이어리 조회 (커서 페이징, 비동기)
+     */
+    public CompletableFuture<CursorPage<Diary>> getUserDiaryPageAsync(String userId, int limit, String cursor) {
+        return diaryRepository.findPageByUserIdAsync(userId, limit, cursor);
+    }
+
+    /**
+     * 작성 날짜 범위로 다이어리 조회 (커서 페이징, 비동기)
+     *
+     * <p>from, to는 서버 시간대 기준 날짜이며 둘 다 포함한다.
+     */
+    public CompletableFuture<CursorPage<Diary>> getDiaryPageByWrittenDateAsync(String userId, LocalDate from, LocalDate to,
+                                                                              int limit, String cursor) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("시작 날짜가 종료 날짜보다 늦습니다"));
+        }
+        return diaryRepository.findPageByWrittenDateAsync(userId, startOfDay(from), startOfNextDay(to), limit, cursor);
+    }
+
+    /**
+     * 작성 날짜 범위로 다이어리 요약 조회 (커서 페이징, 비동기)
+     */
+    public CompletableFuture<CursorPage<DiarySummary>> getDiarySummaryPageByWrittenDateAsync(String userId, LocalDate from,
+                                                                                            LocalDate to, int limit,
+                                                                                            String cursor) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("시작 날짜가 종료 날짜보다 늦습니다"));
+        }
+        return diaryRepository.findSummaryPageByWrittenDateAsync(userId, startOfDay(from), startOfNextDay(to), limit, cursor);
+    }
+
+    private Date startOfDay(LocalDate date) {
+        return date != null ? Date.from(date.atStartOfDay(zoneId).toInstant()) : null;
+    }
+
+    private Date startOfNextDay(LocalDate date) {
+        return date != null ? startOfDay(date.plusDays(1)) : null;
+    }
+
+    /**
+     * 사용자의 다이어리 요약 조회 (비동기)
+     */
+    public CompletableFuture<List<DiarySummary>> getUserDiarySummariesAsync(String userId) {
+        return diaryRepository.findSummariesByUserIdAsync(userId);
+    }
+
+    /**
+     * 사용자의 다이어리 요약 조회 (커서 페이징, 비동기)
+     */
+    public CompletableFuture<CursorPage<DiarySummary>> getUserDiarySummaryPageAsync(String userId, int limit, String cursor) {
+        return diaryRepository.findSummaryPageByUserIdAsync(userId, limit, cursor);
+    }
     
     /**
-     * 다이어리 수정
+     * 다이어리 수정 (PUT, 전체 교체)
+     *
+     * <p>요청 값으로 나무 ID, 내용, 작성일을 모두 바꾼다. 작성일을 생략하면 비우지 않고 생성 시각으로 되돌린다
+     * (날짜별 조회의 기준이므로).
      */
     public Diary updateDiary(String diaryId, String userId, DiaryRequest request) 
             throws ExecutionException, InterruptedException {
+        return applyUpdate(diaryId, userId, request, true);
+    }
+
+    /**
+     * 다이어리 부분 수정 (PATCH). 보낸 필드만 바꾸고 생략한 필드는 그대로 둔다.
+     */
+    public Diary patchDiary(String diaryId, String userId, DiaryRequest request)
+            throws ExecutionException, InterruptedException {
+        return applyUpdate(diaryId, userId, request, false);
+    }
+
+    /**
+     * 자동 저장 반영
+     *
+     * <p>{@link #patchDiary}와 같다. 자동 저장 버퍼가 모아 둔 최종 상태를 쓸 때 사용한다.
+     */
+    public Diary saveAutosave(String diaryId, String userId, DiaryRequest request)
+            throws ExecutionException, InterruptedException {
+        return applyUpdate(diaryId, userId, request, false);
+    }
+
+    private Diary applyUpdate(String diaryId, String userId, DiaryRequest request, boolean replace)
+            throws ExecutionException, InterruptedException {
+
+        // 작성일 없이 전체 교체하면 생성 시각이 필요하므로 먼저 읽는다
+        if (diaryRepository.isUserScoped() && !(replace && request.getWrittenDate() == null)) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 요청 필드만 쓰고, 다시 읽지 않고 쓴 값을 반환한다
+            // (이전 내용을 모르므로 내용을 보냈으면 감정 분석을 다시 한다)
+            Diary changes = new Diary();
+            copyFields(request, changes, replace);
+            Diary updated = await(diaryRepository.updateScopedAsync(diaryId, userId, changes));
+            if (updated != null) {
+                if (changes.getChanges().containsKey("content")) {
+                    emotionAnalysisQueue.enqueue(updated.getId(), updated.getUserId(), updated.getContent());
+                }
+                return updated;
+            }
+            // 하위 컬렉션에 없으면 fallback-read로 읽히는 최상위 컬렉션 문서일 수 있으므로 아래에서 확인한다
+        }
         
         // 다이어리 존재 및 소유권 확인
-        Diary existingDiary = diaryRepository.findById(diaryId);
+        Diary existingDiary = diaryRepository.findById(diaryId, userId);
         if (existingDiary == null) {
             throw new IllegalArgumentException("다이어리를 찾을 수 없습니다");
         }
@@ -78,37 +313,69 @@ public class DiaryService {
         }
         
         // 필드 업데이트
-        if (request.getTreeId() != null) {
-            existingDiary.setTreeId(request.getTreeId());
-        }
-        if (request.getContent() != null) {
-            existingDiary.setContent(request.getContent());
+        String previousContent = existingDiary.getContent();
+        copyFields(request, existingDiary, replace);
+        if (replace && request.getWrittenDate() == null) {
+            existingDiary.setWrittenDate(existingDiary.getCreatedAt());
         }
         
-        Diary updated = diaryRepository.save(existingDiary);
-        emotionAnalysisService.analyzeAndSave(updated.getId(), updated.getContent());
+        // 내용이 바뀐 경우에만 감정 분석을 다시 한다
+        boolean contentChanged = existingDiary.getChanges().containsKey("content")
+                && !Objects.equals(previousContent, existingDiary.getContent());
+        Diary updated = diaryRepository.update(existingDiary);
+        if (contentChanged) {
+            emotionAnalysisQueue.enqueue(updated.getId(), updated.getUserId(), updated.getContent());
+        }
         return updated;
     }
+
+    /**
+     * 요청 값을 다이어리에 반영. replace면 생략한 필드도 비운다(작성일 제외).
+     */
+    private void copyFields(DiaryRequest request, Diary diary, boolean replace) {
+        if (replace || request.getTreeId() != null) {
+            diary.setTreeId(request.getTreeId());
+        }
+        if (replace || request.getContent() != null) {
+            diary.setContent(request.getContent());
+        }
+        if (request.getWrittenDate() != null) {
+            diary.setWrittenDate(request.getWrittenDate());
+        }
+    }
     
     /**
      * 다이어리 삭제
      */
     public boolean deleteDiary(String diaryId, String userId) 
             throws ExecutionException, InterruptedException {
-        
-        // 다이어리 존재 및 소유권 확인
-        Diary diary = diaryRepository.findById(diaryId);
-        if (diary == null) {
-            throw new IllegalArgumentException("다이어리를 찾을 수 없습니다");
-        }
-        
-        if (!userId.equals(diary.getUserId())) {
-            throw new IllegalArgumentException("다이어리 삭제 권한이 없습니다");
+        return await(deleteDiaryAsync(diaryId, userId));
+    }
+
+    /**
+     * 다이어리 삭제 (비동기). 다이어리와 감정 분석을 한 번의 커밋으로 함께 지운다.
+     */
+    public CompletableFuture<Boolean> deleteDiaryAsync(String diaryId, String userId) {
+        if (diaryRepository.isUserScoped()) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 존재 조건만 걸고 삭제
+            return notFoundAs(cascadeDeleteService.deleteDiaryAsync(diaryId, userId), "다이어리를 찾을 수 없습니다")
+                    .thenApply(ignored -> true);
         }
-        
-        diaryRepository.deleteById(diaryId);
-        emotionAnalysisService.deleteByDiaryId(diaryId);
-        return true;
+
+        return diaryRepository.findByIdAsync(diaryId, userId)
+                .thenCompose(diary -> {
+                    // 다이어리 존재 및 소유권 확인
+                    if (diary == null) {
+                        throw new IllegalArgumentException("다이어리를 찾을 수 없습니다");
+                    }
+
+                    if (!userId.equals(diary.getUserId())) {
+                        throw new IllegalArgumentException("다이어리 삭제 권한이 없습니다");
+                    }
+
+                    return cascadeDeleteService.deleteDiaryAsync(diaryId, diary.getUserId());
+                })
+                .thenApply(ignored -> true);
     }
     
     /**
@@ -117,6 +384,13 @@ public class DiaryService {
     public long getDiaryCount(String userId) throws ExecutionException, InterruptedException {
         return diaryRepository.countByUserId(userId);
     }
+
+    /**
+     * 다이어리 개수 조회 (비동기)
+     */
+    public CompletableFuture<Long> getDiaryCountAsync(String userId) {
+        return diaryRepository.countByUserIdAsync(userId);
+    }
     
     /**
      * 다이어리 소유권 확인
@@ -129,9 +403,23 @@ public class DiaryService {
     /**
      * 나무별 다이어리 조회
      */
-    public java.util.List<Diary> getDiariesByTreeId(String treeId, String userId)
+    public List<Diary> getDiariesByTreeId(String treeId, String userId)
             throws ExecutionException, InterruptedException {
         return diaryRepository.findByTreeId(treeId, userId);
     }
+
+    /**
+     * 나무별 다이어리 조회 (비동기)
+     */
+    public CompletableFuture<List<Diary>> getDiariesByTreeIdAsync(String treeId, String userId) {
+        return diaryRepository.findByTreeIdAsync(treeId, userId);
+    }
+
+    /**
+     * 나무별 다이어리 요약 조회 (비동기)
+     */
+    public CompletableFuture<List<DiarySummary>> getDiarySummariesByTreeIdAsync(String treeId, String userId) {
+        return diaryRepository.findSummariesByTreeIdAsync(treeId, userId);
+    }
 }
 
@@ -0,0 +1,143 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 다이어리 작성 날짜 채우기 서비스
+ *
+ * <p>writtenDate 없이 저장된 예전 다이어리는 작성 날짜 범위 조회에 나오지 않으므로,
+ * createdAt(없으면 문서 생성 시각)으로 writtenDate를 채운다. 최상위 컬렉션과
+ * users/{uid}/diaries 하위 컬렉션을 컬렉션 그룹으로 함께 훑는다.
+ */
+@Service
+public class DiaryWrittenDateBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiaryWrittenDateBackfillService.class);
+
+    /** 한 번에 읽어 오는 문서 수 */
+    private static final int PAGE_SIZE = 300;
+
+    private static final String COLLECTION_ID = "diaries";
+
+    private final Firestore firestore;
+    private final boolean enabled;
+    private final int maxOpsPerSecond;
+
+    @Autowired
+    public DiaryWrittenDateBackfillService(Firestore firestore,
+                                           @Value("${diary.written-date-backfill.enabled:false}") boolean enabled,
+                                           @Value("${diary.written-date-backfill.max-ops-per-second:200}") int maxOpsPerSecond) {
+        this.firestore = firestore;
+        this.enabled = enabled;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                long filled = backfill();
+                logger.info("다이어리 작성 날짜 채우기 완료: {}건", filled);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("다이어리 작성 날짜 채우기가 중단되었습니다");
+            } catch (Exception e) {
+                logger.error("다이어리 작성 날짜 채우기 실패", e);
+            }
+        }, "diary-written-date-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * writtenDate가 없는 다이어리에 작성 날짜를 채운다.
+     *
+     * @return 채운 문서 수
+     */
+    public long backfill() throws ExecutionException, InterruptedException {
+        AtomicLong filled = new AtomicLong();
+        long scanned = 0;
+
+        BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        try {
+            Query page = firestore.collectionGroup(COLLECTION_ID)
+                    .orderBy(FieldPath.documentId())
+                    .select("writtenDate", "createdAt")
+                    .limit(PAGE_SIZE);
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                List<QueryDocumentSnapshot> snapshots =
+                        (last == null ? page : page.startAfter(last)).get().get().getDocuments();
+                if (snapshots.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<?>> updates = new ArrayList<>();
+                for (QueryDocumentSnapshot document : snapshots) {
+                    if (document.get("writtenDate") != null) {
+                        continue;
+                    }
+                    Timestamp createdAt = document.getTimestamp("createdAt");
+                    Timestamp writtenDate = createdAt != null ? createdAt : document.getCreateTime();
+                    updates.add(toCompletableFuture(writer.update(document.getReference(), "writtenDate", writtenDate))
+                            .whenComplete((result, ex) -> {
+                                if (ex == null) {
+                                    filled.incrementAndGet();
+                                } else {
+                                    logger.warn("{} 작성 날짜 채우기 실패: {}", document.getReference().getPath(),
+                                            FirestoreFutures.unwrap(ex).getMessage());
+                                }
+                            }));
+                }
+
+                scanned += snapshots.size();
+                last = snapshots.get(snapshots.size() - 1);
+                writer.flush().get();
+                awaitAll(updates);
+                logger.info("다이어리 작성 날짜 채우기 진행: 확인 {}건, 채움 {}건", scanned, filled.get());
+            }
+        } finally {
+            writer.close();
+        }
+
+        return filled.get();
+    }
+
+    /**
+     * 콜백까지 모두 끝날 때까지 대기 (개별 실패는 콜백에서 이미 처리)
+     */
+    private void awaitAll(List<CompletableFuture<?>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .join();
+    }
+}
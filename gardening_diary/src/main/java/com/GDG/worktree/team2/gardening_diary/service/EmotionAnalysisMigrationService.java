@@ -0,0 +1,162 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionAnalysisRepository;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 감정 분석 문서 ID 마이그레이션 서비스
+ *
+ * <p>랜덤 UUID로 저장된 emotion_analysis 문서를 다이어리 ID 문서로 옮긴다.
+ * 페이지마다 ① 새 문서 create() ② 옮겨졌거나 이미 새 문서가 있는 예전 문서 delete() 순서로 진행해,
+ * 중간에 멈춰도 데이터가 사라지지 않는다. 이미 새 문서가 있으면 그쪽이 최신이므로 덮어쓰지 않는다.
+ *
+ * <p>마이그레이션하는 동안에는 {@code emotion.analysis.legacy-lookup}을 켜 두고, 완료 후 다시 끄면(기본값)
+ * 조건 조회가 완전히 사라진다.
+ */
+@Service
+public class EmotionAnalysisMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmotionAnalysisMigrationService.class);
+
+    /** 한 번에 읽어 오는 원본 문서 수 */
+    private static final int PAGE_SIZE = 300;
+
+    private final Firestore firestore;
+    private final EmotionAnalysisRepository emotionAnalysisRepository;
+    private final boolean enabled;
+    private final int maxOpsPerSecond;
+
+    @Autowired
+    public EmotionAnalysisMigrationService(Firestore firestore,
+                                           EmotionAnalysisRepository emotionAnalysisRepository,
+                                           @Value("${emotion.analysis.migration.enabled:false}") boolean enabled,
+                                           @Value("${emotion.analysis.migration.max-ops-per-second:200}") int maxOpsPerSecond) {
+        this.firestore = firestore;
+        this.emotionAnalysisRepository = emotionAnalysisRepository;
+        this.enabled = enabled;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            return;
+        }
+        if (!emotionAnalysisRepository.isLegacyLookup()) {
+            logger.warn("emotion.analysis.legacy-lookup이 꺼져 있어 마이그레이션 중 예전 문서가 조회되지 않습니다.");
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                long migrated = migrate();
+                logger.info("감정 분석 문서 ID 마이그레이션 완료: {}건", migrated);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("감정 분석 문서 ID 마이그레이션이 중단되었습니다");
+            } catch (Exception e) {
+                logger.error("감정 분석 문서 ID 마이그레이션 실패", e);
+            }
+        }, "emotion-analysis-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 예전 UUID 문서를 다이어리 ID 문서로 옮긴다.
+     *
+     * @return 옮긴(또는 정리한) 예전 문서 수
+     */
+    public long migrate() throws ExecutionException, InterruptedException {
+        AtomicLong migrated = new AtomicLong();
+        long scanned = 0;
+
+        BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        try {
+            Query page = firestore.collection(EmotionAnalysisRepository.COLLECTION_NAME)
+                    .orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                QuerySnapshot documents = (last == null ? page : page.startAfter(last)).get().get();
+                List<QueryDocumentSnapshot> snapshots = documents.getDocuments();
+                if (snapshots.isEmpty()) {
+                    break;
+                }
+
+                // ① 새 문서 생성
+                ConcurrentLinkedQueue<DocumentReference> movable = new ConcurrentLinkedQueue<>();
+                List<CompletableFuture<?>> creates = new ArrayList<>();
+                for (QueryDocumentSnapshot document : snapshots) {
+                    String diaryId = document.getString("diaryId");
+                    if (diaryId == null || diaryId.isEmpty() || diaryId.equals(document.getId())) {
+                        continue;
+                    }
+                    creates.add(toCompletableFuture(
+                            writer.create(emotionAnalysisRepository.documentOf(diaryId), document.getData()))
+                            .whenComplete((result, ex) -> {
+                                if (ex == null || FirestoreFutures.hasStatus(ex, StatusCode.Code.ALREADY_EXISTS)) {
+                                    movable.add(document.getReference());
+                                } else {
+                                    logger.warn("emotion_analysis/{} 이동 실패: {}", document.getId(),
+                                            FirestoreFutures.unwrap(ex).getMessage());
+                                }
+                            }));
+                }
+                writer.flush().get();
+                awaitAll(creates);
+
+                // ② 옮겨진 예전 문서 삭제
+                for (DocumentReference legacy : movable) {
+                    writer.delete(legacy);
+                }
+                writer.flush().get();
+                migrated.addAndGet(movable.size());
+
+                scanned += snapshots.size();
+                last = snapshots.get(snapshots.size() - 1);
+                logger.info("감정 분석 마이그레이션 진행: 확인 {}건, 이동 {}건", scanned, migrated.get());
+            }
+        } finally {
+            writer.close();
+        }
+
+        return migrated.get();
+    }
+
+    /**
+     * 콜백까지 모두 끝날 때까지 대기 (개별 실패는 콜백에서 이미 처리)
+     */
+    private void awaitAll(List<CompletableFuture<?>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .join();
+    }
+}
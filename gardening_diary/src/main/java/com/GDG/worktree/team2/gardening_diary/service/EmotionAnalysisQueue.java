@@ -0,0 +1,458 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.entity.EmotionAnalysis;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 감정 분석 작업 큐
+ *
+ * <p>요청 스레드에서 감정 분석 API를 기다리지 않도록, 분석 작업을 크기가 제한된 큐에 넣고
+ * 별도 워커 스레드에서 처리한다. 등록할 때 분석 상태를 PENDING으로 기록하고, 워커가 끝내면
+ * COMPLETED(실패하면 FAILED)로 바뀐다. 큐가 가득 차면 작업을 버리고 FAILED로 기록하며, 종료할 때 시작하지 못한 작업도
+ * FAILED로 기록한다.
+ * FAILED로 기록한 분석은 재시도 outbox에도 남겨 {@link EmotionOutboxDrainer}가 나중에 다시 분석한다.
+ *
+ * <p>한 다이어리의 작업은 한 번에 하나만 실행한다. 아직 시작하지 않은 작업이 있으면 분석할 내용만 바꾸고,
+ * 작업이 실행 중이면 최신 내용을 기억해 두었다가 그 작업이 끝난 뒤 한 번 더 분석한다. 그래서 옛 내용의 분석 결과가
+ * 나중에 끝나 새 내용의 결과를 덮어쓰는 일이 없다.
+ *
+ * <p>분석 문서는 등록할 때의 PENDING 기록으로만 만든다. 이어서 하는 PENDING 기록, 결과, 실패 상태는 문서가 있을 때만
+ * 쓰므로, 작업이 대기하거나 실행되는 사이 다이어리가 삭제되면(분석 문서도 함께 삭제) 문서를 되살리지 않고 작업을 버린다.
+ *
+ * <p>워커는 분석 결과를 기다리지 않는다. 배치를 쓰면 워커는 요청을 배처에 넘기고 바로 다음 작업을 가져가므로 워커 2개로도
+ * 배치가 채워진다. 결과를 기다리는 분석은 max-in-flight개까지이며, 다 차면 워커가 자리가 날 때까지 기다린다.
+ * 배치를 쓰지 않으면 워커 스레드에서 API를 호출하므로 동시 호출 수는 워커 수를 넘지 않는다.
+ * 큐 길이와 워커 사용률은 {@code emotion.queue.*} 메트릭으로 노출한다.
+ *
+ * <p>재시도 outbox의 재분석도 {@link #enqueueRetry}로 이 큐를 거치므로, 같은 다이어리를 저장 직후의 분석과 동시에
+ * 분석하지 않는다.
+ */
+@Component
+public class EmotionAnalysisQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmotionAnalysisQueue.class);
+
+    private final EmotionAnalysisService emotionAnalysisService;
+    private final ThreadPoolExecutor executor;
+
+    /** 결과를 기다리는 분석 수 제한 */
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    /** 등록되었거나 실행 중인 다이어리 ID → 작업 상태. 상태는 jobs.compute 안에서만 바꾼다. */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Timer waitTimer;
+    private final Timer runTimer;
+
+    /**
+     * 다이어리별 작업 상태
+     */
+    private static final class Job {
+        String userId;
+        String content;
+        /** 아직 분석하지 않은 내용이 있음 (시작 전이거나, 실행 중에 내용이 바뀜) */
+        boolean dirty;
+        /** 실행 중인 분석이 끝나기를 기다리는 재시도 */
+        List<CompletableFuture<EmotionAnalysis>> running = new ArrayList<>();
+        /** 다음 분석이 끝나기를 기다리는 재시도 */
+        List<CompletableFuture<EmotionAnalysis>> waiting = new ArrayList<>();
+    }
+
+    /**
+     * 워커가 가져간 분석 대상
+     */
+    private record Work(String userId, String content) {}
+
+    /**
+     * 큐에 넣는 작업. 종료할 때 처리하지 못한 작업의 다이어리를 알 수 있도록 ID를 들고 있다.
+     */
+    private final class AnalysisTask implements Runnable {
+        final String diaryId;
+        final CompletableFuture<Void> pendingMark;
+        final long enqueuedAt;
+
+        AnalysisTask(String diaryId, CompletableFuture<Void> pendingMark, long enqueuedAt) {
+            this.diaryId = diaryId;
+            this.pendingMark = pendingMark;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            analyze(diaryId, pendingMark, enqueuedAt);
+        }
+    }
+
+    /**
+     * PENDING 기록 결과. GONE이면 분석 문서가 없다(다이어리 삭제).
+     */
+    private enum PendingMark { WRITTEN, FAILED, GONE }
+
+    @Autowired
+    public EmotionAnalysisQueue(EmotionAnalysisService emotionAnalysisService,
+                                @Value("${emotion.queue.workers:2}") int workers,
+                                @Value("${emotion.queue.capacity:1000}") int capacity,
+                                @Value("${emotion.queue.max-in-flight:64}") int maxInFlight,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.emotionAnalysisService = emotionAnalysisService;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "emotion-analysis-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("emotion.queue.depth", executor, pool -> pool.getQueue().size())
+                    .description("대기 중인 감정 분석 작업 수")
+                    .register(registry);
+            Gauge.builder("emotion.queue.utilization", executor,
+                            pool -> (double) pool.getActiveCount() / pool.getMaximumPoolSize())
+                    .description("작업 중인 워커 비율 (0~1)")
+                    .register(registry);
+            Gauge.builder("emotion.queue.in-flight", inFlight,
+                            permits -> this.maxInFlight - permits.availablePermits())
+                    .description("결과를 기다리는 감정 분석 수")
+                    .register(registry);
+            this.completed = Counter.builder("emotion.queue.jobs").tag("result", "completed").register(registry);
+            this.failed = Counter.builder("emotion.queue.jobs").tag("result", "failed").register(registry);
+            this.rejected = Counter.builder("emotion.queue.jobs").tag("result", "rejected").register(registry);
+            this.coalesced = Counter.builder("emotion.queue.jobs").tag("result", "coalesced").register(registry);
+            this.dropped = Counter.builder("emotion.queue.jobs").tag("result", "dropped").register(registry);
+            this.waitTimer = Timer.builder("emotion.queue.wait")
+                    .description("등록부터 워커가 시작하기까지 걸린 시간")
+                    .register(registry);
+            this.runTimer = Timer.builder("emotion.queue.run")
+                    .description("감정 분석 작업 처리 시간")
+                    .register(registry);
+        } else {
+            this.completed = null;
+            this.failed = null;
+            this.rejected = null;
+            this.coalesced = null;
+            this.dropped = null;
+            this.waitTimer = null;
+            this.runTimer = null;
+        }
+    }
+
+    /**
+     * 감정 분석 작업 등록
+     *
+     * @return 큐에 들어갔으면 true, 큐가 가득 차서 버려졌으면 false
+     */
+    public boolean enqueue(String diaryId, String userId, String content) {
+        boolean[] created = {false};
+        jobs.compute(diaryId, (id, job) -> {
+            if (job == null) {
+                job = new Job();
+                created[0] = true;
+            }
+            job.userId = userId;
+            job.content = content;
+            job.dirty = true;
+            return job;
+        });
+        if (!created[0]) {
+            // 시작 전인 작업은 바뀐 내용으로 분석하고, 실행 중인 작업이 끝나면 바뀐 내용으로 한 번 더 분석한다
+            count(coalesced);
+            return true;
+        }
+        return submit(diaryId, userId, true);
+    }
+
+    /**
+     * 재시도 outbox의 재분석 등록. 같은 다이어리의 작업이 있으면 새로 만들지 않고 그 작업에 합류한다.
+     *
+     * <p>시작 전이거나 실행 중에 내용이 바뀐 작업에는 다음 분석에, 실행 중인 작업에는 지금 분석에 합류한다.
+     * 작업에 있는 내용은 다이어리를 저장할 때 넣은 것이라 outbox가 읽은 내용보다 오래되지 않았으므로 바꾸지 않는다.
+     * 분석 문서가 없으면(다이어리 삭제) 새로 만들지 않는다.
+     *
+     * @return 합류한 분석이 끝나면 저장된 분석으로 완료되는 future. 다이어리가 삭제되어 작업을 버렸으면 null로 완료되고,
+     *         분석이 실패하거나 큐가 가득 찼으면 예외로 완료된다.
+     */
+    public CompletableFuture<EmotionAnalysis> enqueueRetry(String diaryId, String userId, String content) {
+        CompletableFuture<EmotionAnalysis> result = new CompletableFuture<>();
+        boolean[] created = {false};
+        jobs.compute(diaryId, (id, job) -> {
+            if (job == null) {
+                job = new Job();
+                job.userId = userId;
+                job.content = content;
+                job.dirty = true;
+                created[0] = true;
+            }
+            (job.dirty ? job.waiting : job.running).add(result);
+            return job;
+        });
+        if (!created[0]) {
+            count(coalesced);
+        } else if (!submit(diaryId, userId, false)) {
+            result.completeExceptionally(new RejectedExecutionException("감정 분석 큐가 가득 찼습니다"));
+        }
+        return result;
+    }
+
+    /**
+     * 대기 중인 작업 수
+     */
+    public int size() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @param first 등록 직후의 첫 실행이면 true (분석 문서가 없으면 만든다)
+     */
+    private boolean submit(String diaryId, String userId, boolean first) {
+        CompletableFuture<Void> pendingMark = first
+                ? emotionAnalysisService.markPendingAsync(diaryId)
+                : emotionAnalysisService.markPendingAgainAsync(diaryId);
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(new AnalysisTask(diaryId, pendingMark, enqueuedAt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            Job job = jobs.remove(diaryId);
+            if (job != null) {
+                completeAll(job.running, null, e);
+                completeAll(job.waiting, null, e);
+            }
+            count(rejected);
+            logger.warn("감정 분석 큐가 가득 차 작업을 건너뜁니다. diaryId={}", diaryId);
+            pendingMark.handle((ignored, ex) -> null)
+                    .thenCompose(ignored -> emotionAnalysisService.markFailedAsync(diaryId, userId, "감정 분석 큐가 가득 찼습니다"))
+                    .exceptionally(ex -> {
+                        logger.warn("감정 분석 실패 상태를 기록하지 못했습니다. diaryId={}: {}", diaryId, ex.getMessage());
+                        return null;
+                    });
+            return false;
+        }
+    }
+
+    private void analyze(String diaryId, CompletableFuture<Void> pendingMark, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        record(waitTimer, startedAt - enqueuedAt);
+        Work work = take(diaryId);
+        String userId = work.userId();
+        PendingMark mark;
+        try {
+            // PENDING 기록이 분석 결과를 덮어쓰지 않도록 먼저 끝낸다
+            mark = awaitPendingMark(diaryId, pendingMark);
+            if (mark == PendingMark.GONE) {
+                drop(diaryId, startedAt);
+                return;
+            }
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done(diaryId, startedAt, null, e);
+            return;
+        }
+
+        CompletableFuture<EmotionAnalysis> analysis;
+        try {
+            // PENDING 기록에 실패했으면 분석 문서가 아직 없을 수 있으므로 결과를 쓸 때 만든다
+            analysis = emotionAnalysisService.analyzeAndSaveAsync(diaryId, userId, work.content(),
+                    mark == PendingMark.FAILED);
+        } catch (RuntimeException e) {
+            analysis = CompletableFuture.failedFuture(e);
+        }
+        analysis.whenComplete((saved, ex) -> {
+            inFlight.release();
+            Throwable failure = null;
+            if (ex == null) {
+                count(completed);
+            } else if (FirestoreFutures.isNotFound(ex)) {
+                drop(diaryId, startedAt);
+                return;
+            } else {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                failure = cause;
+                count(failed);
+                logger.error("감정 분석 작업 실패. diaryId={}", diaryId, cause);
+                emotionAnalysisService.markFailedAsync(diaryId, userId, "감정 분석 작업 실패: " + cause.getMessage())
+                        .exceptionally(markFailure -> {
+                            logger.warn("감정 분석 실패 상태를 기록하지 못했습니다. diaryId={}: {}",
+                                    diaryId, markFailure.getMessage());
+                            return null;
+                        });
+            }
+            done(diaryId, startedAt, saved, failure);
+        });
+    }
+
+    /**
+     * 분석이 끝난 뒤 처리. 이 분석을 기다리던 재시도에 결과를 알리고, 실행 중에 내용이 바뀌었으면
+     * 이 작업의 결과가 저장된 뒤 새 내용으로 다시 분석한다.
+     */
+    private void done(String diaryId, long startedAt, EmotionAnalysis saved, Throwable failure) {
+        record(runTimer, System.nanoTime() - startedAt);
+        Finished finished = finish(diaryId);
+        completeAll(finished.waiters(), saved, failure);
+        if (finished.followUpUserId() != null) {
+            submit(diaryId, finished.followUpUserId(), false);
+        }
+    }
+
+    /**
+     * 분석 문서가 없어(다이어리 삭제) 작업을 버린다. 실행 중에 들어온 내용도 함께 버린다.
+     */
+    private void drop(String diaryId, long startedAt) {
+        record(runTimer, System.nanoTime() - startedAt);
+        Job job = jobs.remove(diaryId);
+        if (job != null) {
+            completeAll(job.running, null, null);
+            completeAll(job.waiting, null, null);
+        }
+        count(dropped);
+        logger.debug("다이어리가 삭제되어 감정 분석 작업을 버립니다. diaryId={}", diaryId);
+    }
+
+    /**
+     * 분석할 내용을 가져가고 실행 중으로 표시
+     */
+    private Work take(String diaryId) {
+        Work[] work = new Work[1];
+        jobs.compute(diaryId, (id, job) -> {
+            job.dirty = false;
+            job.running = job.waiting;
+            job.waiting = new ArrayList<>();
+            work[0] = new Work(job.userId, job.content);
+            return job;
+        });
+        return work[0];
+    }
+
+    /**
+     * 작업 종료 처리. 끝난 분석을 기다리던 재시도와, 실행 중에 바뀐 내용이 있으면 이어서 분석할 사용자 ID를 반환한다.
+     */
+    private Finished finish(String diaryId) {
+        Finished[] finished = {new Finished(null, List.of())};
+        jobs.compute(diaryId, (id, job) -> {
+            if (job == null) {
+                return null;
+            }
+            finished[0] = new Finished(job.dirty ? job.userId : null, job.running);
+            job.running = new ArrayList<>();
+            return job.dirty ? job : null;
+        });
+        return finished[0];
+    }
+
+    /**
+     * 끝난 분석의 후속 처리 대상. followUpUserId가 null이면 이어서 분석하지 않는다.
+     */
+    private record Finished(String followUpUserId, List<CompletableFuture<EmotionAnalysis>> waiters) {}
+
+    private static void completeAll(List<CompletableFuture<EmotionAnalysis>> waiters,
+                                    EmotionAnalysis saved, Throwable failure) {
+        for (CompletableFuture<EmotionAnalysis> waiter : waiters) {
+            if (failure != null) {
+                waiter.completeExceptionally(failure);
+            } else {
+                waiter.complete(saved);
+            }
+        }
+    }
+
+    private PendingMark awaitPendingMark(String diaryId, CompletableFuture<Void> pendingMark)
+            throws InterruptedException {
+        try {
+            pendingMark.get();
+            return PendingMark.WRITTEN;
+        } catch (ExecutionException e) {
+            if (FirestoreFutures.isNotFound(e)) {
+                return PendingMark.GONE;
+            }
+            logger.warn("감정 분석 대기 상태를 기록하지 못했습니다. diaryId={}: {}", diaryId, e.getCause().getMessage());
+            return PendingMark.FAILED;
+        }
+    }
+
+    private void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            return;
+        }
+        List<Runnable> unstarted = executor.shutdownNow();
+        logger.warn("종료 시점에 처리하지 못한 감정 분석 작업 {}건을 재시도 outbox로 넘깁니다", unstarted.size());
+
+        // PENDING으로 남지 않도록 FAILED로 기록하고 outbox에 남겨 다음에 뜬 인스턴스가 다시 분석하게 한다
+        List<CompletableFuture<Void>> marks = new ArrayList<>();
+        for (Runnable runnable : unstarted) {
+            if (!(runnable instanceof AnalysisTask task)) {
+                continue;
+            }
+            Job job = jobs.remove(task.diaryId);
+            if (job == null) {
+                continue;
+            }
+            RejectedExecutionException stopped = new RejectedExecutionException("종료로 처리하지 못한 감정 분석 작업");
+            completeAll(job.running, null, stopped);
+            completeAll(job.waiting, null, stopped);
+            marks.add(task.pendingMark.handle((ignored, ex) -> null)
+                    .thenCompose(ignored -> emotionAnalysisService.markFailedAsync(
+                            task.diaryId, job.userId, "종료로 처리하지 못한 감정 분석 작업"))
+                    .exceptionally(ex -> {
+                        logger.warn("감정 분석 실패 상태를 기록하지 못했습니다. diaryId={}: {}", task.diaryId, ex.getMessage());
+                        return null;
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(marks.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("종료 시점에 감정 분석 실패 상태를 모두 기록하지 못했습니다: {}", e.getMessage());
+        }
+    }
+}
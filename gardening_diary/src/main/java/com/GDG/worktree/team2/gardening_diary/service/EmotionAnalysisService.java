@@ -2,11 +2,17 @@ package com.GDG.worktree.team2.gardening_diary.service;
 
 import com.GDG.worktree.team2.gardening_diary.entity.EmotionAnalysis;
 import com.GDG.worktree.team2.gardening_diary.repository.EmotionAnalysisRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionOutboxRepository;
+import com.GDG.worktree.team2.gardening_diary.util.CircuitBreaker;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.GDG.worktree.team2.gardening_diary.util.MicroBatcher;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -16,11 +22,25 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+
 /**
  * 감정 분석 AI API 연동을 담당하는 서비스.
+ *
+ * <p>emotion.api.batch-url이 설정되어 있으면 여러 다이어리의 분석 요청을 잠시 모아 배치 API로 한 번에 보낸다.
+ * 배치 API는 {@code {"items": [요청, ...]}}를 받아 같은 순서의 {@code {"results": [응답, ...]}}를 돌려준다.
+ * 이때 {@link #analyzeAndSaveAsync}는 요청을 배처에 넘기기만 하고 호출 스레드를 붙잡지 않으므로, 워커 수와 관계없이
+ * 동시에 들어온 분석이 한 배치로 모인다. 벌크헤드와 서킷은 다이어리마다가 아니라 배치 호출마다 적용한다.
+ *
+ * <p>API 호출은 {@link EmotionApiGuard}를 거친다. 서킷이 열려 있거나 동시 호출 자리가 없으면 기다리지 않고
+ * 기본 감정으로 저장하며, 호출이 실패한 경우와 함께 상태를 DEFERRED로 남긴다. DEFERRED/FAILED 분석은
+ * emotion_outbox에도 기록되어 {@link EmotionOutboxDrainer}가 나중에 다시 분석한다.
  */
 @Service
 public class EmotionAnalysisService {
@@ -28,43 +48,142 @@ public class EmotionAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(EmotionAnalysisService.class);
 
     private final EmotionAnalysisRepository emotionAnalysisRepository;
+    private final EmotionOutboxRepository emotionOutboxRepository;
+    private final EmotionApiGuard emotionApiGuard;
     private final RestTemplate restTemplate;
     private final String emotionApiUrl;
     private final String emotionApiKey;
     private final String emotionApiHealthUrl;
+    private final String emotionApiBatchUrl;
+    private final MicroBatcher<InferenceRequest, InferenceResponse> batcher;
+    private final long outboxDelayMillis;
 
     @Autowired
     public EmotionAnalysisService(EmotionAnalysisRepository emotionAnalysisRepository,
-                                  RestTemplateBuilder restTemplateBuilder,
+                                  EmotionOutboxRepository emotionOutboxRepository,
+                                  EmotionApiGuard emotionApiGuard,
+                                  @Qualifier("outboundRestTemplate") RestTemplate outboundRestTemplate,
+                                  @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
                                   @Value("${emotion.api.url:}") String emotionApiUrl,
                                   @Value("${emotion.api.key:}") String emotionApiKey,
-                                  @Value("${emotion.api.health-url:}") String emotionApiHealthUrl) {
+                                  @Value("${emotion.api.health-url:}") String emotionApiHealthUrl,
+                                  @Value("${emotion.api.batch-url:}") String emotionApiBatchUrl,
+                                  @Value("${emotion.batch.max-size:16}") int batchMaxSize,
+                                  @Value("${emotion.batch.max-wait-ms:20}") long batchMaxWaitMillis,
+                                  @Value("${emotion.batch.concurrency:2}") int batchConcurrency,
+                                  @Value("${emotion.outbox.base-backoff-seconds:30}") long outboxDelaySeconds) {
         this.emotionAnalysisRepository = emotionAnalysisRepository;
-        this.restTemplate = restTemplateBuilder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
-                .build();
+        this.emotionOutboxRepository = emotionOutboxRepository;
+        this.emotionApiGuard = emotionApiGuard;
+        // 연결 풀과 타임아웃은 HttpClientConfig에서 설정 (http.client.*)
+        this.restTemplate = outboundRestTemplate;
         this.emotionApiUrl = emotionApiUrl;
         this.emotionApiKey = emotionApiKey;
         this.emotionApiHealthUrl = emotionApiHealthUrl;
+        this.emotionApiBatchUrl = emotionApiBatchUrl;
+        this.batcher = emotionApiBatchUrl == null || emotionApiBatchUrl.isBlank()
+                ? null
+                : new MicroBatcher<>("emotion-batch", batchMaxSize, Duration.ofMillis(batchMaxWaitMillis),
+                        batchConcurrency, this::requestBatch);
+        this.outboxDelayMillis = Duration.ofSeconds(outboxDelaySeconds).toMillis();
+        // 헬스 체크는 서킷이 열릴 때 한 번만, 분석 스레드를 붙잡지 않도록 따로 실행한다
+        emotionApiGuard.addOpenListener(() -> CompletableFuture.runAsync(this::logHealthStatus, taskExecutor));
     }
 
     /**
      * 다이어리 내용을 분석하고 결과를 저장 또는 갱신한다.
+     *
+     * <p>API를 호출하지 못해 DEFERRED로 저장했으면 재시도 outbox에도 기록한다.
      */
-    public EmotionAnalysis analyzeAndSave(String diaryId, String content)
+    public EmotionAnalysis analyzeAndSave(String diaryId, String userId, String content)
             throws ExecutionException, InterruptedException {
-        EmotionResult emotionResult = requestEmotionAnalysis(diaryId, content);
+        return await(analyzeAndSaveAsync(diaryId, userId, content));
+    }
+
+    /**
+     * 다이어리 내용을 분석하고 결과를 갱신한다 (비동기).
+     *
+     * <p>배치를 쓰면 배치 결과가 오는 대로 저장을 이어서 진행한다. 배치를 쓰지 않으면 호출 스레드에서 API를 호출한다.
+     * 분석 문서가 없으면(분석하는 사이 다이어리가 삭제됨) 문서를 다시 만들지 않고 NOT_FOUND로 실패한다
+     * ({@link FirestoreFutures#isNotFound}).
+     */
+    public CompletableFuture<EmotionAnalysis> analyzeAndSaveAsync(String diaryId, String userId, String content) {
+        return analyzeAndSaveAsync(diaryId, userId, content, false);
+    }
 
-        EmotionAnalysis analysis = emotionAnalysisRepository.findByDiaryId(diaryId);
-        if (analysis == null) {
-            analysis = new EmotionAnalysis();
-            analysis.setDiaryId(diaryId);
+    /**
+     * 다이어리 내용을 분석하고 결과를 저장 또는 갱신한다 (비동기).
+     *
+     * @param create 분석 문서가 없으면 만든다 (PENDING 기록에 실패해 문서가 아직 없을 수 있을 때)
+     */
+    public CompletableFuture<EmotionAnalysis> analyzeAndSaveAsync(String diaryId, String userId, String content,
+                                                                  boolean create) {
+        CompletableFuture<EmotionResult> emotionResult;
+        try {
+            emotionResult = requestEmotionAnalysis(diaryId, content);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
         }
-        analysis.setResult(emotionResult.scores());
+        return emotionResult.thenCompose(result -> save(diaryId, userId, result, create));
+    }
+
+    private CompletableFuture<EmotionAnalysis> save(String diaryId, String userId, EmotionResult emotionResult,
+                                                    boolean create) {
+        // 문서 ID가 다이어리 ID이므로 기존 분석을 조회하지 않고 바로 저장한다
+        EmotionAnalysis analysis = new EmotionAnalysis(diaryId, emotionResult.scores());
         analysis.setComment(emotionResult.comment());
         analysis.setDominantEmotion(emotionResult.dominantEmotion());
-        return emotionAnalysisRepository.save(analysis);
+        analysis.setStatus(emotionResult.retry()
+                ? EmotionAnalysis.STATUS_DEFERRED
+                : EmotionAnalysis.STATUS_COMPLETED);
+        CompletableFuture<EmotionAnalysis> saved = create
+                ? emotionAnalysisRepository.upsertByDiaryIdAsync(analysis)
+                : emotionAnalysisRepository.updateByDiaryIdAsync(analysis);
+        if (!emotionResult.retry()) {
+            return saved;
+        }
+        return saved.thenCompose(result -> emotionOutboxRepository.addAsync(diaryId, userId,
+                        "감정 분석 API를 호출하지 못했습니다", new Date(System.currentTimeMillis() + outboxDelayMillis))
+                .handle((ignored, ex) -> {
+                    if (ex != null) {
+                        // 분석 결과는 DEFERRED로 남아 있으므로 다음 수정이나 재분석 요청 때 다시 시도된다
+                        logger.warn("감정 분석 재시도 항목을 기록하지 못했습니다. diaryId={}: {}", diaryId, ex.getMessage());
+                    }
+                    return result;
+                }));
+    }
+
+    /**
+     * 분석 대기 상태 기록 (비동기). 이전 분석 결과는 남겨 둔다.
+     * 다이어리를 저장한 직후 호출하며, 분석 문서가 없으면 만든다.
+     */
+    public CompletableFuture<Void> markPendingAsync(String diaryId) {
+        return emotionAnalysisRepository.upsertStatusAsync(diaryId, EmotionAnalysis.STATUS_PENDING);
+    }
+
+    /**
+     * 이어서 다시 분석할 때 대기 상태 기록 (비동기). 분석 문서가 없으면(다이어리 삭제) NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> markPendingAgainAsync(String diaryId) {
+        return emotionAnalysisRepository.updateStatusAsync(diaryId, EmotionAnalysis.STATUS_PENDING);
+    }
+
+    /**
+     * 분석 실패 상태 기록 후 재시도 outbox에 추가 (비동기).
+     * 분석 문서가 없으면(다이어리 삭제) 둘 다 쓰지 않고 NOT_FOUND로 실패한다.
+     */
+    public CompletableFuture<Void> markFailedAsync(String diaryId, String userId, String reason) {
+        return emotionAnalysisRepository.updateStatusAsync(diaryId, EmotionAnalysis.STATUS_FAILED)
+                .thenCompose(ignored -> emotionOutboxRepository.addAsync(diaryId, userId, reason,
+                        new Date(System.currentTimeMillis() + outboxDelayMillis)));
+    }
+
+    /**
+     * 재시도를 포기한 분석의 실패 상태 기록 (비동기). outbox에는 추가하지 않는다.
+     */
+    public CompletableFuture<Void> markAbandonedAsync(String diaryId) {
+        return emotionAnalysisRepository.updateStatusAsync(diaryId, EmotionAnalysis.STATUS_FAILED);
     }
 
     /**
@@ -75,35 +194,41 @@ public class EmotionAnalysisService {
         return emotionAnalysisRepository.findByDiaryId(diaryId);
     }
 
+    /**
+     * 다이어리의 감정 분석 결과를 비동기로 조회한다.
+     */
+    public CompletableFuture<EmotionAnalysis> getByDiaryIdAsync(String diaryId) {
+        return emotionAnalysisRepository.findByDiaryIdAsync(diaryId);
+    }
+
     /**
      * 다이어리 삭제 시 분석 결과도 함께 제거한다.
      */
     public void deleteByDiaryId(String diaryId) throws ExecutionException, InterruptedException {
-        EmotionAnalysis existing = emotionAnalysisRepository.findByDiaryId(diaryId);
-        if (existing != null) {
-            emotionAnalysisRepository.deleteById(existing.getId());
-        }
+        deleteByDiaryIdAsync(diaryId).get();
+    }
+
+    /**
+     * 다이어리 삭제 시 분석 결과를 비동기로 제거한다.
+     */
+    public CompletableFuture<Void> deleteByDiaryIdAsync(String diaryId) {
+        return emotionAnalysisRepository.deleteByDiaryIdAsync(diaryId);
     }
 
     /**
      * AI 팀에서 제공할 감정 분석 API를 호출하는 스켈레톤 로직.
      * 실 서비스 연동 시 이 메서드만 수정하면 된다.
      */
-    private EmotionResult requestEmotionAnalysis(String diaryId, String content) {
+    private CompletableFuture<EmotionResult> requestEmotionAnalysis(String diaryId, String content)
+            throws InterruptedException {
         if (content == null || content.isBlank()) {
             logger.warn("다이어리 내용이 비어 있어 기본 감정으로 대체합니다.");
-            return EmotionResult.empty();
+            return CompletableFuture.completedFuture(EmotionResult.empty());
         }
 
         if (emotionApiUrl == null || emotionApiUrl.isBlank()) {
             logger.warn("emotion.api.url이 설정되지 않아 감정 분석을 건너뜁니다.");
-            return EmotionResult.empty();
-        }
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        if (emotionApiKey != null && !emotionApiKey.isBlank()) {
-            headers.set("X-API-KEY", emotionApiKey);
+            return CompletableFuture.completedFuture(EmotionResult.empty());
         }
 
         InferenceRequest payload = new InferenceRequest(
@@ -111,32 +236,106 @@ public class EmotionAnalysisService {
                 content,
                 buildMetadata(diaryId)
         );
-        HttpEntity<InferenceRequest> entity = new HttpEntity<>(payload, headers);
 
+        if (batcher != null) {
+            // 서킷과 벌크헤드는 배치 호출(requestBatch)에서 확인한다
+            return batcher.submit(payload).handle((response, ex) -> {
+                if (ex != null) {
+                    logger.warn("감정 분석 배치 API를 호출하지 못해 나중에 다시 분석합니다. diaryId={}: {}",
+                            diaryId, ex.getMessage());
+                    return EmotionResult.unavailable();
+                }
+                return toResult(response);
+            });
+        }
+
+        long permit = emotionApiGuard.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            logger.warn("감정 분석 API 서킷이 열려 있거나 호출이 몰려 나중에 다시 분석합니다. diaryId={}", diaryId);
+            return CompletableFuture.completedFuture(EmotionResult.unavailable());
+        }
+
+        boolean responded = false;
         try {
             InferenceResponse response = restTemplate.postForObject(
                     emotionApiUrl,
-                    entity,
+                    new HttpEntity<>(payload, buildHeaders()),
                     InferenceResponse.class
             );
-
-            if (response != null && response.isValid()) {
-                return new EmotionResult(
-                        response.getEmotionScores(),
-                        response.getDominantEmotion(),
-                        response.getComment()
-                );
-            }
-
-            logger.warn("감정 분석 API에서 빈 결과를 반환했습니다.");
+            responded = true;
+            return CompletableFuture.completedFuture(toResult(response));
         } catch (RestClientException ex) {
             logger.error("감정 분석 API 호출 실패", ex);
-            logHealthStatus();
+            return CompletableFuture.completedFuture(EmotionResult.unavailable());
+        } finally {
+            emotionApiGuard.release(permit, responded);
         }
+    }
 
+    private EmotionResult toResult(InferenceResponse response) {
+        if (response != null && response.isValid()) {
+            return new EmotionResult(
+                    response.getEmotionScores(),
+                    response.getDominantEmotion(),
+                    response.getComment()
+            );
+        }
+        logger.warn("감정 분석 API에서 빈 결과를 반환했습니다.");
         return EmotionResult.empty();
     }
 
+    /**
+     * 모인 요청을 배치 API로 한 번에 보낸다. 결과는 요청과 같은 순서.
+     *
+     * <p>배치 전송 스레드에서 실행되며, 배치 호출 하나가 벌크헤드 자리 하나를 쓴다. 서킷이 열려 있거나 자리가 없으면
+     * 호출하지 않고 실패하며, 배치의 모든 분석은 DEFERRED로 저장된다.
+     */
+    private List<InferenceResponse> requestBatch(List<InferenceRequest> requests) {
+        long permit;
+        try {
+            permit = emotionApiGuard.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("감정 분석 배치 호출이 중단되었습니다", e);
+        }
+        if (permit == CircuitBreaker.REJECTED) {
+            throw new IllegalStateException("감정 분석 API 서킷이 열려 있거나 호출이 몰려 있습니다");
+        }
+
+        boolean responded = false;
+        try {
+            BatchInferenceResponse response = restTemplate.postForObject(
+                    emotionApiBatchUrl,
+                    new HttpEntity<>(new BatchInferenceRequest(requests), buildHeaders()),
+                    BatchInferenceResponse.class
+            );
+            if (response == null || response.getResults() == null) {
+                throw new RestClientException("감정 분석 배치 API에서 빈 응답을 반환했습니다.");
+            }
+            responded = true;
+            logger.debug("감정 분석 배치 호출 {}건", requests.size());
+            return response.getResults();
+        } finally {
+            emotionApiGuard.release(permit, responded);
+        }
+    }
+
+    private HttpHeaders buildHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (emotionApiKey != null && !emotionApiKey.isBlank()) {
+            headers.set("X-API-KEY", emotionApiKey);
+        }
+        return headers;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
     private void logHealthStatus() {
         if (emotionApiHealthUrl == null || emotionApiHealthUrl.isBlank()) {
             return;
@@ -169,11 +368,23 @@ public class EmotionAnalysisService {
     /**
      * 외부 API 요청 페이로드 DTO.
      */
-    private record EmotionResult(Map<String, Double> scores, String dominantEmotion, String comment) {
+    private record EmotionResult(Map<String, Double> scores, String dominantEmotion, String comment,
+                                 boolean retry) {
+        private EmotionResult(Map<String, Double> scores, String dominantEmotion, String comment) {
+            this(scores, dominantEmotion, comment, false);
+        }
+
         private static EmotionResult empty() {
             return new EmotionResult(Map.of("neutral", 1.0), "neutral", "감정 분석을 수행할 수 없습니다");
         }
 
+        /**
+         * API를 호출하지 못해 대신 쓰는 기본값. 나중에 다시 분석한다.
+         */
+        private static EmotionResult unavailable() {
+            return new EmotionResult(Map.of("neutral", 1.0), "neutral", "감정 분석을 수행할 수 없습니다", true);
+        }
+
         public Map<String, Double> scores() {
             return scores != null && !scores.isEmpty()
                     ? scores
@@ -194,6 +405,26 @@ public class EmotionAnalysisService {
      */
     private record InferenceRequest(String title, String text, Map<String, Object> metadata) {}
 
+    /**
+     * 배치 API 요청 페이로드 DTO.
+     */
+    private record BatchInferenceRequest(List<InferenceRequest> items) {}
+
+    /**
+     * 배치 API 응답 DTO. results는 items와 같은 순서.
+     */
+    private static class BatchInferenceResponse {
+        private List<InferenceResponse> results;
+
+        public List<InferenceResponse> getResults() {
+            return results;
+        }
+
+        public void setResults(List<InferenceResponse> results) {
+            this.results = results;
+        }
+    }
+
     /**
      * 외부 API 응답 DTO (AI 스펙에 맞춤).
      */
@@ -0,0 +1,128 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.util.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 감정 분석 API 호출 보호 (서킷 브레이커 + 벌크헤드)
+ *
+ * <p>동시에 API를 호출하는 스레드 수를 max-concurrent로 제한하고, 실패가 잦으면 서킷을 열어 한동안 호출하지 않는다.
+ * 서킷이 열린 동안이나 자리가 나지 않으면 호출부는 API를 기다리지 않고 바로 기본값으로 대체한다.
+ * 상태는 actuator health의 emotionApi 항목으로 확인한다.
+ */
+@Component
+public class EmotionApiGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmotionApiGuard.class);
+
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final List<Runnable> openListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong rejectedByBreaker = new AtomicLong();
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+
+    @Autowired
+    public EmotionApiGuard(@Value("${emotion.breaker.window-size:20}") int windowSize,
+                           @Value("${emotion.breaker.minimum-calls:10}") int minimumCalls,
+                           @Value("${emotion.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                           @Value("${emotion.breaker.open-seconds:30}") long openSeconds,
+                           @Value("${emotion.breaker.half-open-probes:1}") int halfOpenProbes,
+                           @Value("${emotion.bulkhead.max-concurrent:8}") int maxConcurrent,
+                           @Value("${emotion.bulkhead.max-wait-ms:100}") long maxWaitMillis) {
+        this.breaker = new CircuitBreaker("emotion-api", windowSize, minimumCalls, failureRateThreshold,
+                Duration.ofSeconds(openSeconds), halfOpenProbes, this::onTransition);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.bulkhead = new Semaphore(this.maxConcurrent);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * API 호출 자리 확보. 허가 번호를 받았으면 호출이 끝난 뒤 반드시 그 번호로 {@link #release(long, boolean)}를 부른다.
+     *
+     * @return 허가 번호. 서킷이 열려 있거나 max-wait 안에 자리가 나지 않으면 {@link CircuitBreaker#REJECTED}
+     */
+    public long tryAcquire() throws InterruptedException {
+        if (!bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            rejectedByBulkhead.incrementAndGet();
+            return CircuitBreaker.REJECTED;
+        }
+        long permit = breaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            bulkhead.release();
+            rejectedByBreaker.incrementAndGet();
+        }
+        return permit;
+    }
+
+    /**
+     * 호출 결과 기록 및 자리 반환
+     *
+     * @param permit  {@link #tryAcquire()}가 돌려준 허가 번호 (서킷 상태가 그사이 바뀌었으면 결과는 기록하지 않는다)
+     * @param success API가 응답했으면 true (빈 결과 포함), 연결 실패나 타임아웃이면 false
+     */
+    public void release(long permit, boolean success) {
+        try {
+            if (success) {
+                breaker.onSuccess(permit);
+            } else {
+                breaker.onFailure(permit);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * 서킷이 열릴 때 실행할 작업 등록. 브레이커 락 안에서 실행되므로 오래 걸리는 작업은 다른 스레드로 넘긴다.
+     */
+    public void addOpenListener(Runnable listener) {
+        openListeners.add(listener);
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public double getFailureRate() {
+        return breaker.getFailureRate();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getAvailablePermits() {
+        return bulkhead.availablePermits();
+    }
+
+    public long getRejectedByBreaker() {
+        return rejectedByBreaker.get();
+    }
+
+    public long getRejectedByBulkhead() {
+        return rejectedByBulkhead.get();
+    }
+
+    private void onTransition(CircuitBreaker.State previous, CircuitBreaker.State next) {
+        if (next == CircuitBreaker.State.OPEN) {
+            logger.warn("감정 분석 API 실패가 잦아 서킷을 엽니다. {} -> {}, 실패율={}",
+                    previous, next, String.format("%.2f", breaker.getFailureRate()));
+            openListeners.forEach(Runnable::run);
+        } else {
+            logger.info("감정 분석 API 서킷 상태 변경: {} -> {}", previous, next);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.GDG.worktree.team2.gardening_diary.entity.EmotionAnalysis;
+import com.GDG.worktree.team2.gardening_diary.entity.EmotionOutboxEntry;
+import com.GDG.worktree.team2.gardening_diary.repository.DiaryRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.EmotionOutboxRepository;
+import com.GDG.worktree.team2.gardening_diary.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+
+/**
+ * 감정 분석 재시도 outbox 드레이너
+ *
+ * <p>poll-interval마다 시도할 때가 된 emotion_outbox 항목을 가져와 다이어리를 다시 분석한다. 분석이 완료되면
+ * 기본값으로 저장돼 있던 결과를 덮어쓰고 항목을 지운다. 다시 실패하면 지수 백오프에 지터를 더해 다음 시도를 미루고,
+ * max-attempts번 실패하면 FAILED로 남기고 포기한다.
+ *
+ * <p>재분석은 {@link EmotionAnalysisQueue}를 거친다. 같은 다이어리의 작업이 이미 있으면 그 작업에 합류하고,
+ * 그 분석이 COMPLETED로 끝난 뒤에만 항목을 지운다. 임대 시간 안에 끝나지 않으면 다음 시도로 미룬다.
+ *
+ * <p>한 번에 처리하는 항목 수는 API 상태에 맞춰 조절한다. 모두 성공하면 1씩 늘리고 실패가 있으면 절반으로 줄이며
+ * (AIMD), 서킷이 열려 있으면 쉬고 HALF_OPEN이면 1건만 처리한다. 장애 후 밀린 항목이 한꺼번에 몰리지 않는다.
+ */
+@Component
+public class EmotionOutboxDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmotionOutboxDrainer.class);
+
+    private final EmotionOutboxRepository emotionOutboxRepository;
+    private final EmotionAnalysisService emotionAnalysisService;
+    private final EmotionAnalysisQueue emotionAnalysisQueue;
+    private final DiaryRepository diaryRepository;
+    private final EmotionApiGuard emotionApiGuard;
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final int minBatch;
+    private final int maxBatch;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+    private final long leaseMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** 이번 주기에 처리할 항목 수 (드레인 스레드에서만 바뀐다) */
+    private final AtomicInteger batchSize;
+
+    private final Counter completed;
+    private final Counter retried;
+    private final Counter dropped;
+    private final Counter abandoned;
+
+    private enum Outcome { COMPLETED, RETRIED, DROPPED, ABANDONED }
+
+    @Autowired
+    public EmotionOutboxDrainer(EmotionOutboxRepository emotionOutboxRepository,
+                                EmotionAnalysisService emotionAnalysisService,
+                                EmotionAnalysisQueue emotionAnalysisQueue,
+                                DiaryRepository diaryRepository,
+                                EmotionApiGuard emotionApiGuard,
+                                @Value("${emotion.outbox.enabled:true}") boolean enabled,
+                                @Value("${emotion.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+                                @Value("${emotion.outbox.min-batch:1}") int minBatch,
+                                @Value("${emotion.outbox.max-batch:20}") int maxBatch,
+                                @Value("${emotion.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+                                @Value("${emotion.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                @Value("${emotion.outbox.max-attempts:12}") int maxAttempts,
+                                @Value("${emotion.outbox.lease-seconds:120}") long leaseSeconds,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.emotionOutboxRepository = emotionOutboxRepository;
+        this.emotionAnalysisService = emotionAnalysisService;
+        this.emotionAnalysisQueue = emotionAnalysisQueue;
+        this.diaryRepository = diaryRepository;
+        this.emotionApiGuard = emotionApiGuard;
+        this.enabled = enabled;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.minBatch = Math.max(1, minBatch);
+        this.maxBatch = Math.max(this.minBatch, maxBatch);
+        this.baseBackoffMillis = TimeUnit.SECONDS.toMillis(baseBackoffSeconds);
+        this.maxBackoffMillis = Math.max(baseBackoffMillis, TimeUnit.SECONDS.toMillis(maxBackoffSeconds));
+        this.maxAttempts = maxAttempts;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.batchSize = new AtomicInteger(this.minBatch);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "emotion-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("emotion.outbox.batch-size", batchSize, AtomicInteger::get)
+                    .description("주기마다 다시 분석하는 최대 항목 수 (API 상태에 따라 조절)")
+                    .register(registry);
+            this.completed = Counter.builder("emotion.outbox.drained").tag("result", "completed").register(registry);
+            this.retried = Counter.builder("emotion.outbox.drained").tag("result", "retried").register(registry);
+            this.dropped = Counter.builder("emotion.outbox.drained").tag("result", "dropped").register(registry);
+            this.abandoned = Counter.builder("emotion.outbox.drained").tag("result", "abandoned").register(registry);
+        } else {
+            this.completed = null;
+            this.retried = null;
+            this.dropped = null;
+            this.abandoned = null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::drainSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("감정 분석 재시도 항목을 처리하지 못했습니다: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 한 주기 처리
+     */
+    void drain() throws ExecutionException, InterruptedException {
+        CircuitBreaker.State state = emotionApiGuard.getState();
+        if (state == CircuitBreaker.State.OPEN) {
+            // API가 회복될 때까지 쉰다
+            return;
+        }
+        int limit = state == CircuitBreaker.State.HALF_OPEN ? 1 : batchSize.get();
+
+        long now = System.currentTimeMillis();
+        List<EmotionOutboxEntry> entries = await(emotionOutboxRepository.claimDueAsync(
+                new Date(now), limit, new Date(now + leaseMillis)));
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        boolean anyRetried = false;
+        for (EmotionOutboxEntry entry : entries) {
+            Outcome outcome = process(entry);
+            count(outcome);
+            anyRetried |= outcome == Outcome.RETRIED || outcome == Outcome.ABANDONED;
+        }
+
+        if (anyRetried) {
+            batchSize.set(Math.max(minBatch, batchSize.get() / 2));
+        } else if (entries.size() >= limit && state == CircuitBreaker.State.CLOSED) {
+            // 처리할 항목이 더 남아 있을 수 있으므로 조금씩 늘린다
+            batchSize.set(Math.min(maxBatch, batchSize.get() + 1));
+        }
+    }
+
+    private Outcome process(EmotionOutboxEntry entry) throws InterruptedException {
+        String diaryId = entry.getDiaryId();
+        try {
+            EmotionAnalysis current = emotionAnalysisService.getByDiaryId(diaryId);
+            if (current != null && EmotionAnalysis.STATUS_COMPLETED.equals(current.getStatus())) {
+                // 그 사이 다이어리 수정이나 재분석 요청으로 이미 분석됨
+                await(emotionOutboxRepository.deleteAsync(diaryId));
+                return Outcome.COMPLETED;
+            }
+
+            Diary diary = diaryRepository.findById(diaryId, entry.getUserId());
+            if (diary == null) {
+                // 다이어리가 삭제됨
+                await(emotionOutboxRepository.deleteAsync(diaryId));
+                return Outcome.DROPPED;
+            }
+
+            // 저장 직후의 분석이 돌고 있으면 새로 분석하지 않고 그 작업이 끝나기를 기다린다
+            EmotionAnalysis analysis;
+            try {
+                analysis = emotionAnalysisQueue.enqueueRetry(diaryId, diary.getUserId(), diary.getContent())
+                        .get(leaseMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 작업은 계속 돈다. 끝난 뒤 다음 시도에서 COMPLETED를 보고 항목을 지운다
+                return retryLater(entry, "감정 분석이 임대 시간 안에 끝나지 않았습니다");
+            }
+            if (analysis == null) {
+                // 분석하는 사이 다이어리가 삭제됨
+                await(emotionOutboxRepository.deleteAsync(diaryId));
+                return Outcome.DROPPED;
+            }
+            if (EmotionAnalysis.STATUS_COMPLETED.equals(analysis.getStatus())) {
+                await(emotionOutboxRepository.deleteAsync(diaryId));
+                return Outcome.COMPLETED;
+            }
+            return retryLater(entry, "감정 분석 API를 호출하지 못했습니다");
+        } catch (ExecutionException e) {
+            logger.warn("감정 분석 재시도 실패. diaryId={}: {}", diaryId, e.getMessage());
+            try {
+                return retryLater(entry, e.getMessage());
+            } catch (ExecutionException rescheduleFailure) {
+                // 임대가 끝나면 다시 가져온다
+                return Outcome.RETRIED;
+            }
+        }
+    }
+
+    private Outcome retryLater(EmotionOutboxEntry entry, String reason) throws ExecutionException, InterruptedException {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            logger.warn("감정 분석을 {}번 다시 시도했지만 실패해 포기합니다. diaryId={}", attempts, entry.getDiaryId());
+            await(emotionAnalysisService.markAbandonedAsync(entry.getDiaryId()));
+            await(emotionOutboxRepository.deleteAsync(entry.getDiaryId()));
+            return Outcome.ABANDONED;
+        }
+        Date next = new Date(System.currentTimeMillis() + backoffMillis(attempts));
+        await(emotionOutboxRepository.rescheduleAsync(entry.getDiaryId(), attempts, next, reason));
+        return Outcome.RETRIED;
+    }
+
+    /**
+     * attempts번째 재시도 후 대기 시간. base * 2^(attempts-1)을 max로 자르고, 그 절반~전체 사이에서 무작위로 고른다.
+     */
+    private long backoffMillis(int attempts) {
+        long exponential = baseBackoffMillis << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 ? maxBackoffMillis : Math.min(maxBackoffMillis, exponential);
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+    }
+
+    private void count(Outcome outcome) {
+        Counter counter = switch (outcome) {
+            case COMPLETED -> completed;
+            case RETRIED -> retried;
+            case DROPPED -> dropped;
+            case ABANDONED -> abandoned;
+        };
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
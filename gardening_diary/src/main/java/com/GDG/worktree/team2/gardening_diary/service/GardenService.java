@@ -3,20 +3,31 @@ package com.GDG.worktree.team2.gardening_diary.service;
 import com.GDG.worktree.team2.gardening_diary.dto.GardenRequest;
 import com.GDG.worktree.team2.gardening_diary.entity.Garden;
 import com.GDG.worktree.team2.gardening_diary.repository.GardenRepository;
+import com.GDG.worktree.team2.gardening_diary.repository.TreeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.notFoundAs;
+
 /**
  * 정원 서비스
+ *
+ * <p>나무 카운터({@code tree.counter.enabled})가 켜져 있으면 나무 수는 서버가 나무 생성/삭제 때 관리하며,
+ * 요청의 treeCount는 무시하고 응답의 treeCount를 카운터 값으로 채운다. 정원 문서의 tree_count는 쓰지 않는다.
  */
 @Service
 public class GardenService {
     
     @Autowired
     private GardenRepository gardenRepository;
+
+    @Autowired
+    private TreeRepository treeRepository;
     
     /**
      * 정원 생성 또는 업데이트
@@ -24,9 +35,20 @@ public class GardenService {
     public Garden createOrUpdateGarden(String userId, GardenRequest request) throws ExecutionException, InterruptedException {
         // 사용자의 정원 조회
         List<Garden> gardens = gardenRepository.findByUserId(userId);
+        boolean exists = gardens != null && !gardens.isEmpty();
+
+        if (treeRepository.isCounterEnabled()) {
+            // 나무 수는 서버가 관리하므로 정원이 있으면 쓸 것이 없다
+            Garden garden = exists ? gardens.get(0) : gardenRepository.save(new Garden(userId, 0));
+            return await(withTreeCount(garden));
+        }
+
+        if (request.getTreeCount() == null) {
+            throw new IllegalArgumentException("나무 수는 필수입니다");
+        }
         
         Garden garden;
-        if (gardens != null && !gardens.isEmpty()) {
+        if (exists) {
             // 기존 정원이 있으면 업데이트
             garden = gardens.get(0);
             garden.setTreeCount(request.getTreeCount());
@@ -41,29 +63,65 @@ public class GardenService {
     /**
      * 정원 조회 (ID로)
      */
-    public Garden getGardenById(String id) throws ExecutionException, InterruptedException {
-        return gardenRepository.findById(id);
+    public Garden getGardenById(String id, String userId) throws ExecutionException, InterruptedException {
+        return await(getGardenByIdAsync(id, userId));
+    }
+
+    /**
+     * 정원 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<Garden> getGardenByIdAsync(String id, String userId) {
+        return gardenRepository.findByIdAsync(id, userId).thenCompose(this::withTreeCount);
     }
     
     /**
      * 사용자의 정원 조회
      */
     public Garden getUserGarden(String userId) throws ExecutionException, InterruptedException {
-        List<Garden> gardens = gardenRepository.findByUserId(userId);
-        if (gardens != null && !gardens.isEmpty()) {
-            return gardens.get(0);
-        }
-        return null;
+        return await(getUserGardenAsync(userId));
+    }
+
+    /**
+     * 사용자의 정원 조회 (비동기)
+     */
+    public CompletableFuture<Garden> getUserGardenAsync(String userId) {
+        return gardenRepository.findByUserIdAsync(userId)
+                .thenApply(gardens -> gardens != null && !gardens.isEmpty() ? gardens.get(0) : null)
+                .thenCompose(this::withTreeCount);
     }
     
     /**
-     * 정원 수정
+     * 정원 수정 (PUT, 전체 교체). 나무 수를 생략하면 0이 된다.
      */
     public Garden updateGarden(String gardenId, String userId, GardenRequest request) 
             throws ExecutionException, InterruptedException {
+        return applyUpdate(gardenId, userId, request, true);
+    }
+
+    /**
+     * 정원 부분 수정 (PATCH). 보낸 필드만 바꾸고 생략한 필드는 그대로 둔다.
+     */
+    public Garden patchGarden(String gardenId, String userId, GardenRequest request)
+            throws ExecutionException, InterruptedException {
+        return applyUpdate(gardenId, userId, request, false);
+    }
+
+    private Garden applyUpdate(String gardenId, String userId, GardenRequest request, boolean replace)
+            throws ExecutionException, InterruptedException {
+
+        if (gardenRepository.isUserScoped() && !treeRepository.isCounterEnabled()) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 요청 필드만 쓰고, 다시 읽지 않고 쓴 값을 반환한다
+            Garden changes = new Garden();
+            copyFields(request, changes, replace);
+            Garden updated = await(gardenRepository.updateScopedAsync(gardenId, userId, changes));
+            if (updated != null) {
+                return updated;
+            }
+            // 하위 컬렉션에 없으면 fallback-read로 읽히는 최상위 컬렉션 문서일 수 있으므로 아래에서 확인한다
+        }
         
         // 정원 존재 및 소유권 확인
-        Garden existingGarden = gardenRepository.findById(gardenId);
+        Garden existingGarden = gardenRepository.findById(gardenId, userId);
         if (existingGarden == null) {
             throw new IllegalArgumentException("정원을 찾을 수 없습니다");
         }
@@ -72,12 +130,26 @@ public class GardenService {
             throw new IllegalArgumentException("정원 수정 권한이 없습니다");
         }
         
+        if (treeRepository.isCounterEnabled()) {
+            // 수정할 수 있는 필드가 나무 수뿐이므로 쓸 것이 없다
+            return await(withTreeCount(existingGarden));
+        }
+
         // 필드 업데이트
+        copyFields(request, existingGarden, replace);
+        
+        return gardenRepository.update(existingGarden);
+    }
+
+    /**
+     * 요청 값을 정원에 반영. replace면 생략한 나무 수를 0으로 둔다.
+     */
+    private void copyFields(GardenRequest request, Garden garden, boolean replace) {
         if (request.getTreeCount() != null) {
-            existingGarden.setTreeCount(request.getTreeCount());
+            garden.setTreeCount(request.getTreeCount());
+        } else if (replace) {
+            garden.setTreeCount(0);
         }
-        
-        return gardenRepository.save(existingGarden);
     }
     
     /**
@@ -85,19 +157,47 @@ public class GardenService {
      */
     public boolean deleteGarden(String gardenId, String userId) 
             throws ExecutionException, InterruptedException {
-        
-        // 정원 존재 및 소유권 확인
-        Garden garden = gardenRepository.findById(gardenId);
-        if (garden == null) {
-            throw new IllegalArgumentException("정원을 찾을 수 없습니다");
+        return await(deleteGardenAsync(gardenId, userId));
+    }
+
+    /**
+     * 정원 삭제 (비동기)
+     */
+    public CompletableFuture<Boolean> deleteGardenAsync(String gardenId, String userId) {
+        if (gardenRepository.isUserScoped()) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 존재 조건만 걸고 삭제
+            return notFoundAs(gardenRepository.deleteByIdAsync(gardenId, userId), "정원을 찾을 수 없습니다")
+                    .thenApply(ignored -> true);
         }
-        
-        if (!userId.equals(garden.getUserId())) {
-            throw new IllegalArgumentException("정원 삭제 권한이 없습니다");
+
+        return gardenRepository.findByIdAsync(gardenId, userId)
+                .thenCompose(garden -> {
+                    // 정원 존재 및 소유권 확인
+                    if (garden == null) {
+                        throw new IllegalArgumentException("정원을 찾을 수 없습니다");
+                    }
+
+                    if (!userId.equals(garden.getUserId())) {
+                        throw new IllegalArgumentException("정원 삭제 권한이 없습니다");
+                    }
+
+                    return gardenRepository.deleteByIdAsync(gardenId, userId);
+                })
+                .thenApply(ignored -> true);
+    }
+
+    /**
+     * 카운터를 쓰면 응답용 나무 수를 카운터 값으로 채운다 (정원 문서에는 쓰지 않는다).
+     */
+    private CompletableFuture<Garden> withTreeCount(Garden garden) {
+        if (garden == null || !treeRepository.isCounterEnabled()) {
+            return CompletableFuture.completedFuture(garden);
         }
-        
-        gardenRepository.deleteById(gardenId);
-        return true;
+        return treeRepository.countByUserIdAsync(garden.getUserId()).thenApply(count -> {
+            garden.setTreeCount((int) Math.min(count, Integer.MAX_VALUE));
+            garden.clearChanges();
+            return garden;
+        });
     }
 }
 
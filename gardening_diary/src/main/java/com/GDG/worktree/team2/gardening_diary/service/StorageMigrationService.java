@@ -0,0 +1,152 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.repository.StorageLayout;
+import com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.toCompletableFuture;
+
+/**
+ * 저장 구조 마이그레이션 서비스
+ *
+ * <p>최상위 컬렉션(diaries, trees, gardens)의 문서를 users/{uid}/... 하위 컬렉션으로 복사한다.
+ * {@code storage.migration.enabled}가 켜져 있으면 애플리케이션 기동 후 백그라운드 스레드에서 한 번 실행된다.
+ * 복사는 BulkWriter의 초당 쓰기 제한 안에서 진행되고, 이미 하위 컬렉션에 있는 문서는
+ * (DUAL 기간에 새로 쓰인 최신본이므로) 덮어쓰지 않는다.
+ *
+ * <p>권장 순서: storage.layout=DUAL로 배포 → 마이그레이션 완료 확인 → storage.layout=NESTED로 전환.
+ */
+@Service
+public class StorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationService.class);
+
+    /** 한 번에 읽어 오는 원본 문서 수 */
+    private static final int PAGE_SIZE = 300;
+
+    private final Firestore firestore;
+    private final StorageLayout layout;
+    private final boolean enabled;
+    private final int initialOpsPerSecond;
+    private final int maxOpsPerSecond;
+
+    @Autowired
+    public StorageMigrationService(Firestore firestore,
+                                   StorageLayout layout,
+                                   @Value("${storage.migration.enabled:false}") boolean enabled,
+                                   @Value("${storage.migration.initial-ops-per-second:50}") int initialOpsPerSecond,
+                                   @Value("${storage.migration.max-ops-per-second:200}") int maxOpsPerSecond) {
+        this.firestore = firestore;
+        this.layout = layout;
+        this.enabled = enabled;
+        this.initialOpsPerSecond = initialOpsPerSecond;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            return;
+        }
+        if (layout.getMode() == StorageLayout.Mode.FLAT) {
+            logger.warn("storage.layout=FLAT에서는 마이그레이션 중 새로 쓰인 문서가 복사되지 않습니다. DUAL로 실행하세요.");
+        }
+
+        Thread worker = new Thread(this::migrateAll, "storage-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 모든 컬렉션 마이그레이션
+     */
+    public void migrateAll() {
+        try {
+            migrate("diaries", "userId");
+            migrate("trees", "user_id");
+            migrate("gardens", "user_id");
+            logger.info("저장 구조 마이그레이션 완료");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("저장 구조 마이그레이션이 중단되었습니다");
+        } catch (Exception e) {
+            logger.error("저장 구조 마이그레이션 실패", e);
+        }
+    }
+
+    /**
+     * 컬렉션 1개 마이그레이션. 문서 ID 순으로 페이지를 넘기며 복사한다.
+     */
+    public long migrate(String collection, String ownerField) throws ExecutionException, InterruptedException {
+        AtomicLong copied = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        long scanned = 0;
+
+        BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(initialOpsPerSecond)
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        try {
+            Query page = layout.flat(collection)
+                    .orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                QuerySnapshot documents = (last == null ? page : page.startAfter(last)).get().get();
+                List<QueryDocumentSnapshot> snapshots = documents.getDocuments();
+                if (snapshots.isEmpty()) {
+                    break;
+                }
+
+                for (QueryDocumentSnapshot document : snapshots) {
+                    String userId = document.getString(ownerField);
+                    if (userId == null || userId.isEmpty()) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    toCompletableFuture(writer.create(
+                            layout.nested(userId, collection).document(document.getId()), document.getData()))
+                            .whenComplete((result, ex) -> {
+                                if (ex == null) {
+                                    copied.incrementAndGet();
+                                } else if (FirestoreFutures.hasStatus(ex, StatusCode.Code.ALREADY_EXISTS)) {
+                                    skipped.incrementAndGet();
+                                } else {
+                                    logger.warn("{}/{} 복사 실패: {}", collection, document.getId(),
+                                            FirestoreFutures.unwrap(ex).getMessage());
+                                }
+                            });
+                }
+
+                scanned += snapshots.size();
+                last = snapshots.get(snapshots.size() - 1);
+                writer.flush().get();
+                logger.info("{} 마이그레이션 진행: 확인 {}건, 복사 {}건, 건너뜀 {}건",
+                        collection, scanned, copied.get(), skipped.get());
+            }
+        } finally {
+            writer.close();
+        }
+
+        return copied.get();
+    }
+}
@@ -1,14 +1,24 @@
 package com.GDG.worktree.team2.gardening_diary.service;
 
 import com.GDG.worktree.team2.gardening_diary.dto.TreeRequest;
+import com.GDG.worktree.team2.gardening_diary.dto.TreeSummary;
 import com.GDG.worktree.team2.gardening_diary.entity.Tree;
+import com.GDG.worktree.team2.gardening_diary.repository.BlobStore;
 import com.GDG.worktree.team2.gardening_diary.repository.TreeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.await;
+import static com.GDG.worktree.team2.gardening_diary.util.FirestoreFutures.notFoundAs;
+
 /**
  * 나무 서비스
  */
@@ -17,6 +27,12 @@ public class TreeService {
     
     @Autowired
     private TreeRepository treeRepository;
+
+    @Autowired
+    private CascadeDeleteService cascadeDeleteService;
+
+    @Autowired
+    private BlobStore blobStore;
     
     /**
      * 나무 생성
@@ -27,9 +43,10 @@ public class TreeService {
             request.getWeekShortDate(),
             request.getWeekEndDate(),
             request.getDiaryLeafColors(),
-            request.getTreeSnapshot(),
+            null,
             request.getStatus()
         );
+        tree.setSnapshotRef(storeSnapshot(request.getTreeSnapshot()));
         
         return treeRepository.save(tree);
     }
@@ -37,8 +54,15 @@ public class TreeService {
     /**
      * 나무 조회 (ID로)
      */
-    public Tree getTreeById(String id) throws ExecutionException, InterruptedException {
-        return treeRepository.findById(id);
+    public Tree getTreeById(String id, String userId) throws ExecutionException, InterruptedException {
+        return treeRepository.findById(id, userId);
+    }
+
+    /**
+     * 나무 조회 (ID로, 비동기)
+     */
+    public CompletableFuture<Tree> getTreeByIdAsync(String id, String userId) {
+        return treeRepository.findByIdAsync(id, userId);
     }
     
     /**
@@ -47,6 +71,13 @@ public class TreeService {
     public List<Tree> getUserTrees(String userId) throws ExecutionException, InterruptedException {
         return treeRepository.findByUserId(userId);
     }
+
+    /**
+     * 사용자의 모든 나무 조회 (비동기)
+     */
+    public CompletableFuture<List<Tree>> getUserTreesAsync(String userId) {
+        return treeRepository.findByUserIdAsync(userId);
+    }
     
     /**
      * 사용자 ID와 상태로 나무 조회
@@ -54,15 +85,53 @@ public class TreeService {
     public List<Tree> getUserTreesByStatus(String userId, String status) throws ExecutionException, InterruptedException {
         return treeRepository.findByUserIdAndStatus(userId, status);
     }
+
+    /**
+     * 사용자 ID와 상태로 나무 조회 (비동기)
+     */
+    public CompletableFuture<List<Tree>> getUserTreesByStatusAsync(String userId, String status) {
+        return treeRepository.findByUserIdAndStatusAsync(userId, status);
+    }
+
+    /**
+     * 사용자의 나무 요약 조회 (비동기, status는 선택)
+     */
+    public CompletableFuture<List<TreeSummary>> getUserTreeSummariesAsync(String userId, String status) {
+        return treeRepository.findSummariesByUserIdAsync(userId, status);
+    }
     
     /**
-     * 나무 수정
+     * 나무 수정 (PUT, 전체 교체). 생략한 필드는 비운다.
      */
     public Tree updateTree(String treeId, String userId, TreeRequest request) 
             throws ExecutionException, InterruptedException {
+        return applyUpdate(treeId, userId, request, true);
+    }
+
+    /**
+     * 나무 부분 수정 (PATCH). 보낸 필드만 바꾸고 생략한 필드는 그대로 둔다.
+     */
+    public Tree patchTree(String treeId, String userId, TreeRequest request)
+            throws ExecutionException, InterruptedException {
+        return applyUpdate(treeId, userId, request, false);
+    }
+
+    private Tree applyUpdate(String treeId, String userId, TreeRequest request, boolean replace)
+            throws ExecutionException, InterruptedException {
+
+        if (treeRepository.isUserScoped()) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 요청 필드만 쓰고, 다시 읽지 않고 쓴 값을 반환한다
+            Tree changes = new Tree();
+            copyFields(request, changes, replace);
+            Tree updated = await(treeRepository.updateScopedAsync(treeId, userId, changes));
+            if (updated != null) {
+                return updated;
+            }
+            // 하위 컬렉션에 없으면 fallback-read로 읽히는 최상위 컬렉션 문서일 수 있으므로 아래에서 확인한다
+        }
         
         // 나무 존재 및 소유권 확인
-        Tree existingTree = treeRepository.findById(treeId);
+        Tree existingTree = treeRepository.findById(treeId, userId);
         if (existingTree == null) {
             throw new IllegalArgumentException("나무를 찾을 수 없습니다");
         }
@@ -72,23 +141,89 @@ public class TreeService {
         }
         
         // 필드 업데이트
-        if (request.getWeekShortDate() != null) {
-            existingTree.setWeekShortDate(request.getWeekShortDate());
+        copyFields(request, existingTree, replace);
+        
+        return treeRepository.update(existingTree);
+    }
+
+    /**
+     * 요청 값을 나무에 반영. replace면 생략한 필드도 비운다.
+     */
+    private void copyFields(TreeRequest request, Tree tree, boolean replace) {
+        if (replace || request.getWeekShortDate() != null) {
+            tree.setWeekShortDate(request.getWeekShortDate());
         }
-        if (request.getWeekEndDate() != null) {
-            existingTree.setWeekEndDate(request.getWeekEndDate());
+        if (replace || request.getWeekEndDate() != null) {
+            tree.setWeekEndDate(request.getWeekEndDate());
         }
-        if (request.getDiaryLeafColors() != null) {
-            existingTree.setDiaryLeafColors(request.getDiaryLeafColors());
+        if (replace || request.getDiaryLeafColors() != null) {
+            tree.setDiaryLeafColors(request.getDiaryLeafColors());
         }
-        if (request.getTreeSnapshot() != null) {
-            existingTree.setTreeSnapshot(request.getTreeSnapshot());
+        if (replace || request.getTreeSnapshot() != null) {
+            tree.setSnapshotRef(storeSnapshot(request.getTreeSnapshot()));
+            tree.setTreeSnapshot(null);
         }
-        if (request.getStatus() != null) {
-            existingTree.setStatus(request.getStatus());
+        if (replace || request.getStatus() != null) {
+            tree.setStatus(request.getStatus());
+        }
+    }
+    
+    /**
+     * 나무 스냅샷 정보 조회
+     *
+     * <p>문서에 base64 이미지가 남아 있는 예전 나무는 이때 바이너리 저장소로 옮긴다.
+     *
+     * @return 스냅샷 정보, 스냅샷이 없으면 null
+     */
+    public BlobStore.Blob getSnapshot(String treeId, String userId)
+            throws ExecutionException, InterruptedException, IOException {
+        Tree tree = treeRepository.findById(treeId, userId);
+        if (tree == null || !userId.equals(tree.getUserId())) {
+            throw new IllegalArgumentException("나무를 찾을 수 없습니다");
+        }
+
+        if (tree.getSnapshotRef() == null && tree.getTreeSnapshot() != null && !tree.getTreeSnapshot().isEmpty()) {
+            tree.setSnapshotRef(storeSnapshot(tree.getTreeSnapshot()));
+            tree.setTreeSnapshot(null);
+            treeRepository.update(tree);
+        }
+
+        return tree.getSnapshotRef() != null ? blobStore.stat(tree.getSnapshotRef()) : null;
+    }
+
+    /**
+     * 나무 스냅샷 이미지 전송
+     */
+    public long transferSnapshot(BlobStore.Blob snapshot, WritableByteChannel target) throws IOException {
+        return blobStore.transferTo(snapshot.key(), target);
+    }
+
+    /**
+     * base64 스냅샷을 바이너리 저장소에 저장하고 키를 반환한다 (data URL 형식 허용).
+     */
+    private String storeSnapshot(String snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            return null;
+        }
+
+        String encoded = snapshot;
+        int comma = encoded.indexOf(',');
+        if (encoded.startsWith("data:") && comma > 0) {
+            encoded = encoded.substring(comma + 1);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("나무 스냅샷이 올바른 base64 형식이 아닙니다", e);
+        }
+
+        try {
+            return blobStore.put(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("나무 스냅샷 저장 실패", e);
         }
-        
-        return treeRepository.save(existingTree);
     }
     
     /**
@@ -96,19 +231,33 @@ public class TreeService {
      */
     public boolean deleteTree(String treeId, String userId) 
             throws ExecutionException, InterruptedException {
-        
-        // 나무 존재 및 소유권 확인
-        Tree tree = treeRepository.findById(treeId);
-        if (tree == null) {
-            throw new IllegalArgumentException("나무를 찾을 수 없습니다");
-        }
-        
-        if (!userId.equals(tree.getUserId())) {
-            throw new IllegalArgumentException("나무 삭제 권한이 없습니다");
+        return await(deleteTreeAsync(treeId, userId));
+    }
+
+    /**
+     * 나무 삭제 (비동기). 나무에 속한 다이어리와 감정 분석도 함께 지운다.
+     */
+    public CompletableFuture<Boolean> deleteTreeAsync(String treeId, String userId) {
+        if (treeRepository.isUserScoped()) {
+            // 경로가 곧 소유권이므로 사전 조회 없이 존재 조건만 걸고 삭제
+            return notFoundAs(cascadeDeleteService.deleteTreeAsync(treeId, userId), "나무를 찾을 수 없습니다")
+                    .thenApply(ignored -> true);
         }
-        
-        treeRepository.deleteById(treeId);
-        return true;
+
+        return treeRepository.findByIdAsync(treeId, userId)
+                .thenCompose(tree -> {
+                    // 나무 존재 및 소유권 확인
+                    if (tree == null) {
+                        throw new IllegalArgumentException("나무를 찾을 수 없습니다");
+                    }
+
+                    if (!userId.equals(tree.getUserId())) {
+                        throw new IllegalArgumentException("나무 삭제 권한이 없습니다");
+                    }
+
+                    return cascadeDeleteService.deleteTreeAsync(treeId, userId);
+                })
+                .thenApply(ignored -> true);
     }
 }
 
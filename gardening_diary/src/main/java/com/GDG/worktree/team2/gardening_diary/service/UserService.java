@@ -1,26 +1,40 @@
 package com.GDG.worktree.team2.gardening_diary.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.GDG.worktree.team2.gardening_diary.dto.CursorPage;
 import com.GDG.worktree.team2.gardening_diary.entity.User;
+import com.GDG.worktree.team2.gardening_diary.repository.UserRepository;
+import com.GDG.worktree.team2.gardening_diary.util.DocumentStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.WriteResult;
-import com.google.firebase.cloud.FirestoreClient;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-
-import java.util.List;
-import java.util.ArrayList;
 
 @Service
 public class UserService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    /** 스트리밍 조회 시 미리 받아 두는 최대 문서 수 */
+    private static final int STREAM_BUFFER_SIZE = 100;
+
+    private static final byte NEWLINE = '\n';
+
+    private final Firestore db;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserService(Firestore db, UserRepository userRepository, ObjectMapper objectMapper) {
+        this.db = db;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
 
     //CREATE
     public String createUser(User user) throws ExecutionException, InterruptedException {
@@ -28,14 +42,16 @@ public class UserService {
             throw new IllegalArgumentException("User ID must not be null or empty");
         }
         ApiFuture<WriteResult> future = db.collection("users").document(user.getId()).set(user);
-        return future.get().getUpdateTime().toString();
+        try {
+            return future.get().getUpdateTime().toString();
+        } finally {
+            userRepository.evictCached(user.getId());
+        }
     }
 
     //READ
     public User getUser(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection("users").document(id);
-        DocumentSnapshot document = docRef.get().get();
-        return document.exists() ? document.toObject(User.class) : null;
+        return userRepository.findById(id);
     }
 
     //UPDATE
@@ -44,7 +60,11 @@ public class UserService {
             throw new IllegalArgumentException("User ID must not be null or empty");
         }
         ApiFuture<WriteResult> future = db.collection("users").document(user.getId()).set(user);
-        return future.get().getUpdateTime().toString();
+        try {
+            return future.get().getUpdateTime().toString();
+        } finally {
+            userRepository.evictCached(user.getId());
+        }
     }
 
     //DELETE
@@ -54,18 +74,28 @@ public class UserService {
         return "Deleted at: " + future.get().getUpdateTime();
     } catch (Exception e) {
         throw new RuntimeException("Failed to delete user", e);
+    } finally {
+        userRepository.evictCached(id);
     }
     } 
 
-    // 전체 사용자 조회
-    public List<User> getAllUsers() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = db.collection("users").get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-    
-        List<User> users = new ArrayList<>();
-        for (QueryDocumentSnapshot document : documents) {
-            users.add(document.toObject(User.class));
+    // 사용자 목록 조회 (커서 페이징, password 제외)
+    public CompletableFuture<CursorPage<User>> getUserPageAsync(int limit, String cursor) {
+        return userRepository.findPageAsync(limit, cursor);
+    }
+
+    // 전체 사용자 스트리밍 (NDJSON, password 제외)
+    public void streamUsers(OutputStream out) throws IOException {
+        try (DocumentStream users = userRepository.streamAll(STREAM_BUFFER_SIZE)) {
+            int written = 0;
+            while (users.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(users.next().toObject(User.class)));
+                out.write(NEWLINE);
+                if (++written % STREAM_BUFFER_SIZE == 0) {
+                    out.flush();
+                }
+            }
         }
-        return users;
+        out.flush();
     }
 }
@@ -0,0 +1,187 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 외부 호출용 서킷 브레이커.
+ *
+ * <p>최근 windowSize번의 호출 중 실패 비율이 failureRateThreshold 이상이면(최소 minimumCalls번 호출 후) OPEN으로 바뀌어
+ * openDuration 동안 {@link #tryAcquire()}가 {@link #REJECTED}를 반환한다. 그 시간이 지나면 HALF_OPEN이 되어
+ * halfOpenProbes번의 시험 호출만 허용하고, 모두 성공하면 CLOSED로, 하나라도 실패하면 다시 OPEN으로 돌아간다.
+ *
+ * <p>호출하는 쪽은 {@link #tryAcquire()}가 허가 번호를 돌려줄 때만 호출하고, 끝나면 반드시 그 번호로
+ * {@link #onSuccess(long)}나 {@link #onFailure(long)}를 부른다. 허가 번호는 상태가 바뀔 때마다 올라가는 세대이며,
+ * 이전 세대에 시작한 호출의 결과는 무시한다. CLOSED일 때 시작해 HALF_OPEN 중에 끝난 호출이 시험 호출로 세어지지 않는다.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** 호출을 허용하지 않을 때 {@link #tryAcquire()}가 반환하는 값 */
+    public static final long REJECTED = -1;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final BiConsumer<State, State> onTransition;
+    private final LongSupplier nanoClock;
+
+    /** 최근 호출 결과 (true = 실패). this로 동기화한다. */
+    private final boolean[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    /** 상태가 바뀔 때마다 1씩 증가 */
+    private long generation;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    /**
+     * @param onTransition 상태가 바뀔 때 (이전 상태, 새 상태)로 호출. 락 안에서 호출되므로 오래 걸리는 작업은 다른 스레드로 넘긴다.
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenProbes, BiConsumer<State, State> onTransition) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenProbes, onTransition,
+                System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock OPEN 대기 시간을 잴 시계 (테스트용)
+     */
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration openDuration, int halfOpenProbes, BiConsumer<State, State> onTransition,
+                   LongSupplier nanoClock) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize는 1 이상이어야 합니다");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.onTransition = onTransition;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 호출 허용 여부. OPEN이면 거절하고, 대기 시간이 지났으면 HALF_OPEN으로 바꾸고 시험 호출을 허용한다.
+     *
+     * @return 허용하면 결과를 기록할 때 넘길 허가 번호(현재 세대), 거절하면 {@link #REJECTED}
+     */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return REJECTED;
+                }
+                transition(State.HALF_OPEN);
+                probesStarted = 0;
+                probesSucceeded = 0;
+                // fall through
+            case HALF_OPEN:
+            default:
+                if (probesStarted >= halfOpenProbes) {
+                    return REJECTED;
+                }
+                probesStarted++;
+                return generation;
+        }
+    }
+
+    /**
+     * 호출 성공 기록. permit이 현재 세대가 아니면 무시한다.
+     */
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * 호출 실패 기록. permit이 현재 세대가 아니면 무시한다.
+     */
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recordedCalls >= minimumCalls
+                && (double) failedCalls / recordedCalls >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 최근 호출 중 실패 비율 (0~1). 기록된 호출이 없으면 0.
+     */
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0 : (double) failedCalls / recordedCalls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        state = next;
+        if (previous != next) {
+            generation++;
+        }
+        if (previous != next && onTransition != null) {
+            onTransition.accept(previous, next);
+        }
+    }
+}
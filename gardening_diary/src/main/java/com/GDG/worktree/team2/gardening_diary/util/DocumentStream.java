@@ -0,0 +1,113 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Query#stream(ApiStreamObserver)} 결과를 순차적으로 읽는 Iterator.
+ *
+ * <p>gRPC 스레드가 넘겨주는 문서를 크기가 고정된 큐에 담아 두고, 소비자가 꺼내 갈 때까지
+ * 생산 쪽을 대기시킨다. 전체 결과를 메모리에 올리지 않으므로 문서 수와 무관하게
+ * 최대 {@code capacity}개만 보관된다. 사용 후에는 반드시 {@link #close()}를 호출한다.
+ */
+public final class DocumentStream implements Iterator<DocumentSnapshot>, AutoCloseable {
+
+    /** 스트림 종료 표시 */
+    private static final Object END = new Object();
+
+    private static final long OFFER_WAIT_MILLIS = 200;
+
+    private final BlockingQueue<Object> queue;
+    private volatile boolean closed;
+    private Object next;
+
+    private DocumentStream(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * 쿼리 스트리밍을 시작한다.
+     */
+    public static DocumentStream open(Query query, int capacity) {
+        DocumentStream stream = new DocumentStream(capacity);
+        query.stream(stream.new Observer());
+        return stream;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = take();
+        }
+        if (next instanceof Throwable t) {
+            next = END;
+            throw new IllegalStateException("Firestore 스트리밍 실패: " + t.getMessage(), t);
+        }
+        return next != END;
+    }
+
+    @Override
+    public DocumentSnapshot next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DocumentSnapshot document = (DocumentSnapshot) next;
+        next = null;
+        return document;
+    }
+
+    /**
+     * 소비를 중단한다. 대기 중인 생산 쪽은 남은 문서를 버리고 빠져나간다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private Object take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Firestore 스트리밍이 중단되었습니다", e);
+        }
+    }
+
+    private void put(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class Observer implements ApiStreamObserver<DocumentSnapshot> {
+        @Override
+        public void onNext(DocumentSnapshot document) {
+            put(document);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            put(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            put(END);
+        }
+    }
+}
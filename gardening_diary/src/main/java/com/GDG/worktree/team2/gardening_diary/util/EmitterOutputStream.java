@@ -0,0 +1,43 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 출력을 청크 단위로 {@link ResponseBodyEmitter} 응답에 흘려 보내는 스트림.
+ *
+ * <p>긴 스트리밍 응답은 전역 비동기 제한 시간(spring.mvc.async.request-timeout) 대신 emitter마다 제한 시간을
+ * 따로 준다. 쓰기마다 청크 하나를 보내므로 {@link java.io.BufferedOutputStream}으로 감싸서 쓴다.
+ */
+public class EmitterOutputStream extends OutputStream {
+
+    private final ResponseBodyEmitter emitter;
+    private final MediaType mediaType;
+
+    public EmitterOutputStream(ResponseBodyEmitter emitter, MediaType mediaType) {
+        this.emitter = emitter;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        try {
+            emitter.send(Arrays.copyOfRange(b, off, off + len), mediaType);
+        } catch (IllegalStateException e) {
+            // 제한 시간이 지나 이미 끝난 응답
+            throw new IOException("스트리밍 응답이 이미 종료되었습니다", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore {@link ApiFuture}를 {@link CompletableFuture}로 변환하는 유틸리티.
+ *
+ * <p>콜백은 Firestore(gRPC) 완료 스레드에서 바로 실행되므로,
+ * 이어지는 단계에서는 블로킹 호출을 하지 않아야 한다.
+ */
+public final class FirestoreFutures {
+
+    private FirestoreFutures() {}
+
+    /**
+     * 블로킹 없이 ApiFuture 완료 시점에 CompletableFuture를 완료시킨다.
+     * 반환된 future를 취소하면 원본 ApiFuture도 취소된다.
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                apiFuture.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * 동기 API 호환용 대기.
+     * 비즈니스 검증 예외(IllegalArgumentException)는 감싸지 않고 그대로 던진다.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException iae) {
+                throw iae;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 문서가 없어서 실패했는지 (NOT_FOUND) 확인한다. 존재 조건을 건 쓰기가 실패한 경우 등.
+     */
+    public static boolean isNotFound(Throwable throwable) {
+        return hasStatus(throwable, StatusCode.Code.NOT_FOUND);
+    }
+
+    /**
+     * NOT_FOUND 실패를 주어진 메시지의 IllegalArgumentException으로 바꾼다.
+     */
+    public static <T> CompletableFuture<T> notFoundAs(CompletableFuture<T> future, String message) {
+        return future.exceptionally(ex -> {
+            if (isNotFound(ex)) {
+                throw new IllegalArgumentException(message);
+            }
+            throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+        });
+    }
+
+    /**
+     * 실패 원인 체인에 주어진 gRPC 상태 코드가 있는지 확인한다.
+     */
+    public static boolean hasStatus(Throwable throwable, StatusCode.Code code) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof ApiException apiException
+                    && apiException.getStatusCode().getCode() == code) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * CompletionException / ExecutionException 래핑을 벗겨 실제 원인을 반환한다.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,83 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 멱등 키별 처리 결과를 잠시 보관하는 프로세스 내 캐시.
+ *
+ * <p>같은 키로 동시에 들어온 요청은 먼저 온 요청의 처리 결과를 함께 기다리고,
+ * 처리가 끝난 뒤 ttl 동안 들어온 재요청은 저장소를 거치지 않고 같은 결과를 받는다.
+ * 처리에 실패한 키는 바로 비워서 재시도할 수 있게 한다. 만료된 항목은 쓰기 시 주기적으로 정리한다.
+ */
+public class IdempotencyCache<T> {
+
+    /** 이 횟수만큼 등록할 때마다 만료된 항목을 정리 */
+    private static final int PURGE_INTERVAL = 256;
+
+    private record Entry<T>(CompletableFuture<T> result, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final long ttlMillis;
+
+    public IdempotencyCache(Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * 키에 대해 action을 한 번만 실행하고 그 결과를 반환한다.
+     *
+     * <p>action이 던진 예외는 그대로 다시 던지고, 함께 기다리던 요청은 ExecutionException으로 받는다.
+     */
+    public T execute(String key, Callable<T> action) throws ExecutionException, InterruptedException {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        long now = System.currentTimeMillis();
+        Entry<T> entry = entries.compute(key, (k, existing) ->
+                existing == null || (existing.result().isDone() && existing.isExpired(now))
+                        ? new Entry<>(mine, now + ttlMillis) : existing);
+
+        if (entry.result() != mine) {
+            return entry.result().get();
+        }
+
+        purgeExpiredPeriodically(now);
+        try {
+            T result = action.call();
+            mine.complete(result);
+            return result;
+        } catch (Exception e) {
+            entries.remove(key, entry);
+            mine.completeExceptionally(e);
+            if (e instanceof ExecutionException executionException) {
+                throw executionException;
+            }
+            if (e instanceof InterruptedException interruptedException) {
+                throw interruptedException;
+            }
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ExecutionException(e);
+        } catch (Error e) {
+            entries.remove(key, entry);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void purgeExpiredPeriodically(long now) {
+        if (registrations.incrementAndGet() % PURGE_INTERVAL == 0) {
+            entries.values().removeIf(entry -> entry.result().isDone() && entry.isExpired(now));
+        }
+    }
+}
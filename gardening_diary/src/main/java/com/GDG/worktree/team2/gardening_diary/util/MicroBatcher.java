@@ -0,0 +1,148 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 개별 요청을 모아 한 번에 보내는 마이크로 배처.
+ *
+ * <p>{@link #submit}으로 들어온 요청은 maxBatchSize개가 모이거나 첫 요청 후 maxWait이 지나면
+ * 하나의 배치로 batchCall에 넘겨진다. batchCall은 요청과 같은 순서로 같은 개수의 결과를 돌려줘야 하며,
+ * 각 결과는 요청별 future로 나눠 전달한다. batchCall이 실패하면 배치의 모든 future가 같은 예외로 끝난다.
+ * 배치 전송은 별도 스레드(최대 concurrency개)에서 실행하므로 요청을 모으는 동안 이전 배치를 기다리지 않는다.
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private record Item<I, O>(I request, CompletableFuture<O> result) {}
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final Function<List<I>, List<O>> batchCall;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService sender;
+
+    /** 모으는 중인 배치. this로 동기화한다. */
+    private List<Item<I, O>> current = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxWait, int concurrency,
+                        Function<List<I>, List<O>> batchCall) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize는 1 이상이어야 합니다");
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = Math.max(0, maxWait.toMillis());
+        this.batchCall = batchCall;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, daemon(name + "-timer"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        int threads = Math.max(1, concurrency);
+        this.sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon(name + "-sender"));
+    }
+
+    /**
+     * 요청 등록. 배치 결과 중 이 요청의 결과로 완료되는 future를 반환한다.
+     */
+    public CompletableFuture<O> submit(I request) {
+        Item<I, O> item = new Item<>(request, new CompletableFuture<>());
+        List<Item<I, O>> full = null;
+        synchronized (this) {
+            current.add(item);
+            if (current.size() >= maxBatchSize) {
+                full = takeCurrent();
+            } else if (current.size() == 1) {
+                flushTask = scheduler.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return item.result();
+    }
+
+    /**
+     * 모으는 중인 요청을 기다리지 않고 바로 보낸다.
+     */
+    public void flush() {
+        List<Item<I, O>> batch;
+        synchronized (this) {
+            if (current.isEmpty()) {
+                return;
+            }
+            batch = takeCurrent();
+        }
+        dispatch(batch);
+    }
+
+    private List<Item<I, O>> takeCurrent() {
+        List<Item<I, O>> batch = current;
+        current = new ArrayList<>(maxBatchSize);
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Item<I, O>> batch) {
+        try {
+            sender.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+            batch.forEach(item -> item.result().completeExceptionally(e));
+        }
+    }
+
+    private void send(List<Item<I, O>> batch) {
+        try {
+            List<O> results = batchCall.apply(batch.stream().map(Item::request).toList());
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException(String.format("%s 배치 결과 수가 요청 수와 다릅니다 (요청 %d건, 결과 %d건)",
+                        name, batch.size(), results == null ? 0 : results.size()));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(item -> item.result().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 남은 요청을 보내고 전송 스레드를 정리한다.
+     */
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdownNow();
+        sender.shutdown();
+        try {
+            sender.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import com.google.cloud.Timestamp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징용 불투명 커서.
+ *
+ * <p>정렬 기준 타임스탬프와 문서 ID를 base64url 문자열로 인코딩한다.
+ * 클라이언트는 값을 해석하지 않고 다음 요청에 그대로 돌려주기만 하면 된다.
+ */
+public record PageCursor(Timestamp timestamp, String documentId) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = timestamp.getSeconds() + SEPARATOR + timestamp.getNanos() + SEPARATOR + documentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("잘못된 페이징 커서입니다");
+            }
+            Timestamp timestamp = Timestamp.ofTimeSecondsAndNanos(
+                    Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            return new PageCursor(timestamp, parts[2]);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 및 base64 디코딩 오류 포함
+            throw new IllegalArgumentException("잘못된 페이징 커서입니다", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.GDG.worktree.team2.gardening_diary.repository;
+
+import com.GDG.worktree.team2.gardening_diary.entity.Diary;
+import com.GDG.worktree.team2.gardening_diary.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskCacheTest {
+
+    /** 로그 파일 헤더 크기 (DiskCache.HEADER_SIZE) */
+    private static final int HEADER_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    private final List<DiskCache> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() {
+        opened.forEach(DiskCache::shutdown);
+    }
+
+    @Test
+    void restoresEntriesAfterRestart() {
+        DiskCache cache = open(1);
+        Timestamp updateTime = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 123_000_000);
+        cache.put("diary:a", "diaries/a", updateTime, bytes("first"));
+        cache.put("diary:b", "diaries/b", updateTime, bytes("second"));
+        cache.put("diary:a", "diaries/a", updateTime, bytes("first-updated"));
+        cache.remove("diary:b");
+        close(cache);
+
+        DiskCache restarted = open(1);
+        DiskCache.Entry entry = restarted.find("diary:a");
+        assertThat(entry).isNotNull();
+        assertThat(entry.path()).isEqualTo("diaries/a");
+        assertThat(entry.updateTime()).isEqualTo(updateTime);
+        assertThat(new String(entry.value(), StandardCharsets.UTF_8)).isEqualTo("first-updated");
+        // 다시 띄운 뒤에는 Firestore와 확인하기 전까지 검증되지 않은 값이다
+        assertThat(entry.verified()).isFalse();
+        assertThat(restarted.find("diary:b")).isNull();
+    }
+
+    @Test
+    void dropsRecordsFromTheFirstCorruptedOne() throws Exception {
+        DiskCache cache = open(1);
+        Timestamp updateTime = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 0);
+        cache.put("diary:a", "diaries/a", updateTime, bytes("kept"));
+        cache.put("diary:b", "diaries/b", updateTime, bytes("corrupted"));
+        close(cache);
+
+        // 두 번째 기록의 본문 마지막 바이트를 바꿔 CRC가 맞지 않게 한다
+        int second = HEADER_SIZE + recordSize("diary:a", "diaries/a", bytes("kept"));
+        int lastBodyByte = second + recordSize("diary:b", "diaries/b", bytes("corrupted")) - 4 - 1;
+        try (FileChannel channel = FileChannel.open(directory.resolve("cache.log"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, lastBodyByte);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) (original.get(0) ^ 0xFF)}), lastBodyByte);
+        }
+
+        DiskCache restarted = open(1);
+        assertThat(restarted.find("diary:a")).isNotNull();
+        assertThat(restarted.find("diary:b")).isNull();
+
+        // 손상된 기록 자리부터 이어서 쓴다
+        restarted.put("diary:c", "diaries/c", updateTime, bytes("after"));
+        close(restarted);
+        DiskCache again = open(1);
+        assertThat(again.find("diary:a")).isNotNull();
+        assertThat(again.find("diary:c")).isNotNull();
+    }
+
+    @Test
+    void compactionKeepsMostRecentEntries() {
+        DiskCache cache = open(1);
+        Timestamp updateTime = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 0);
+        byte[] value = new byte[16 * 1024];
+
+        // 1MB 로그를 여러 번 채울 만큼 쓴다
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            cache.put("diary:" + i, "diaries/" + i, updateTime, value);
+        }
+
+        assertThat(cache.find("diary:" + (count - 1))).isNotNull();
+        assertThat(cache.find("diary:0")).isNull();
+        List<String> recent = cache.recentKeys("diary:", 3);
+        assertThat(recent).containsExactly("diary:" + (count - 1), "diary:" + (count - 2), "diary:" + (count - 3));
+
+        // 압축한 파일도 다시 열 수 있어야 한다
+        close(cache);
+        DiskCache restarted = open(1);
+        assertThat(restarted.find("diary:" + (count - 1))).isNotNull();
+        assertThat(restarted.recentKeys("diary:", 1)).containsExactly("diary:" + (count - 1));
+    }
+
+    @Test
+    void secondProcessRunsWithoutDiskCache() {
+        DiskCache first = open(1);
+        DiskCache second = open(1);
+        assertThat(first.isEnabled()).isTrue();
+        assertThat(second.isEnabled()).isFalse();
+    }
+
+    @Test
+    void recordMapperKeepsMillisecondsAndDropsPassword() throws Exception {
+        ObjectMapper mapper = DiskCache.recordMapper();
+
+        Diary diary = new Diary("user1", "tree1", "오늘의 일기");
+        Date writtenDate = new Date(1_700_000_000_123L);
+        diary.setWrittenDate(writtenDate);
+        diary.setUpdatedAt(new Date(1_700_000_001_456L));
+        Diary restored = mapper.readValue(mapper.writeValueAsBytes(diary), Diary.class);
+        assertThat(restored.getWrittenDate()).isEqualTo(writtenDate);
+        assertThat(restored.getUpdatedAt()).isEqualTo(new Date(1_700_000_001_456L));
+
+        User user = new User();
+        user.setPassword("secret");
+        assertThat(mapper.writeValueAsString(user)).doesNotContain("secret");
+    }
+
+    private DiskCache open(int maxSizeMb) {
+        ObjectProvider<MeterRegistry> noMetrics = new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        DiskCache cache = new DiskCache(null, true, directory.toString(), maxSizeMb, 0, 60, noMetrics);
+        opened.add(cache);
+        return cache;
+    }
+
+    private void close(DiskCache cache) {
+        cache.shutdown();
+        opened.remove(cache);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 길이 + 본문(종류, 키, 경로, updateTime, 값) + CRC */
+    private static int recordSize(String key, String path, byte[] value) {
+        int body = 1 + 2 + bytes(key).length + 2 + bytes(path).length + 8 + 4 + 4 + value.length;
+        return 4 + body + 4;
+    }
+}
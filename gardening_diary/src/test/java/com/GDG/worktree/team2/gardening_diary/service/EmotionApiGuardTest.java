@@ -0,0 +1,87 @@
+package com.GDG.worktree.team2.gardening_diary.service;
+
+import com.GDG.worktree.team2.gardening_diary.util.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmotionApiGuardTest {
+
+    private static final long MAX_WAIT_MILLIS = 50;
+
+    /** 동시 호출 1개, 최근 2번 모두 실패하면 열리는 가드 */
+    private EmotionApiGuard guard() {
+        return new EmotionApiGuard(2, 2, 1.0, 30, 1, 1, MAX_WAIT_MILLIS);
+    }
+
+    @Test
+    void rejectsAfterMaxWaitWhenBulkheadIsFull() throws InterruptedException {
+        EmotionApiGuard guard = guard();
+        long held = guard.tryAcquire();
+        assertThat(held).isNotEqualTo(CircuitBreaker.REJECTED);
+        assertThat(guard.getAvailablePermits()).isZero();
+
+        long startedAt = System.nanoTime();
+        assertThat(guard.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(MAX_WAIT_MILLIS - 5);
+        assertThat(guard.getRejectedByBulkhead()).isEqualTo(1);
+        assertThat(guard.getRejectedByBreaker()).isZero();
+    }
+
+    @Test
+    void acquiresAgainAfterRelease() throws InterruptedException {
+        EmotionApiGuard guard = guard();
+        guard.release(guard.tryAcquire(), true);
+
+        assertThat(guard.getAvailablePermits()).isEqualTo(1);
+        assertThat(guard.tryAcquire()).isNotEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    void waitsForAPermitReleasedWithinMaxWait() throws Exception {
+        EmotionApiGuard guard = new EmotionApiGuard(2, 2, 1.0, 30, 1, 1, 2000);
+        long held = guard.tryAcquire();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            guard.release(held, true);
+        });
+        releaser.start();
+
+        assertThat(guard.tryAcquire()).isNotEqualTo(CircuitBreaker.REJECTED);
+        releaser.join();
+        assertThat(guard.getRejectedByBulkhead()).isZero();
+    }
+
+    @Test
+    void openCircuitRejectsWithoutHoldingABulkheadPermit() throws InterruptedException {
+        EmotionApiGuard guard = guard();
+        guard.release(guard.tryAcquire(), false);
+        guard.release(guard.tryAcquire(), false);
+        assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(guard.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+        assertThat(guard.getRejectedByBreaker()).isEqualTo(1);
+        assertThat(guard.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void notifiesOpenListeners() throws InterruptedException {
+        EmotionApiGuard guard = guard();
+        int[] opened = {0};
+        guard.addOpenListener(() -> opened[0]++);
+
+        guard.release(guard.tryAcquire(), false);
+        guard.release(guard.tryAcquire(), false);
+
+        assertThat(opened[0]).isEqualTo(1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.GDG.worktree.team2.gardening_diary.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    private final List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+    private MicroBatcher<Integer, String> batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    private MicroBatcher<Integer, String> batcher(int maxBatchSize, Duration maxWait,
+                                                  Function<List<Integer>, List<String>> batchCall) {
+        batcher = new MicroBatcher<>("test", maxBatchSize, maxWait, 1, requests -> {
+            calls.add(requests);
+            return batchCall.apply(requests);
+        });
+        return batcher;
+    }
+
+    private static List<String> echo(List<Integer> requests) {
+        return requests.stream().map(request -> "r" + request).toList();
+    }
+
+    @Test
+    void sendsAsSoonAsBatchIsFull() throws Exception {
+        // 대기 시간이 길어도 max-size가 차면 바로 보낸다
+        MicroBatcher<Integer, String> batcher = batcher(3, Duration.ofMinutes(1), MicroBatcherTest::echo);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+        assertThat(first).isNotDone();
+
+        CompletableFuture<String> third = batcher.submit(3);
+
+        assertThat(third.get(1, TimeUnit.SECONDS)).isEqualTo("r3");
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(calls).containsExactly(List.of(1, 2, 3));
+    }
+
+    @Test
+    void sendsPartialBatchAfterMaxWait() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(10, Duration.ofMillis(50), MicroBatcherTest::echo);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("r1");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("r2");
+        assertThat(calls).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    void fansOutResultsInRequestOrder() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(4, Duration.ofMinutes(1), MicroBatcherTest::echo);
+
+        List<CompletableFuture<String>> results = List.of(
+                batcher.submit(7), batcher.submit(3), batcher.submit(9), batcher.submit(1));
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+        assertThat(results).extracting(CompletableFuture::join).containsExactly("r7", "r3", "r9", "r1");
+    }
+
+    @Test
+    void failsEveryItemWhenBatchCallThrows() {
+        IllegalStateException failure = new IllegalStateException("batch down");
+        MicroBatcher<Integer, String> batcher = batcher(2, Duration.ofMinutes(1), requests -> {
+            throw failure;
+        });
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+    }
+
+    @Test
+    void failsEveryItemWhenResultCountDiffers() {
+        // 결과가 하나 빠지면 어느 요청의 결과인지 알 수 없으므로 모두 실패시킨다
+        MicroBatcher<Integer, String> batcher = batcher(2, Duration.ofMinutes(1), requests -> List.of("only"));
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void closeSendsPendingRequests() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(10, Duration.ofMinutes(1), MicroBatcherTest::echo);
+
+        CompletableFuture<String> pending = batcher.submit(5);
+        batcher.close();
+
+        assertThat(pending.get(1, TimeUnit.SECONDS)).isEqualTo("r5");
+    }
+}